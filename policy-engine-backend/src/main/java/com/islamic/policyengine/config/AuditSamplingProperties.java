@@ -0,0 +1,48 @@
+package com.islamic.policyengine.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Per-policy audit sampling under {@code policy-engine.audit.sampling.policies}. Policy types
+ * without an entry are audited in full.
+ *
+ * <pre>
+ * policy-engine:
+ *   audit:
+ *     sampling:
+ *       policies:
+ *         TRANSACTION_LIMIT:
+ *           approval: allowed=true
+ *           approval-rate: 0.05
+ *           approval-payloads: false
+ * </pre>
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "policy-engine.audit.sampling")
+public class AuditSamplingProperties {
+
+    private Map<String, PolicySampling> policies = new HashMap<>();
+
+    @Data
+    public static class PolicySampling {
+
+        /**
+         * Result field and value that mark an approval, e.g. {@code allowed=true} or
+         * {@code flagged=false}. Every other result (denials, flags, missing field) is always
+         * recorded in full.
+         */
+        private String approval;
+
+        /** Share of approvals recorded, 0.0 to 1.0. */
+        private double approvalRate = 1.0;
+
+        /** Whether sampled approvals keep their payloads or only metadata. */
+        private boolean approvalPayloads = true;
+    }
+}
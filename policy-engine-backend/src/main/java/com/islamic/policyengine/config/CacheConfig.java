@@ -1,6 +1,8 @@
 package com.islamic.policyengine.config;
 
 import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.cache.caffeine.CaffeineCacheManager;
@@ -9,17 +11,35 @@ import org.springframework.context.annotation.Configuration;
 
 import java.util.concurrent.TimeUnit;
 
+@Slf4j
 @Configuration
 @EnableCaching
 public class CacheConfig {
 
     @Bean
     public CacheManager cacheManager() {
-        CaffeineCacheManager cacheManager = new CaffeineCacheManager("ruleCache", "kieBases");
-        cacheManager.setCaffeine(Caffeine.newBuilder()
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        // kieBases values own session pools and metrics; release them whenever an entry leaves
+        // the cache, whether by explicit eviction, replacement, TTL or size. A CompiledRule still
+        // used by an evaluation (typically one REPLACED by install() mid-request) only retires
+        // here and is released when that evaluation finishes
+        cacheManager.registerCustomCache("kieBases", Caffeine.newBuilder()
                 .expireAfterWrite(30, TimeUnit.MINUTES)
                 .maximumSize(50)
-                .recordStats());
+                .recordStats()
+                .removalListener((Object key, Object value, RemovalCause cause) -> close(key, value, cause))
+                .build());
         return cacheManager;
     }
+
+    private static void close(Object key, Object value, RemovalCause cause) {
+        if (value instanceof AutoCloseable) {
+            try {
+                ((AutoCloseable) value).close();
+                log.debug("Released cache entry {} ({})", key, cause);
+            } catch (Exception e) {
+                log.warn("Failed to release cache entry {}", key, e);
+            }
+        }
+    }
 }
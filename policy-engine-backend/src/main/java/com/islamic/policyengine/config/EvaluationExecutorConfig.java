@@ -0,0 +1,60 @@
+package com.islamic.policyengine.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Slf4j
+@Configuration
+public class EvaluationExecutorConfig {
+
+    /**
+     * Workers for bulk evaluation (evaluate-batch, evaluate-stream). Kept apart from the common
+     * pool so a large batch cannot starve unrelated parallel streams.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ForkJoinPool bulkEvaluationPool(@Value("${policy-engine.batch.parallelism:0}") int parallelism) {
+        int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        log.info("Bulk evaluation pool with parallelism {}", threads);
+        return newPool(threads, "bulk-eval-");
+    }
+
+    /**
+     * Workers for multi-policy fan-out. Separate from the bulk pool so an online authorization
+     * never queues behind a nightly batch. A plain bounded pool rather than a fork-join pool:
+     * its tasks block on the evaluation deadline, and when the queue is full the request thread
+     * runs the policy itself instead of queueing without limit.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ThreadPoolExecutor fanOutEvaluationExecutor(
+            @Value("${policy-engine.fan-out.parallelism:0}") int parallelism,
+            @Value("${policy-engine.fan-out.queue-capacity:1000}") int queueCapacity) {
+        int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        log.info("Fan-out evaluation executor with {} threads and queue capacity {}", threads, queueCapacity);
+        AtomicInteger index = new AtomicInteger();
+        return new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)),
+                task -> {
+                    Thread thread = new Thread(task, "fan-out-eval-" + index.getAndIncrement());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    private static ForkJoinPool newPool(int threads, String namePrefix) {
+        return new ForkJoinPool(threads, pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName(namePrefix + thread.getPoolIndex());
+            return thread;
+        }, null, false);
+    }
+}
@@ -1,20 +1,36 @@
 package com.islamic.policyengine.controller;
 
+import com.islamic.policyengine.exception.AuditLogNotFoundException;
+import com.islamic.policyengine.model.dto.AuditLogCursorPage;
 import com.islamic.policyengine.model.dto.AuditLogDto;
-import com.islamic.policyengine.model.entity.AuditLog;
-import com.islamic.policyengine.repository.AuditLogRepository;
+import com.islamic.policyengine.model.dto.EvaluationStatsResponse;
+import com.islamic.policyengine.repository.AuditCursor;
+import com.islamic.policyengine.repository.AuditLogFilter;
+import com.islamic.policyengine.service.AuditExportService;
+import com.islamic.policyengine.service.AuditExportService.ExportFormat;
+import com.islamic.policyengine.service.AuditQueryService;
+import com.islamic.policyengine.service.AuditSearchIndexService;
+import com.islamic.policyengine.service.EvaluationRollupService;
+import com.islamic.policyengine.service.EvaluationRollupService.StatsInterval;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
-import org.springframework.data.jpa.domain.Specification;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import javax.servlet.http.HttpServletResponse;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
-import java.time.LocalTime;
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.UUID;
 
 @RestController
@@ -22,7 +38,18 @@ import java.util.UUID;
 @RequiredArgsConstructor
 public class AuditController {
 
-    private final AuditLogRepository auditLogRepository;
+    public enum CountMode {
+        NONE,
+        EXACT,
+        ESTIMATE
+    }
+
+    private static final int MAX_PAGE_SIZE = 500;
+
+    private final AuditQueryService auditQueryService;
+    private final EvaluationRollupService evaluationRollupService;
+    private final AuditExportService auditExportService;
+    private final AuditSearchIndexService auditSearchIndexService;
 
     @GetMapping
     public ResponseEntity<Page<AuditLogDto>> getAuditLogs(
@@ -34,40 +61,139 @@ public class AuditController {
             @RequestParam(defaultValue = "20") int size) {
 
         Pageable pageable = PageRequest.of(page, size, Sort.by("createdAt").descending());
+        AuditLogFilter filter = new AuditLogFilter(policyType, ruleId, dateFrom, dateTo);
 
-        Specification<AuditLog> spec = Specification.where(null);
+        List<AuditLogDto> content = auditQueryService.findOffsetPage(filter, pageable.getOffset(), size);
+        return ResponseEntity.ok(new PageImpl<>(content, pageable, auditQueryService.count(filter)));
+    }
 
-        if (policyType != null) {
-            spec = spec.and((root, query, cb) -> cb.equal(root.get("policyType"), policyType));
-        }
-        if (ruleId != null) {
-            spec = spec.and((root, query, cb) -> cb.equal(root.get("rule").get("id"), ruleId));
-        }
-        if (dateFrom != null) {
-            spec = spec.and((root, query, cb) ->
-                    cb.greaterThanOrEqualTo(root.get("createdAt"), dateFrom.atStartOfDay()));
+    /**
+     * Keyset variant of {@link #getAuditLogs}: pass the previous page's {@code nextCursor} to
+     * continue. The total is omitted unless {@code count} asks for it, either exactly or as the
+     * planner's estimate.
+     */
+    @GetMapping("/cursor")
+    public ResponseEntity<AuditLogCursorPage> getAuditLogsByCursor(
+            @RequestParam(required = false) String policyType,
+            @RequestParam(required = false) UUID ruleId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dateFrom,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dateTo,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "NONE") CountMode count) {
+
+        AuditLogFilter filter = new AuditLogFilter(policyType, ruleId, dateFrom, dateTo);
+        return ResponseEntity.ok(cursorPage(filter, cursor, size, count));
+    }
+
+    /**
+     * Keyset search on audited input and output values, e.g.
+     * {@code criteria=input.destinationRegion=ME&criteria=input.transactionAmount>50000000}.
+     * Criteria are ANDed. {@code =} works on any field; range operators need a numeric rule
+     * field marked searchable, whose expression index keeps the search off a sequential scan.
+     */
+    @GetMapping("/search")
+    public ResponseEntity<AuditLogCursorPage> searchAuditLogs(
+            @RequestParam List<String> criteria,
+            @RequestParam(required = false) String policyType,
+            @RequestParam(required = false) UUID ruleId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dateFrom,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dateTo,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "NONE") CountMode count) {
+
+        AuditLogFilter filter = new AuditLogFilter(policyType, ruleId, dateFrom, dateTo,
+                auditSearchIndexService.parseCriteria(criteria));
+        return ResponseEntity.ok(cursorPage(filter, cursor, size, count));
+    }
+
+    /**
+     * Streams every entry matching the filters and search criteria (as for {@code /search}),
+     * payloads included, oldest first. Unlike the list endpoints there is no page size; memory
+     * stays constant however large the range.
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportAuditLogs(
+            @RequestParam(required = false) String policyType,
+            @RequestParam(required = false) UUID ruleId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dateFrom,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dateTo,
+            @RequestParam(required = false) List<String> criteria,
+            @RequestParam(defaultValue = "NDJSON") ExportFormat format) {
+
+        AuditLogFilter filter = new AuditLogFilter(policyType, ruleId, dateFrom, dateTo,
+                auditSearchIndexService.parseCriteria(criteria));
+        String filename = "audit-export" + (dateFrom != null ? "-" + dateFrom : "") + (dateTo != null ? "-" + dateTo : "")
+                + "." + format.getExtension();
+        return ResponseEntity.ok()
+                .contentType(format.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(filename).build().toString())
+                .body(auditExportService.export(filter, format));
+    }
+
+    /**
+     * Evaluation counts, latency percentiles and outcomes per {@code interval}, read from the
+     * per-minute rollups rather than the audit log. Defaults to the last 24 hours by hour.
+     */
+    @GetMapping("/stats")
+    public ResponseEntity<EvaluationStatsResponse> getEvaluationStats(
+            @RequestParam(required = false) String policyType,
+            @RequestParam(required = false) UUID ruleId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "HOUR") StatsInterval interval) {
+
+        LocalDateTime end = to != null ? to : LocalDateTime.now();
+        LocalDateTime start = from != null ? from : end.minusHours(24);
+        return ResponseEntity.ok(evaluationRollupService.stats(policyType, ruleId, start, end, interval));
+    }
+
+    /**
+     * One entry with its input and output payloads, streamed as JSON. Archived entries are
+     * found only with {@code at} (the entry's {@code createdAt}), which selects their day file.
+     */
+    @GetMapping("/{id}")
+    public void getAuditLog(@PathVariable UUID id,
+                            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime at,
+                            HttpServletResponse response) {
+        LocalDate day = at != null ? at.toLocalDate() : null;
+        boolean found = auditQueryService.streamDetail(id, day, () -> {
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+            return response.getWriter();
+        });
+        if (!found) {
+            throw new AuditLogNotFoundException("Audit log not found: " + id);
         }
-        if (dateTo != null) {
-            spec = spec.and((root, query, cb) ->
-                    cb.lessThanOrEqualTo(root.get("createdAt"), dateTo.atTime(LocalTime.MAX)));
+    }
+
+    private AuditLogCursorPage cursorPage(AuditLogFilter filter, String cursor, int size, CountMode count) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("size must be between 1 and " + MAX_PAGE_SIZE);
         }
+        AuditCursor after = cursor != null && !cursor.isBlank() ? AuditCursor.decode(cursor) : null;
 
-        Page<AuditLog> auditLogs = auditLogRepository.findAll(spec, pageable);
+        // One extra row tells whether another page exists without a count
+        List<AuditLogDto> rows = auditQueryService.findPage(filter, after, size + 1);
+        String nextCursor = null;
+        if (rows.size() > size) {
+            rows = rows.subList(0, size);
+            AuditLogDto last = rows.get(size - 1);
+            nextCursor = new AuditCursor(last.getCreatedAt(), last.getId()).encode();
+        }
 
-        return ResponseEntity.ok(auditLogs.map(this::toDto));
-    }
+        Long total = switch (count) {
+            case EXACT -> auditQueryService.count(filter);
+            case ESTIMATE -> auditQueryService.estimateCount(filter);
+            case NONE -> null;
+        };
 
-    private AuditLogDto toDto(AuditLog auditLog) {
-        return AuditLogDto.builder()
-                .id(auditLog.getId())
-                .policyType(auditLog.getPolicyType())
-                .ruleId(auditLog.getRule() != null ? auditLog.getRule().getId() : null)
-                .ruleVersion(auditLog.getRuleVersion())
-                .inputData(auditLog.getInputData())
-                .outputData(auditLog.getOutputData())
-                .evaluationMs(Long.valueOf(auditLog.getEvaluationMs()))
-                .callerId(auditLog.getCallerId())
-                .createdAt(auditLog.getCreatedAt())
+        return AuditLogCursorPage.builder()
+                .content(rows)
+                .nextCursor(nextCursor)
+                .total(total)
+                .totalEstimated(count == CountMode.ESTIMATE)
                 .build();
     }
 }
@@ -0,0 +1,40 @@
+package com.islamic.policyengine.controller;
+
+import com.islamic.policyengine.model.dto.KieBaseEntryDto;
+import com.islamic.policyengine.service.KieBaseCacheService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/v1/admin/kie-bases")
+@RequiredArgsConstructor
+public class KieBaseAdminController {
+
+    private final KieBaseCacheService kieBaseCacheService;
+
+    @GetMapping
+    public ResponseEntity<List<KieBaseEntryDto>> getEntries() {
+        return ResponseEntity.ok(kieBaseCacheService.getEntries());
+    }
+
+    @PostMapping("/warm-up")
+    public ResponseEntity<List<KieBaseEntryDto>> warmUp(@RequestParam(required = false) String policyType) {
+        return ResponseEntity.ok(kieBaseCacheService.warmUp(policyType));
+    }
+
+    @DeleteMapping("/{ruleId}/{version}")
+    public ResponseEntity<Void> evict(@PathVariable UUID ruleId, @PathVariable int version) {
+        kieBaseCacheService.evict(ruleId, version);
+        return ResponseEntity.noContent().build();
+    }
+
+    @DeleteMapping
+    public ResponseEntity<Void> evictAll() {
+        kieBaseCacheService.evictAll();
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -1,12 +1,25 @@
 package com.islamic.policyengine.controller;
 
+import com.islamic.policyengine.config.AsyncTimeoutConfig;
+import com.islamic.policyengine.model.dto.BatchEvaluationRequest;
+import com.islamic.policyengine.model.dto.BatchEvaluationResponse;
 import com.islamic.policyengine.model.dto.EvaluationRequest;
 import com.islamic.policyengine.model.dto.EvaluationResponse;
+import com.islamic.policyengine.model.dto.MultiPolicyEvaluationRequest;
+import com.islamic.policyengine.model.dto.MultiPolicyEvaluationResponse;
 import com.islamic.policyengine.model.dto.PolicySchemaDTO;
+import com.islamic.policyengine.service.BatchEvaluationService;
+import com.islamic.policyengine.service.MultiPolicyEvaluationService;
 import com.islamic.policyengine.service.PolicyEvaluationService;
+import com.islamic.policyengine.service.StreamingEvaluationService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import javax.servlet.http.HttpServletRequest;
+import java.io.IOException;
 
 @RestController
 @RequestMapping("/api/v1/policies")
@@ -14,6 +27,16 @@ import org.springframework.web.bind.annotation.*;
 public class PolicyEvaluationController {
 
     private final PolicyEvaluationService policyEvaluationService;
+    private final BatchEvaluationService batchEvaluationService;
+    private final StreamingEvaluationService streamingEvaluationService;
+    private final MultiPolicyEvaluationService multiPolicyEvaluationService;
+
+    @PostMapping("/evaluate")
+    public ResponseEntity<MultiPolicyEvaluationResponse> evaluateMany(
+            @RequestBody MultiPolicyEvaluationRequest request) {
+        MultiPolicyEvaluationResponse response = multiPolicyEvaluationService.evaluate(request);
+        return ResponseEntity.ok(response);
+    }
 
     @PostMapping("/{policyType}/evaluate")
     public ResponseEntity<EvaluationResponse> evaluate(
@@ -23,6 +46,32 @@ public class PolicyEvaluationController {
         return ResponseEntity.ok(response);
     }
 
+    @PostMapping("/{policyType}/evaluate-batch")
+    public ResponseEntity<BatchEvaluationResponse> evaluateBatch(
+            @PathVariable String policyType,
+            @RequestBody BatchEvaluationRequest request) {
+        BatchEvaluationResponse response = batchEvaluationService.evaluateBatch(policyType, request);
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Reads NDJSON inputs from the request body and streams one NDJSON result per line back.
+     * The body is read incrementally, not bound to a {@code @RequestBody}.
+     */
+    @PostMapping(value = "/{policyType}/evaluate-stream",
+            consumes = MediaType.APPLICATION_NDJSON_VALUE,
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> evaluateStream(
+            @PathVariable String policyType,
+            HttpServletRequest request) throws IOException {
+        // The stream runs as long as the client keeps sending; only this endpoint gets the long timeout
+        request.setAttribute(AsyncTimeoutConfig.TIMEOUT_ATTRIBUTE, streamingEvaluationService.getTimeoutMs());
+        StreamingResponseBody body = streamingEvaluationService.evaluateStream(policyType, request.getInputStream());
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
     @GetMapping("/{policyType}/schema")
     public ResponseEntity<PolicySchemaDTO> getSchema(@PathVariable String policyType) {
         PolicySchemaDTO schema = policyEvaluationService.getSchema(policyType);
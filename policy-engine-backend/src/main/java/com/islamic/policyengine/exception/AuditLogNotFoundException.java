@@ -0,0 +1,8 @@
+package com.islamic.policyengine.exception;
+
+public class AuditLogNotFoundException extends RuntimeException {
+
+    public AuditLogNotFoundException(String message) {
+        super(message);
+    }
+}
@@ -21,8 +21,8 @@ public class GlobalExceptionHandler {
 
     @ExceptionHandler(ResponseStatusException.class)
     public ResponseEntity<Map<String, Object>> handleResponseStatus(ResponseStatusException ex) {
-        Map<String, Object> body = buildErrorResponse(
-                "EVALUATION_TIMEOUT", ex.getReason(), List.of());
+        String code = ex.getStatus() == HttpStatus.SERVICE_UNAVAILABLE ? "EVALUATION_REJECTED" : "EVALUATION_TIMEOUT";
+        Map<String, Object> body = buildErrorResponse(code, ex.getReason(), List.of());
         return ResponseEntity.status(ex.getStatus()).body(body);
     }
 
@@ -33,6 +33,13 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.NOT_FOUND).body(body);
     }
 
+    @ExceptionHandler(AuditLogNotFoundException.class)
+    public ResponseEntity<Map<String, Object>> handleAuditLogNotFound(AuditLogNotFoundException ex) {
+        Map<String, Object> body = buildErrorResponse(
+                "AUDIT_LOG_NOT_FOUND", ex.getMessage(), List.of());
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(body);
+    }
+
     @ExceptionHandler(DrlCompilationException.class)
     public ResponseEntity<Map<String, Object>> handleDrlCompilation(DrlCompilationException ex) {
         Map<String, Object> body = buildErrorResponse(
@@ -40,6 +47,13 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).body(body);
     }
 
+    @ExceptionHandler(RuleFiringLimitException.class)
+    public ResponseEntity<Map<String, Object>> handleRuleFiringLimit(RuleFiringLimitException ex) {
+        Map<String, Object> body = buildErrorResponse(
+                "RULE_FIRING_LIMIT_EXCEEDED", ex.getMessage(), List.of());
+        return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).body(body);
+    }
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<Map<String, Object>> handleValidation(MethodArgumentNotValidException ex) {
         List<String> details = ex.getBindingResult().getFieldErrors().stream()
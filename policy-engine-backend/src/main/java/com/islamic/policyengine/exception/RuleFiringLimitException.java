@@ -0,0 +1,8 @@
+package com.islamic.policyengine.exception;
+
+public class RuleFiringLimitException extends RuntimeException {
+
+    public RuleFiringLimitException(String message) {
+        super(message);
+    }
+}
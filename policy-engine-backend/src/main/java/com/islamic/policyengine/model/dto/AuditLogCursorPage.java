@@ -0,0 +1,20 @@
+package com.islamic.policyengine.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AuditLogCursorPage {
+
+    private List<AuditLogDto> content;
+    private String nextCursor;
+    private Long total;
+    private boolean totalEstimated;
+}
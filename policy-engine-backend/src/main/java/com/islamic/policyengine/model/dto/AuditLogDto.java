@@ -8,6 +8,10 @@ import lombok.NoArgsConstructor;
 import java.time.LocalDateTime;
 import java.util.UUID;
 
+/**
+ * Audit list entry. Payloads are left out so listing never reads the jsonb columns; fetch them
+ * per entry from {@code GET /api/v1/audit/{id}}.
+ */
 @Data
 @Builder
 @NoArgsConstructor
@@ -18,9 +22,8 @@ public class AuditLogDto {
     private String policyType;
     private UUID ruleId;
     private Integer ruleVersion;
-    private String inputData;
-    private String outputData;
     private Long evaluationMs;
+    private boolean cacheHit;
     private String callerId;
     private LocalDateTime createdAt;
 }
@@ -0,0 +1,19 @@
+package com.islamic.policyengine.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchEvaluationRequest {
+
+    /** One {@link EvaluationRequest#getData()} map per item. */
+    private List<Map<String, Object>> items;
+}
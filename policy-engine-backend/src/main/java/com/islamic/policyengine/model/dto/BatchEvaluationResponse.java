@@ -0,0 +1,28 @@
+package com.islamic.policyengine.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchEvaluationResponse {
+
+    private String policyType;
+    private UUID ruleId;
+    private Integer ruleVersion;
+    private Integer total;
+    private Integer succeeded;
+    private Integer failed;
+    private Long evaluationMs;
+    private LocalDateTime timestamp;
+    /** Same order as the request items. */
+    private List<BatchItemResult> results;
+}
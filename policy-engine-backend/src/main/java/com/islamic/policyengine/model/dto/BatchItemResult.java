@@ -0,0 +1,20 @@
+package com.islamic.policyengine.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchItemResult {
+
+    private Integer index;
+    private Object result;
+    private Long evaluationMs;
+    /** Error code as used by the single-item error responses, e.g. {@code RULE_FIRING_LIMIT_EXCEEDED}. */
+    private String error;
+    private String message;
+}
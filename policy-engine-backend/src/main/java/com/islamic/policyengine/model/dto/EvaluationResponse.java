@@ -19,5 +19,7 @@ public class EvaluationResponse {
     private Integer ruleVersion;
     private Object result;
     private Long evaluationMs;
+    /** Answered from the result cache; {@code evaluationMs} is then 0 and not a rule latency. */
+    private boolean cacheHit;
     private LocalDateTime timestamp;
 }
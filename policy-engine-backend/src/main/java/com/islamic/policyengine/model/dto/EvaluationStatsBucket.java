@@ -0,0 +1,28 @@
+package com.islamic.policyengine.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class EvaluationStatsBucket {
+
+    private LocalDateTime bucket;
+    private long evaluations;
+    /** Evaluations answered from the result cache, left out of the latency figures. */
+    private long cacheHits;
+    private double throughputPerSecond;
+    private double avgMs;
+    private int maxMs;
+    private double p50Ms;
+    private double p95Ms;
+    private double p99Ms;
+    private Map<String, Long> outcomes;
+}
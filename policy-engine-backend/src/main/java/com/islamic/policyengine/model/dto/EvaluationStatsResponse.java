@@ -0,0 +1,25 @@
+package com.islamic.policyengine.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class EvaluationStatsResponse {
+
+    private String policyType;
+    private UUID ruleId;
+    private LocalDateTime from;
+    private LocalDateTime to;
+    private String interval;
+    private EvaluationStatsBucket summary;
+    private List<EvaluationStatsBucket> buckets;
+}
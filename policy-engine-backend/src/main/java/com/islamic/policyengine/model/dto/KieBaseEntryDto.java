@@ -0,0 +1,27 @@
+package com.islamic.policyengine.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class KieBaseEntryDto {
+
+    private UUID ruleId;
+    private int version;
+    private String policyType;
+    private boolean active;
+    private boolean stateless;
+    private boolean sequential;
+    private Integer idleSessions;
+    private String source;
+    private String contentHash;
+    private Long compileMs;
+    private String error;
+}
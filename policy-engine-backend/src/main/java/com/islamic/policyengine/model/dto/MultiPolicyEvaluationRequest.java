@@ -0,0 +1,20 @@
+package com.islamic.policyengine.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MultiPolicyEvaluationRequest {
+
+    private List<String> policyTypes;
+    /** Shared input; each policy receives only the keys its rule declares as INPUT fields. */
+    private Map<String, Object> data;
+}
@@ -0,0 +1,22 @@
+package com.islamic.policyengine.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MultiPolicyEvaluationResponse {
+
+    /** Same order as the requested policy types. */
+    private List<PolicyEvaluationResult> results;
+    /** Wall-clock time for the whole call, roughly the slowest policy. */
+    private Long evaluationMs;
+    private LocalDateTime timestamp;
+}
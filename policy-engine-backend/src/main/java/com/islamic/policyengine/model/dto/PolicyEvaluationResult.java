@@ -0,0 +1,26 @@
+package com.islamic.policyengine.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PolicyEvaluationResult {
+
+    private String policyType;
+    private UUID ruleId;
+    private Integer ruleVersion;
+    private Object result;
+    /** Time spent firing rules. */
+    private Long evaluationMs;
+    /** Time for this policy including rule lookup, binding and audit. */
+    private Long elapsedMs;
+    private String error;
+    private String message;
+}
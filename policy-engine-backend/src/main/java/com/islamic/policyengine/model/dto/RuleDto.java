@@ -1,5 +1,6 @@
 package com.islamic.policyengine.model.dto;
 
+import com.islamic.policyengine.model.enums.CompileMode;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -23,6 +24,8 @@ public class RuleDto {
     private Boolean isActive;
     private Integer version;
     private String factTypeName;
+    private Boolean sequential;
+    private CompileMode compileMode;
     private List<ParameterDto> parameters;
     private List<RuleFieldDTO> fields;
     private LocalDateTime updatedAt;
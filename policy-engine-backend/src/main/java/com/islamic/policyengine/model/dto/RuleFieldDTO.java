@@ -18,4 +18,5 @@ public class RuleFieldDTO {
     private String fieldCategory;
     private List<String> enumValues;
     private Integer fieldOrder;
+    private Boolean searchable;
 }
@@ -1,5 +1,6 @@
 package com.islamic.policyengine.model.entity;
 
+import com.islamic.policyengine.model.enums.CompileMode;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -51,6 +52,15 @@ public class Rule {
     @Column(name = "fact_type_name", length = 100)
     private String factTypeName;
 
+    @Column(nullable = false)
+    @Builder.Default
+    private Boolean sequential = false;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "compile_mode", nullable = false, length = 20)
+    @Builder.Default
+    private CompileMode compileMode = CompileMode.CLASSIC;
+
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
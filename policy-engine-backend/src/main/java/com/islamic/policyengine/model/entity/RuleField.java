@@ -47,6 +47,10 @@ public class RuleField {
     @Builder.Default
     private Integer fieldOrder = 0;
 
+    @Column(nullable = false)
+    @Builder.Default
+    private Boolean searchable = false;
+
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
@@ -0,0 +1,11 @@
+package com.islamic.policyengine.model.enums;
+
+/**
+ * How a rule's DRL is turned into a KieBase.
+ */
+public enum CompileMode {
+    /** Classic DRL compiler; constraints are interpreted or JIT-compiled MVEL. */
+    CLASSIC,
+    /** Drools executable model; constraints and consequences are generated as Java lambdas. */
+    EXECUTABLE_MODEL
+}
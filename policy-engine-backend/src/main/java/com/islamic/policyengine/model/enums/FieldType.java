@@ -0,0 +1,74 @@
+package com.islamic.policyengine.model.enums;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Field types a rule can declare for its INPUT/RESULT fields, with the conversion from the
+ * JSON-decoded request value to the value stored on the fact.
+ */
+public enum FieldType {
+
+    STRING {
+        @Override
+        public Object convert(Object rawValue) {
+            return String.valueOf(rawValue);
+        }
+    },
+    INTEGER {
+        @Override
+        public Object convert(Object rawValue) {
+            if (rawValue instanceof Integer) return rawValue;
+            if (rawValue instanceof Number) return ((Number) rawValue).intValue();
+            return Integer.parseInt(String.valueOf(rawValue));
+        }
+    },
+    BIG_DECIMAL {
+        @Override
+        public Object convert(Object rawValue) {
+            if (rawValue instanceof BigDecimal) return rawValue;
+            return new BigDecimal(String.valueOf(rawValue));
+        }
+    },
+    BOOLEAN {
+        @Override
+        public Object convert(Object rawValue) {
+            if (rawValue instanceof Boolean) return rawValue;
+            return Boolean.parseBoolean(String.valueOf(rawValue));
+        }
+    },
+    ENUM {
+        @Override
+        public Object convert(Object rawValue) {
+            return String.valueOf(rawValue);
+        }
+    },
+    LIST_STRING {
+        @Override
+        public Object convert(Object rawValue) {
+            if (rawValue instanceof List) return rawValue;
+            return new ArrayList<>(Arrays.asList(String.valueOf(rawValue).split(",")));
+        }
+    };
+
+    /**
+     * @param rawValue non-null value decoded from the request JSON
+     */
+    public abstract Object convert(Object rawValue);
+
+    /**
+     * Resolves a stored {@code field_type}; unknown types are treated as strings.
+     */
+    public static FieldType of(String fieldType) {
+        if (fieldType != null) {
+            for (FieldType type : values()) {
+                if (type.name().equals(fieldType)) {
+                    return type;
+                }
+            }
+        }
+        return STRING;
+    }
+}
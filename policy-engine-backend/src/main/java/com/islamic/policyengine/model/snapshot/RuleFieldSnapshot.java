@@ -0,0 +1,37 @@
+package com.islamic.policyengine.model.snapshot;
+
+import com.islamic.policyengine.model.entity.RuleField;
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Immutable, detached copy of a {@link RuleField}.
+ */
+@Value
+@Builder
+public class RuleFieldSnapshot {
+
+    String fieldName;
+    String fieldType;
+    String fieldCategory;
+    String enumValues;
+    int fieldOrder;
+
+    public static RuleFieldSnapshot of(RuleField field) {
+        return RuleFieldSnapshot.builder()
+                .fieldName(field.getFieldName())
+                .fieldType(field.getFieldType())
+                .fieldCategory(field.getFieldCategory())
+                .enumValues(field.getEnumValues())
+                .fieldOrder(field.getFieldOrder() != null ? field.getFieldOrder() : 0)
+                .build();
+    }
+
+    public boolean isInput() {
+        return "INPUT".equals(fieldCategory);
+    }
+
+    public boolean isResult() {
+        return "RESULT".equals(fieldCategory);
+    }
+}
@@ -0,0 +1,25 @@
+package com.islamic.policyengine.model.snapshot;
+
+import com.islamic.policyengine.model.entity.RuleParameter;
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Immutable, detached copy of a {@link RuleParameter}.
+ */
+@Value
+@Builder
+public class RuleParameterSnapshot {
+
+    String paramKey;
+    String paramValue;
+    String paramType;
+
+    public static RuleParameterSnapshot of(RuleParameter parameter) {
+        return RuleParameterSnapshot.builder()
+                .paramKey(parameter.getParamKey())
+                .paramValue(parameter.getParamValue())
+                .paramType(parameter.getParamType())
+                .build();
+    }
+}
@@ -0,0 +1,69 @@
+package com.islamic.policyengine.model.snapshot;
+
+import com.islamic.policyengine.model.entity.Rule;
+import com.islamic.policyengine.model.enums.CompileMode;
+import lombok.Builder;
+import lombok.Value;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Immutable, detached copy of a {@link Rule} together with its fields and parameters.
+ * Safe to share between request threads; never touches the persistence context.
+ */
+@Value
+@Builder(toBuilder = true)
+public class RuleSnapshot {
+
+    UUID id;
+    String name;
+    String policyType;
+    String drlSource;
+    int version;
+    String factTypeName;
+    boolean sequential;
+    @Builder.Default
+    CompileMode compileMode = CompileMode.CLASSIC;
+    List<RuleFieldSnapshot> fields;
+    List<RuleParameterSnapshot> parameters;
+    /**
+     * Order in which {@code ActivePolicyRegistry} published this snapshot, increasing with every
+     * publish; 0 for snapshots not taken from the registry.
+     */
+    long activation;
+
+    /**
+     * Copies the rule and its (already initialized) associations. Fields are ordered by
+     * {@code fieldOrder} so downstream consumers see a stable order.
+     */
+    public static RuleSnapshot of(Rule rule) {
+        return RuleSnapshot.builder()
+                .id(rule.getId())
+                .name(rule.getName())
+                .policyType(rule.getPolicyType())
+                .drlSource(rule.getDrlSource())
+                .version(rule.getVersion())
+                .factTypeName(rule.getFactTypeName())
+                .sequential(Boolean.TRUE.equals(rule.getSequential()))
+                .compileMode(rule.getCompileMode() != null ? rule.getCompileMode() : CompileMode.CLASSIC)
+                .fields(rule.getFields().stream()
+                        .map(RuleFieldSnapshot::of)
+                        .sorted(Comparator.comparingInt(RuleFieldSnapshot::getFieldOrder))
+                        .collect(Collectors.toUnmodifiableList()))
+                .parameters(rule.getParameters().stream()
+                        .map(RuleParameterSnapshot::of)
+                        .collect(Collectors.toUnmodifiableList()))
+                .build();
+    }
+
+    public List<RuleFieldSnapshot> getInputFields() {
+        return fields.stream().filter(RuleFieldSnapshot::isInput).collect(Collectors.toList());
+    }
+
+    public List<RuleFieldSnapshot> getResultFields() {
+        return fields.stream().filter(RuleFieldSnapshot::isResult).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,554 @@
+package com.islamic.policyengine.repository;
+
+import com.islamic.policyengine.model.dto.AuditLogDto;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * One day of archived audit entries in a compressed columnar file.
+ *
+ * <p>Layout: magic and format version, then row groups of up to {@code row-group-size} rows,
+ * each holding the columns one after another, deflated on their own; then a footer (per group:
+ * row count, first and last {@code created_at}, the compressed length of each column; per file:
+ * the row count of each policy type and rule), its length and the magic again. Rows are in
+ * {@code (created_at, id)} order. {@code created_at} is stored as deltas in microseconds;
+ * {@code policy_type}, {@code rule_id}, {@code caller_id} and both payloads are
+ * dictionary-encoded per group (distinct values once, then one code per row, 0 for null), so a
+ * filter on policy type or rule is answered from the dictionary and skips the group when the
+ * value does not occur, and each distinct payload is stored and parsed once per group.</p>
+ *
+ * <p>An open file reads only its footer; a group reads a column from disk when it is first
+ * needed and keeps it decoded. Counting entries of one policy type never touches the payload
+ * columns.</p>
+ */
+public final class AuditArchiveFile {
+
+    enum Column {
+        CREATED_AT, ID, POLICY_TYPE, RULE_ID, RULE_VERSION, EVALUATION_MS, CALLER_ID, INPUT_DATA, OUTPUT_DATA
+    }
+
+    private static final int MAGIC = 0x50454131; // "PEA1"
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEAD_BYTES = 4 + 4;
+    private static final int TAIL_BYTES = 4 + 4;
+
+    /** Dictionary column: {@code codes[row] == 0} is null, otherwise {@code values[codes[row] - 1]}. */
+    record Dictionary(String[] values, int[] codes) {
+
+        /** Code of {@code value}, or -1 if no row has it. */
+        int codeOf(String value) {
+            for (int i = 0; i < values.length; i++) {
+                if (values[i].equals(value)) {
+                    return i + 1;
+                }
+            }
+            return -1;
+        }
+
+        String get(int row) {
+            int code = codes[row];
+            return code == 0 ? null : values[code - 1];
+        }
+    }
+
+    /** Consecutive rows of the file whose columns are read and decoded together. */
+    final class RowGroup {
+
+        private final int rows;
+        private final long first;
+        private final long last;
+        private final long[] offsets;
+        private final int[] lengths;
+        private final Object[] decoded = new Object[Column.values().length];
+
+        private RowGroup(int rows, long first, long last, long offset, int[] lengths) {
+            this.rows = rows;
+            this.first = first;
+            this.last = last;
+            this.lengths = lengths;
+            this.offsets = new long[lengths.length];
+            for (int i = 0; i < lengths.length; i++) {
+                offsets[i] = offset;
+                offset += lengths[i];
+            }
+        }
+
+        int rows() {
+            return rows;
+        }
+
+        /** {@code created_at} of the first row, in microseconds. */
+        long first() {
+            return first;
+        }
+
+        /** {@code created_at} of the last row, in microseconds. */
+        long last() {
+            return last;
+        }
+
+        long[] createdAt() {
+            return (long[]) column(Column.CREATED_AT);
+        }
+
+        long[][] ids() {
+            return (long[][]) column(Column.ID);
+        }
+
+        Dictionary dictionary(Column column) {
+            return (Dictionary) column(column);
+        }
+
+        int[] ints(Column column) {
+            return (int[]) column(column);
+        }
+
+        UUID id(int row) {
+            long[][] ids = ids();
+            return new UUID(ids[0][row], ids[1][row]);
+        }
+
+        AuditLogDto summary(int row) {
+            String ruleId = dictionary(Column.RULE_ID).get(row);
+            int ruleVersion = ints(Column.RULE_VERSION)[row];
+            return AuditLogDto.builder()
+                    .id(id(row))
+                    .policyType(dictionary(Column.POLICY_TYPE).get(row))
+                    .ruleId(ruleId != null ? UUID.fromString(ruleId) : null)
+                    .ruleVersion(ruleVersion == 0 ? null : ruleVersion - 1)
+                    .evaluationMs((long) ints(Column.EVALUATION_MS)[row])
+                    .callerId(dictionary(Column.CALLER_ID).get(row))
+                    .createdAt(fromMicros(createdAt()[row]))
+                    .build();
+        }
+
+        AuditExportRow exportRow(int row) {
+            AuditLogDto summary = summary(row);
+            return new AuditExportRow(summary.getId(), summary.getPolicyType(), summary.getRuleId(),
+                    summary.getRuleVersion(), summary.getEvaluationMs().intValue(), summary.isCacheHit(),
+                    summary.getCallerId(), summary.getCreatedAt(), dictionary(Column.INPUT_DATA).get(row),
+                    dictionary(Column.OUTPUT_DATA).get(row));
+        }
+
+        private synchronized Object column(Column column) {
+            int index = column.ordinal();
+            if (decoded[index] == null) {
+                decoded[index] = decode(column, rows, read(offsets[index], lengths[index]));
+            }
+            return decoded[index];
+        }
+    }
+
+    private final Path path;
+    private final List<RowGroup> groups;
+    private final int rows;
+    private final Map<String, Integer> policyTypes;
+    private final Map<String, Integer> ruleIds;
+
+    private AuditArchiveFile(Path path, DataInputStream footer) throws IOException {
+        this.path = path;
+        int groupCount = footer.readInt();
+        List<RowGroup> groups = new ArrayList<>(groupCount);
+        long offset = HEAD_BYTES;
+        int rows = 0;
+        for (int g = 0; g < groupCount; g++) {
+            int groupRows = footer.readInt();
+            long first = footer.readLong();
+            long last = footer.readLong();
+            int[] lengths = new int[Column.values().length];
+            for (int i = 0; i < lengths.length; i++) {
+                lengths[i] = footer.readInt();
+            }
+            RowGroup group = new RowGroup(groupRows, first, last, offset, lengths);
+            groups.add(group);
+            rows += groupRows;
+            offset = group.offsets[lengths.length - 1] + lengths[lengths.length - 1];
+        }
+        this.groups = List.copyOf(groups);
+        this.rows = rows;
+        this.policyTypes = readCounts(footer);
+        this.ruleIds = readCounts(footer);
+    }
+
+    /** Reads the footer of {@code path}; columns are loaded on first use. */
+    static AuditArchiveFile open(Path path) {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEAD_BYTES + TAIL_BYTES) {
+                throw new IllegalStateException("Not an audit archive file: " + path);
+            }
+            ByteBuffer head = readFully(path, channel, 0, HEAD_BYTES);
+            ByteBuffer tail = readFully(path, channel, size - TAIL_BYTES, TAIL_BYTES);
+            if (head.getInt() != MAGIC || tail.getInt(4) != MAGIC) {
+                throw new IllegalStateException("Not an audit archive file: " + path);
+            }
+            int version = head.getInt();
+            if (version != FORMAT_VERSION) {
+                throw new IllegalStateException("Unsupported audit archive format " + version + ": " + path);
+            }
+            int footerLength = tail.getInt(0);
+            ByteBuffer footer = readFully(path, channel, size - TAIL_BYTES - footerLength, footerLength);
+            return new AuditArchiveFile(path, new DataInputStream(new ByteArrayInputStream(footer.array())));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open audit archive " + path, e);
+        }
+    }
+
+    /** Row groups in file order, so in {@code (created_at, id)} order. */
+    List<RowGroup> groups() {
+        return groups;
+    }
+
+    int rows() {
+        return rows;
+    }
+
+    LocalDateTime first() {
+        return groups.isEmpty() ? null : fromMicros(groups.get(0).first());
+    }
+
+    LocalDateTime last() {
+        return groups.isEmpty() ? null : fromMicros(groups.get(groups.size() - 1).last());
+    }
+
+    /** Rows per policy type. */
+    Map<String, Integer> policyTypes() {
+        return policyTypes;
+    }
+
+    /** Rows per rule id; rows without a rule are not counted. */
+    Map<String, Integer> ruleIds() {
+        return ruleIds;
+    }
+
+    private byte[] read(long offset, int length) {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return readFully(path, channel, offset, length).array();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static ByteBuffer readFully(Path path, FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                throw new IOException("Truncated audit archive " + path);
+            }
+            position += read;
+        }
+        return buffer.flip();
+    }
+
+    private Object decode(Column column, int rows, byte[] compressed) {
+        try (DataInputStream in = new DataInputStream(new InflaterInputStream(new ByteArrayInputStream(compressed)))) {
+            return switch (column) {
+                case CREATED_AT -> {
+                    long[] values = new long[rows];
+                    long previous = 0;
+                    for (int i = 0; i < rows; i++) {
+                        previous += in.readLong();
+                        values[i] = previous;
+                    }
+                    yield values;
+                }
+                case ID -> {
+                    long[][] values = new long[2][rows];
+                    for (int i = 0; i < rows; i++) {
+                        values[0][i] = in.readLong();
+                        values[1][i] = in.readLong();
+                    }
+                    yield values;
+                }
+                case RULE_VERSION, EVALUATION_MS -> {
+                    int[] values = new int[rows];
+                    for (int i = 0; i < rows; i++) {
+                        values[i] = in.readInt();
+                    }
+                    yield values;
+                }
+                case POLICY_TYPE, RULE_ID, CALLER_ID, INPUT_DATA, OUTPUT_DATA -> {
+                    String[] values = new String[in.readInt()];
+                    for (int i = 0; i < values.length; i++) {
+                        values[i] = readString(in);
+                    }
+                    int[] codes = new int[rows];
+                    for (int i = 0; i < rows; i++) {
+                        codes[i] = in.readInt();
+                    }
+                    yield new Dictionary(values, codes);
+                }
+            };
+        } catch (IOException e) {
+            throw new UncheckedIOException("Corrupt " + column + " column in " + path, e);
+        }
+    }
+
+    private static Map<String, Integer> readCounts(DataInputStream in) throws IOException {
+        int size = in.readInt();
+        Map<String, Integer> counts = new TreeMap<>();
+        for (int i = 0; i < size; i++) {
+            counts.put(readString(in), in.readInt());
+        }
+        return Collections.unmodifiableMap(counts);
+    }
+
+    static long toMicros(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + time.getNano() / 1_000;
+    }
+
+    static LocalDateTime fromMicros(long micros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000),
+                (int) Math.floorMod(micros, 1_000_000) * 1_000, ZoneOffset.UTC);
+    }
+
+    /** Orders like PostgreSQL {@code (created_at, id)}: uuids compare as unsigned bytes. */
+    static int compare(long createdAt, long idMsb, long idLsb, long otherCreatedAt, UUID otherId) {
+        int result = Long.compare(createdAt, otherCreatedAt);
+        if (result == 0) {
+            result = Long.compareUnsigned(idMsb, otherId.getMostSignificantBits());
+        }
+        if (result == 0) {
+            result = Long.compareUnsigned(idLsb, otherId.getLeastSignificantBits());
+        }
+        return result;
+    }
+
+    // Strings may exceed writeUTF's 64 KB limit (payloads), so they are length-prefixed UTF-8
+    private static String readString(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * Writes one day of entries, which must arrive in {@code (created_at, id)} order, to a file.
+     * Rows are held only until their group is full, so memory is bounded by the group size
+     * rather than by the day; {@link #close()} writes the last group and the footer.
+     */
+    public static final class Writer implements Closeable {
+
+        private final DataOutputStream out;
+        private final int groupSize;
+        private final ByteArrayOutputStream footer = new ByteArrayOutputStream();
+        private final DataOutputStream footerOut = new DataOutputStream(footer);
+        private final Map<String, Integer> policyTypeCounts = new TreeMap<>();
+        private final Map<String, Integer> ruleIdCounts = new TreeMap<>();
+        private int groups;
+        private int rows;
+
+        // The group being filled
+        private int groupRows;
+        private final long[] createdAt;
+        private final long[] idMsb;
+        private final long[] idLsb;
+        private final int[] ruleVersion;
+        private final int[] evaluationMs;
+        private DictionaryBuilder policyTypes;
+        private DictionaryBuilder ruleIds;
+        private DictionaryBuilder callerIds;
+        private DictionaryBuilder inputs;
+        private DictionaryBuilder outputs;
+
+        /** Writes to {@code path}; callers write to a temporary name and move it into place. */
+        Writer(Path path, int groupSize) throws IOException {
+            this.out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path)));
+            this.groupSize = groupSize;
+            this.createdAt = new long[groupSize];
+            this.idMsb = new long[groupSize];
+            this.idLsb = new long[groupSize];
+            this.ruleVersion = new int[groupSize];
+            this.evaluationMs = new int[groupSize];
+            startGroup();
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+        }
+
+        public void add(AuditExportRow row) {
+            createdAt[groupRows] = toMicros(row.createdAt());
+            idMsb[groupRows] = row.id().getMostSignificantBits();
+            idLsb[groupRows] = row.id().getLeastSignificantBits();
+            ruleVersion[groupRows] = row.ruleVersion() != null ? row.ruleVersion() + 1 : 0;
+            evaluationMs[groupRows] = row.evaluationMs();
+            policyTypes.add(row.policyType());
+            ruleIds.add(row.ruleId() != null ? row.ruleId().toString() : null);
+            callerIds.add(row.callerId());
+            inputs.add(row.inputData());
+            outputs.add(row.outputData());
+            if (row.policyType() != null) {
+                policyTypeCounts.merge(row.policyType(), 1, Integer::sum);
+            }
+            if (row.ruleId() != null) {
+                ruleIdCounts.merge(row.ruleId().toString(), 1, Integer::sum);
+            }
+            rows++;
+            if (++groupRows == groupSize) {
+                try {
+                    writeGroup();
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Failed to write audit archive row group", e);
+                }
+            }
+        }
+
+        public int rows() {
+            return rows;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try (out) {
+                if (groupRows > 0) {
+                    writeGroup();
+                }
+                byte[] groupIndex = footer.toByteArray();
+                footer.reset();
+                footerOut.writeInt(groups);
+                footerOut.write(groupIndex);
+                writeCounts(footerOut, policyTypeCounts);
+                writeCounts(footerOut, ruleIdCounts);
+                footer.writeTo(out);
+                out.writeInt(footer.size());
+                out.writeInt(MAGIC);
+            }
+        }
+
+        private void startGroup() {
+            groupRows = 0;
+            policyTypes = new DictionaryBuilder(groupSize);
+            ruleIds = new DictionaryBuilder(groupSize);
+            callerIds = new DictionaryBuilder(groupSize);
+            inputs = new DictionaryBuilder(groupSize);
+            outputs = new DictionaryBuilder(groupSize);
+        }
+
+        private void writeGroup() throws IOException {
+            byte[][] columns = new byte[Column.values().length][];
+            columns[Column.CREATED_AT.ordinal()] = compress(column -> {
+                long previous = 0;
+                for (int i = 0; i < groupRows; i++) {
+                    column.writeLong(createdAt[i] - previous);
+                    previous = createdAt[i];
+                }
+            });
+            columns[Column.ID.ordinal()] = compress(column -> {
+                for (int i = 0; i < groupRows; i++) {
+                    column.writeLong(idMsb[i]);
+                    column.writeLong(idLsb[i]);
+                }
+            });
+            columns[Column.POLICY_TYPE.ordinal()] = compress(policyTypes::writeTo);
+            columns[Column.RULE_ID.ordinal()] = compress(ruleIds::writeTo);
+            columns[Column.RULE_VERSION.ordinal()] = compress(column -> writeInts(column, ruleVersion));
+            columns[Column.EVALUATION_MS.ordinal()] = compress(column -> writeInts(column, evaluationMs));
+            columns[Column.CALLER_ID.ordinal()] = compress(callerIds::writeTo);
+            columns[Column.INPUT_DATA.ordinal()] = compress(inputs::writeTo);
+            columns[Column.OUTPUT_DATA.ordinal()] = compress(outputs::writeTo);
+
+            footerOut.writeInt(groupRows);
+            footerOut.writeLong(createdAt[0]);
+            footerOut.writeLong(createdAt[groupRows - 1]);
+            for (byte[] column : columns) {
+                footerOut.writeInt(column.length);
+                out.write(column);
+            }
+            groups++;
+            startGroup();
+        }
+
+        private void writeInts(DataOutputStream column, int[] values) throws IOException {
+            for (int i = 0; i < groupRows; i++) {
+                column.writeInt(values[i]);
+            }
+        }
+
+        private static void writeCounts(DataOutputStream out, Map<String, Integer> counts) throws IOException {
+            out.writeInt(counts.size());
+            for (Map.Entry<String, Integer> entry : counts.entrySet()) {
+                writeString(out, entry.getKey());
+                out.writeInt(entry.getValue());
+            }
+        }
+
+        private static byte[] compress(ColumnWriter writer) throws IOException {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+            try (DataOutputStream out = new DataOutputStream(new DeflaterOutputStream(bytes, deflater, 64 * 1024))) {
+                writer.write(out);
+            } finally {
+                deflater.end();
+            }
+            return bytes.toByteArray();
+        }
+    }
+
+    @FunctionalInterface
+    private interface ColumnWriter {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    private static final class DictionaryBuilder {
+
+        private final Map<String, Integer> codes = new HashMap<>();
+        private final List<String> values = new ArrayList<>();
+        private final int[] rowCodes;
+        private int rows;
+
+        DictionaryBuilder(int capacity) {
+            this.rowCodes = new int[capacity];
+        }
+
+        void add(String value) {
+            int code = 0;
+            if (value != null) {
+                code = codes.computeIfAbsent(value, v -> {
+                    values.add(v);
+                    return values.size();
+                });
+            }
+            rowCodes[rows++] = code;
+        }
+
+        void writeTo(DataOutputStream out) throws IOException {
+            out.writeInt(values.size());
+            for (String value : values) {
+                writeString(out, value);
+            }
+            for (int i = 0; i < rows; i++) {
+                out.writeInt(rowCodes[i]);
+            }
+        }
+    }
+}
@@ -0,0 +1,478 @@
+package com.islamic.policyengine.repository;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.islamic.policyengine.model.dto.AuditLogDto;
+import com.islamic.policyengine.repository.AuditArchiveFile.Column;
+import com.islamic.policyengine.repository.AuditArchiveFile.Dictionary;
+import com.islamic.policyengine.repository.AuditArchiveFile.RowGroup;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Repository;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Cold tier of the audit log: months moved out of {@code policy_audit_log} into one
+ * {@link AuditArchiveFile} per day under {@code policy-engine.audit.archive.directory}.
+ *
+ * <p>Each month lives in a directory {@code yyyy-MM} holding {@code yyyy-MM-dd.pea} files and a
+ * {@code manifest.json} with each day's row count, first and last {@code created_at} and rows
+ * per policy type and rule. A month is written under {@code .yyyy-MM.tmp} and renamed into place
+ * in one step, so readers see either none or all of its days. The read methods mirror
+ * {@link AuditLogQueryRepository} with the same filters and ordering; date bounds select whole
+ * files, policy type and rule are checked against each row group's dictionary before any row is
+ * read, and payload criteria are evaluated once per distinct payload of a group. Estimates read
+ * only the manifests.</p>
+ */
+@Slf4j
+@Repository
+public class AuditArchiveRepository {
+
+    private static final String FILE_SUFFIX = ".pea";
+    private static final String STAGING_PREFIX = ".";
+    private static final String STAGING_SUFFIX = ".tmp";
+    private static final String MANIFEST = "manifest.json";
+
+    /** Manifest entry of one archived day. */
+    record DayStats(LocalDate day, int rows, LocalDateTime first, LocalDateTime last,
+                    Map<String, Integer> policyTypes, Map<String, Integer> ruleIds) {
+    }
+
+    private final Path directory;
+    private final int rowGroupSize;
+    private final ObjectMapper objectMapper;
+    private final LoadingCache<Path, AuditArchiveFile> files;
+    private final LoadingCache<YearMonth, List<DayStats>> manifests;
+
+    public AuditArchiveRepository(@Value("${policy-engine.audit.archive.directory:data/audit-archive}") String directory,
+                                  @Value("${policy-engine.audit.archive.open-files:32}") long openFiles,
+                                  @Value("${policy-engine.audit.archive.row-group-size:16384}") int rowGroupSize,
+                                  ObjectMapper objectMapper) {
+        this.directory = Path.of(directory);
+        this.rowGroupSize = Math.max(1, rowGroupSize);
+        this.objectMapper = objectMapper;
+        // Keeps decoded columns of recently read days; archived files never change in place
+        this.files = Caffeine.newBuilder()
+                .maximumSize(openFiles)
+                .build(AuditArchiveFile::open);
+        this.manifests = Caffeine.newBuilder()
+                .build(month -> readManifest(directory(month)));
+    }
+
+    /** Same contract as {@link AuditLogQueryRepository#findPage}, over archived days. */
+    public List<AuditLogDto> findPage(AuditLogFilter filter, AuditCursor after, int limit) {
+        List<AuditLogDto> page = new ArrayList<>(Math.min(limit, 1024));
+        for (LocalDate day : days(filter, true)) {
+            if (after != null && day.isAfter(after.createdAt().toLocalDate())) {
+                continue;
+            }
+            List<RowGroup> groups = file(day).groups();
+            long cursorMicros = after != null ? AuditArchiveFile.toMicros(after.createdAt()) : 0;
+            for (int g = groups.size() - 1; g >= 0 && page.size() < limit; g--) {
+                RowGroup group = groups.get(g);
+                if (after != null && group.first() > cursorMicros) {
+                    continue;
+                }
+                int[] rows = matchingRows(group, filter);
+                long[] createdAt = rows.length > 0 && after != null ? group.createdAt() : null;
+                long[][] ids = createdAt != null ? group.ids() : null;
+                for (int i = rows.length - 1; i >= 0 && page.size() < limit; i--) {
+                    int row = rows[i];
+                    if (createdAt != null && AuditArchiveFile.compare(createdAt[row], ids[0][row], ids[1][row],
+                            cursorMicros, after.id()) >= 0) {
+                        continue;
+                    }
+                    page.add(group.summary(row));
+                }
+            }
+            if (page.size() >= limit) {
+                break;
+            }
+        }
+        return page;
+    }
+
+    /** Same contract as {@link AuditLogQueryRepository#findOffsetPage}, over archived days. */
+    public List<AuditLogDto> findOffsetPage(AuditLogFilter filter, long offset, int limit) {
+        List<AuditLogDto> page = new ArrayList<>(Math.min(limit, 1024));
+        long skip = offset;
+        for (LocalDate day : days(filter, true)) {
+            List<RowGroup> groups = file(day).groups();
+            for (int g = groups.size() - 1; g >= 0 && page.size() < limit; g--) {
+                RowGroup group = groups.get(g);
+                int[] rows = matchingRows(group, filter);
+                if (skip >= rows.length) {
+                    skip -= rows.length;
+                    continue;
+                }
+                for (int i = rows.length - 1 - (int) skip; i >= 0 && page.size() < limit; i--) {
+                    page.add(group.summary(rows[i]));
+                }
+                skip = 0;
+            }
+            if (page.size() >= limit) {
+                break;
+            }
+        }
+        return page;
+    }
+
+    public long count(AuditLogFilter filter) {
+        long count = 0;
+        for (LocalDate day : days(filter, false)) {
+            for (RowGroup group : file(day).groups()) {
+                count += matchingRows(group, filter).length;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Rows matching the filter's dates, policy type and rule, from the manifests alone. Payload
+     * criteria are not applied, so with criteria this is an upper bound.
+     */
+    public long estimateCount(AuditLogFilter filter) {
+        long estimate = 0;
+        for (YearMonth month : months(filter)) {
+            for (DayStats stats : manifests.get(month)) {
+                if (!inRange(stats.day(), filter)) {
+                    continue;
+                }
+                long rows = stats.rows();
+                if (filter.policyType() != null) {
+                    rows = Math.min(rows, stats.policyTypes().getOrDefault(filter.policyType(), 0));
+                }
+                if (filter.ruleId() != null) {
+                    rows = Math.min(rows, stats.ruleIds().getOrDefault(filter.ruleId().toString(), 0));
+                }
+                estimate += rows;
+            }
+        }
+        return estimate;
+    }
+
+    /** Hands every archived entry matching {@code filter} to {@code consumer}, oldest first. */
+    public void stream(AuditLogFilter filter, Consumer<AuditExportRow> consumer) {
+        for (LocalDate day : days(filter, false)) {
+            for (RowGroup group : file(day).groups()) {
+                for (int row : matchingRows(group, filter)) {
+                    consumer.accept(group.exportRow(row));
+                }
+            }
+        }
+    }
+
+    /**
+     * Looks {@code id} up in the file of {@code day}, the entry's creation date. Only the id
+     * column is read until the entry is found.
+     */
+    public Optional<AuditExportRow> findById(UUID id, LocalDate day) {
+        Path path = dayFile(day);
+        if (!Files.exists(path)) {
+            return Optional.empty();
+        }
+        for (RowGroup group : files.get(path).groups()) {
+            long[][] ids = group.ids();
+            for (int row = 0; row < group.rows(); row++) {
+                if (ids[0][row] == id.getMostSignificantBits() && ids[1][row] == id.getLeastSignificantBits()) {
+                    return Optional.of(group.exportRow(row));
+                }
+            }
+        }
+        return Optional.empty();
+    }
+
+    /** Archived months, oldest first. */
+    public List<YearMonth> months() {
+        List<YearMonth> months = new ArrayList<>();
+        for (Path child : children(directory)) {
+            YearMonth month = parseMonth(child.getFileName().toString());
+            if (month != null && Files.isDirectory(child)) {
+                months.add(month);
+            }
+        }
+        Collections.sort(months);
+        return months;
+    }
+
+    /** Months written but not yet published, e.g. after a crash mid-archive. */
+    public List<YearMonth> stagedMonths() {
+        List<YearMonth> months = new ArrayList<>();
+        for (Path child : children(directory)) {
+            String name = child.getFileName().toString();
+            if (name.startsWith(STAGING_PREFIX) && name.endsWith(STAGING_SUFFIX)) {
+                YearMonth month = parseMonth(name.substring(STAGING_PREFIX.length(), name.length() - STAGING_SUFFIX.length()));
+                if (month != null) {
+                    months.add(month);
+                }
+            }
+        }
+        return months;
+    }
+
+    /** Starts a fresh staging directory for {@code month}, discarding an earlier attempt. */
+    public void prepareStaging(YearMonth month) {
+        try {
+            Path staging = stagingDirectory(month);
+            deleteRecursively(staging);
+            Files.createDirectories(staging);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to prepare audit archive staging for " + month, e);
+        }
+    }
+
+    /**
+     * Writes one day into the staging directory of its month: {@code source} is handed a sink
+     * and passes it the day's entries in {@code (created_at, id)} order. Rows are written out
+     * a row group at a time; a day without rows leaves no file. Returns the rows written.
+     */
+    public int writeDay(LocalDate day, Consumer<Consumer<AuditExportRow>> source) {
+        Path staging = stagingDirectory(YearMonth.from(day));
+        Path target = staging.resolve(day + FILE_SUFFIX);
+        Path temp = staging.resolve(day + FILE_SUFFIX + STAGING_SUFFIX);
+        try {
+            AuditArchiveFile.Writer writer = new AuditArchiveFile.Writer(temp, rowGroupSize);
+            try (writer) {
+                source.accept(writer::add);
+            }
+            if (writer.rows() == 0) {
+                Files.delete(temp);
+            } else {
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            }
+            return writer.rows();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write audit archive for " + day, e);
+        }
+    }
+
+    /** Rows written so far into the staging directory of {@code month}. */
+    public long stagedRows(YearMonth month) {
+        long rows = 0;
+        for (Path file : dayFiles(stagingDirectory(month))) {
+            rows += AuditArchiveFile.open(file).rows();
+        }
+        return rows;
+    }
+
+    /** Writes the manifest of a staged month and makes the month visible to readers. */
+    public void publish(YearMonth month) {
+        Path staging = stagingDirectory(month);
+        Path target = directory(month);
+        try {
+            List<DayStats> manifest = buildManifest(staging);
+            objectMapper.writeValue(staging.resolve(MANIFEST).toFile(), manifest);
+            if (Files.exists(target)) {
+                // A month is archived only while its partition exists, so this is a leftover of a failed run
+                deleteRecursively(target);
+            }
+            Files.move(staging, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to publish audit archive for " + month, e);
+        }
+        files.invalidateAll();
+        manifests.invalidate(month);
+    }
+
+    /**
+     * Archived days overlapping the filter's date range, newest first when {@code descending}.
+     */
+    private List<LocalDate> days(AuditLogFilter filter, boolean descending) {
+        List<LocalDate> days = new ArrayList<>();
+        for (YearMonth month : months(filter)) {
+            for (Path file : dayFiles(directory(month))) {
+                LocalDate day = day(file);
+                if (inRange(day, filter)) {
+                    days.add(day);
+                }
+            }
+        }
+        days.sort(descending ? Comparator.reverseOrder() : Comparator.naturalOrder());
+        return days;
+    }
+
+    /** Archived months overlapping the filter's date range, oldest first. */
+    private List<YearMonth> months(AuditLogFilter filter) {
+        List<YearMonth> months = new ArrayList<>();
+        for (YearMonth month : months()) {
+            if (inRange(month.atEndOfMonth(), filter.dateFrom(), null)
+                    && inRange(month.atDay(1), null, filter.dateTo())) {
+                months.add(month);
+            }
+        }
+        return months;
+    }
+
+    private static boolean inRange(LocalDate day, AuditLogFilter filter) {
+        return inRange(day, filter.dateFrom(), filter.dateTo());
+    }
+
+    private static boolean inRange(LocalDate day, LocalDate from, LocalDate to) {
+        return (from == null || !day.isBefore(from)) && (to == null || !day.isAfter(to));
+    }
+
+    /**
+     * Reads the manifest of a published month; a month published without one is described
+     * from the footers of its day files.
+     */
+    private List<DayStats> readManifest(Path month) throws IOException {
+        Path manifest = month.resolve(MANIFEST);
+        if (!Files.exists(manifest)) {
+            return buildManifest(month);
+        }
+        return objectMapper.readValue(manifest.toFile(), new TypeReference<List<DayStats>>() { });
+    }
+
+    private List<DayStats> buildManifest(Path month) {
+        List<DayStats> manifest = new ArrayList<>();
+        for (Path path : dayFiles(month)) {
+            AuditArchiveFile file = AuditArchiveFile.open(path);
+            manifest.add(new DayStats(day(path), file.rows(), file.first(), file.last(),
+                    file.policyTypes(), file.ruleIds()));
+        }
+        manifest.sort(Comparator.comparing(DayStats::day));
+        return manifest;
+    }
+
+    /** Rows of {@code group} matching {@code filter}, ascending. */
+    private int[] matchingRows(RowGroup group, AuditLogFilter filter) {
+        int policyTypeCode = 0;
+        if (filter.policyType() != null) {
+            policyTypeCode = group.dictionary(Column.POLICY_TYPE).codeOf(filter.policyType());
+            if (policyTypeCode < 0) {
+                return new int[0];
+            }
+        }
+        int ruleIdCode = 0;
+        if (filter.ruleId() != null) {
+            ruleIdCode = group.dictionary(Column.RULE_ID).codeOf(filter.ruleId().toString());
+            if (ruleIdCode < 0) {
+                return new int[0];
+            }
+        }
+        int[] policyTypes = policyTypeCode > 0 ? group.dictionary(Column.POLICY_TYPE).codes() : null;
+        int[] ruleIds = ruleIdCode > 0 ? group.dictionary(Column.RULE_ID).codes() : null;
+
+        List<int[]> payloadCodes = new ArrayList<>(filter.payloadCriteria().size());
+        List<boolean[]> payloadMatches = new ArrayList<>(filter.payloadCriteria().size());
+        for (AuditPayloadCriterion criterion : filter.payloadCriteria()) {
+            Dictionary payloads = group.dictionary(criterion.side() == AuditPayloadCriterion.Side.INPUT
+                    ? Column.INPUT_DATA : Column.OUTPUT_DATA);
+            boolean[] matches = new boolean[payloads.values().length + 1];
+            for (int i = 0; i < payloads.values().length; i++) {
+                matches[i + 1] = criterion.matches(parse(payloads.values()[i]));
+            }
+            payloadCodes.add(payloads.codes());
+            payloadMatches.add(matches);
+        }
+
+        int[] rows = new int[group.rows()];
+        int count = 0;
+        for (int row = 0; row < group.rows(); row++) {
+            if (policyTypes != null && policyTypes[row] != policyTypeCode
+                    || ruleIds != null && ruleIds[row] != ruleIdCode) {
+                continue;
+            }
+            boolean matches = true;
+            for (int i = 0; i < payloadCodes.size() && matches; i++) {
+                matches = payloadMatches.get(i)[payloadCodes.get(i)[row]];
+            }
+            if (matches) {
+                rows[count++] = row;
+            }
+        }
+        return count == rows.length ? rows : Arrays.copyOf(rows, count);
+    }
+
+    private JsonNode parse(String payload) {
+        try {
+            return objectMapper.readTree(payload);
+        } catch (JsonProcessingException e) {
+            log.warn("Unreadable archived payload skipped: {}", e.getOriginalMessage());
+            return null;
+        }
+    }
+
+    private AuditArchiveFile file(LocalDate day) {
+        return files.get(dayFile(day));
+    }
+
+    private Path dayFile(LocalDate day) {
+        return directory(YearMonth.from(day)).resolve(day + FILE_SUFFIX);
+    }
+
+    private Path directory(YearMonth month) {
+        return directory.resolve(month.toString());
+    }
+
+    private static List<Path> dayFiles(Path month) {
+        return children(month).stream()
+                .filter(file -> file.getFileName().toString().endsWith(FILE_SUFFIX))
+                .toList();
+    }
+
+    private static LocalDate day(Path file) {
+        String name = file.getFileName().toString();
+        return LocalDate.parse(name.substring(0, name.length() - FILE_SUFFIX.length()));
+    }
+
+    private Path stagingDirectory(YearMonth month) {
+        return directory.resolve(STAGING_PREFIX + month + STAGING_SUFFIX);
+    }
+
+    private static YearMonth parseMonth(String name) {
+        try {
+            return YearMonth.parse(name);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    private static List<Path> children(Path directory) {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        List<Path> children = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+            stream.forEach(children::add);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to list audit archive " + directory, e);
+        }
+        return children;
+    }
+
+    private static void deleteRecursively(Path path) throws IOException {
+        if (!Files.exists(path)) {
+            return;
+        }
+        try (Stream<Path> walk = Files.walk(path)) {
+            for (Path child : walk.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(child);
+            }
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.islamic.policyengine.repository;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * One audit entry as read for export, payloads kept as the JSON text Postgres returns.
+ * {@code cacheHit} is always false for archived days, which do not keep the flag.
+ */
+public record AuditExportRow(UUID id, String policyType, UUID ruleId, Integer ruleVersion, int evaluationMs,
+                             boolean cacheHit, String callerId, LocalDateTime createdAt, String inputData,
+                             String outputData) {
+}
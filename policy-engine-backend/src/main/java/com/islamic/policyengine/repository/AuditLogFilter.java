@@ -0,0 +1,67 @@
+package com.islamic.policyengine.repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Filters accepted by the audit endpoints, rendered as a SQL {@code WHERE} fragment over
+ * {@code policy_audit_log}. Date bounds are inclusive days, applied half-open on
+ * {@code created_at} so the planner prunes partitions outside the range. Payload criteria
+ * (see {@link AuditPayloadCriterion}) narrow the result further.
+ */
+public record AuditLogFilter(String policyType, UUID ruleId, LocalDate dateFrom, LocalDate dateTo,
+                             List<AuditPayloadCriterion> payloadCriteria) {
+
+    public AuditLogFilter {
+        payloadCriteria = payloadCriteria != null ? List.copyOf(payloadCriteria) : List.of();
+    }
+
+    public AuditLogFilter(String policyType, UUID ruleId, LocalDate dateFrom, LocalDate dateTo) {
+        this(policyType, ruleId, dateFrom, dateTo, List.of());
+    }
+
+    /** Conditions joined with {@code AND}; empty when no filter is set. */
+    List<String> conditions() {
+        List<String> conditions = new ArrayList<>(4);
+        if (policyType != null) {
+            conditions.add("policy_type = ?");
+        }
+        if (ruleId != null) {
+            conditions.add("rule_id = ?");
+        }
+        if (dateFrom != null) {
+            conditions.add("created_at >= ?");
+        }
+        if (dateTo != null) {
+            conditions.add("created_at < ?");
+        }
+        for (AuditPayloadCriterion criterion : payloadCriteria) {
+            conditions.add(criterion.condition());
+        }
+        return conditions;
+    }
+
+    /** Bind values in the order of {@link #conditions()}. */
+    List<Object> parameters() {
+        List<Object> parameters = new ArrayList<>(4);
+        if (policyType != null) {
+            parameters.add(policyType);
+        }
+        if (ruleId != null) {
+            parameters.add(ruleId);
+        }
+        if (dateFrom != null) {
+            parameters.add(Timestamp.valueOf(dateFrom.atStartOfDay()));
+        }
+        if (dateTo != null) {
+            parameters.add(Timestamp.valueOf(dateTo.plusDays(1).atStartOfDay()));
+        }
+        for (AuditPayloadCriterion criterion : payloadCriteria) {
+            parameters.addAll(criterion.parameters());
+        }
+        return parameters;
+    }
+}
@@ -0,0 +1,186 @@
+package com.islamic.policyengine.repository;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.islamic.policyengine.model.dto.AuditLogDto;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Read side of {@code policy_audit_log}, in plain SQL so list queries select only the scalar
+ * columns and never touch the TOASTed jsonb payloads or the {@code rule} association.
+ *
+ * <p>Keyset pages seek on {@code (created_at, id) < (?, ?)} in {@code created_at DESC, id DESC}
+ * order, which the composite indexes of changelog 007 serve directly, so page N costs the same
+ * as page 1 and no {@code OFFSET} rows are scanned. Totals are computed only on request: exactly
+ * with {@code COUNT(*)}, or from the planner's row estimate for the same predicate.</p>
+ */
+@Repository
+@RequiredArgsConstructor
+public class AuditLogQueryRepository {
+
+    /** Opens the destination of a streamed entry once it is known to exist. */
+    @FunctionalInterface
+    public interface DetailSink {
+        Writer open() throws IOException;
+    }
+
+    private static final String SUMMARY_COLUMNS = "id, policy_type, rule_id, rule_version, evaluation_ms, cache_hit, caller_id, created_at";
+
+    private static final String ORDER_BY = " ORDER BY created_at DESC, id DESC";
+
+    // Payloads are stored once per content hash (changelog 009)
+    private static final String PAYLOAD_JOINS = "LEFT JOIN audit_payload i ON i.hash = a.input_hash "
+            + "LEFT JOIN audit_payload o ON o.hash = a.output_hash";
+
+    // Built by Postgres so the payloads go to the client as stored, without a Jackson round trip
+    private static final String DETAIL_SQL = "SELECT json_build_object("
+            + "'id', a.id, 'policyType', a.policy_type, 'ruleId', a.rule_id, 'ruleVersion', a.rule_version, "
+            + "'inputData', i.payload, 'outputData', o.payload, 'evaluationMs', a.evaluation_ms, "
+            + "'cacheHit', a.cache_hit, 'callerId', a.caller_id, 'createdAt', a.created_at)::text "
+            + "FROM policy_audit_log a " + PAYLOAD_JOINS + " WHERE a.id = ?";
+
+    private static final RowMapper<AuditLogDto> SUMMARY_MAPPER = (rs, rowNum) -> AuditLogDto.builder()
+            .id(rs.getObject("id", UUID.class))
+            .policyType(rs.getString("policy_type"))
+            .ruleId(rs.getObject("rule_id", UUID.class))
+            .ruleVersion((Integer) rs.getObject("rule_version"))
+            .evaluationMs(rs.getLong("evaluation_ms"))
+            .cacheHit(rs.getBoolean("cache_hit"))
+            .callerId(rs.getString("caller_id"))
+            .createdAt(rs.getTimestamp("created_at").toLocalDateTime())
+            .build();
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Returns up to {@code limit} entries matching {@code filter} that sort after {@code after}
+     * (or from the newest entry when {@code after} is null).
+     */
+    public List<AuditLogDto> findPage(AuditLogFilter filter, AuditCursor after, int limit) {
+        List<String> conditions = filter.conditions();
+        List<Object> parameters = filter.parameters();
+        if (after != null) {
+            conditions.add("(created_at, id) < (?, ?)");
+            parameters.add(Timestamp.valueOf(after.createdAt()));
+            parameters.add(after.id());
+        }
+        parameters.add(limit);
+        String sql = "SELECT " + SUMMARY_COLUMNS + " FROM policy_audit_log" + where(conditions) + ORDER_BY + " LIMIT ?";
+        return jdbcTemplate.query(sql, SUMMARY_MAPPER, parameters.toArray());
+    }
+
+    /** Offset variant of {@link #findPage}, kept for the page-number API. */
+    public List<AuditLogDto> findOffsetPage(AuditLogFilter filter, long offset, int limit) {
+        List<Object> parameters = filter.parameters();
+        parameters.add(limit);
+        parameters.add(offset);
+        String sql = "SELECT " + SUMMARY_COLUMNS + " FROM policy_audit_log" + where(filter.conditions()) + ORDER_BY
+                + " LIMIT ? OFFSET ?";
+        return jdbcTemplate.query(sql, SUMMARY_MAPPER, parameters.toArray());
+    }
+
+    /**
+     * Streams one entry, payloads included, as a JSON object into the writer opened by
+     * {@code sink}. Returns false, without opening the sink, if no entry has {@code id}.
+     */
+    public boolean streamDetail(UUID id, DetailSink sink) {
+        ResultSetExtractor<Boolean> streamFirstRow = rs -> {
+            if (!rs.next()) {
+                return false;
+            }
+            try (Reader reader = rs.getCharacterStream(1)) {
+                Writer writer = sink.open();
+                reader.transferTo(writer);
+                writer.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return true;
+        };
+        return Boolean.TRUE.equals(jdbcTemplate.query(DETAIL_SQL, streamFirstRow, id));
+    }
+
+    /**
+     * Hands every entry matching {@code filter} to {@code consumer}, oldest first, reading
+     * {@code fetchSize} rows per round trip through a forward-only cursor. The driver only
+     * uses a server-side cursor inside a transaction; without one it buffers the whole result.
+     */
+    public void streamForExport(AuditLogFilter filter, int fetchSize, Consumer<AuditExportRow> consumer) {
+        streamForExport("policy_audit_log", filter, fetchSize, consumer);
+    }
+
+    /**
+     * {@link #streamForExport(AuditLogFilter, int, Consumer)} over {@code table}, a detached
+     * partition of {@code policy_audit_log}; the name is not escaped.
+     */
+    public void streamForExport(String table, AuditLogFilter filter, int fetchSize, Consumer<AuditExportRow> consumer) {
+        List<Object> parameters = filter.parameters();
+        // Filter columns are unambiguous: audit_payload only has hash, payload and last_seen
+        String sql = "SELECT " + SUMMARY_COLUMNS + ", i.payload::text AS input_data, o.payload::text AS output_data "
+                + "FROM " + table + " a " + PAYLOAD_JOINS + where(filter.conditions()) + " ORDER BY created_at, id";
+        PreparedStatementCreator statement = connection -> {
+            PreparedStatement ps = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(fetchSize);
+            for (int i = 0; i < parameters.size(); i++) {
+                ps.setObject(i + 1, parameters.get(i));
+            }
+            return ps;
+        };
+        jdbcTemplate.query(statement, (RowCallbackHandler) rs -> consumer.accept(new AuditExportRow(
+                rs.getObject("id", UUID.class),
+                rs.getString("policy_type"),
+                rs.getObject("rule_id", UUID.class),
+                (Integer) rs.getObject("rule_version"),
+                rs.getInt("evaluation_ms"),
+                rs.getBoolean("cache_hit"),
+                rs.getString("caller_id"),
+                rs.getTimestamp("created_at").toLocalDateTime(),
+                rs.getString("input_data"),
+                rs.getString("output_data"))));
+    }
+
+    public long count(AuditLogFilter filter) {
+        Long count = jdbcTemplate.queryForObject("SELECT count(*) FROM policy_audit_log" + where(filter.conditions()),
+                Long.class, filter.parameters().toArray());
+        return count != null ? count : 0;
+    }
+
+    /**
+     * Planner estimate of the rows matching {@code filter}, taken from {@code EXPLAIN} without
+     * executing the query. Accuracy depends on fresh statistics ({@code ANALYZE}, autovacuum).
+     */
+    public long estimateCount(AuditLogFilter filter) {
+        String plan = jdbcTemplate.queryForObject(
+                "EXPLAIN (FORMAT JSON) SELECT 1 FROM policy_audit_log" + where(filter.conditions()),
+                String.class, filter.parameters().toArray());
+        try {
+            JsonNode root = objectMapper.readTree(plan);
+            return root.path(0).path("Plan").path("Plan Rows").asLong();
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unreadable EXPLAIN output", e);
+        }
+    }
+
+    private static String where(List<String> conditions) {
+        return conditions.isEmpty() ? "" : " WHERE " + String.join(" AND ", conditions);
+    }
+}
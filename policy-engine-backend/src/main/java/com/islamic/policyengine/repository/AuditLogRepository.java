@@ -1,21 +0,0 @@
-package com.islamic.policyengine.repository;
-
-import com.islamic.policyengine.model.entity.AuditLog;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
-import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
-import org.springframework.stereotype.Repository;
-
-import java.time.LocalDateTime;
-import java.util.UUID;
-
-@Repository
-public interface AuditLogRepository extends JpaRepository<AuditLog, UUID>, JpaSpecificationExecutor<AuditLog> {
-
-    Page<AuditLog> findByPolicyType(String policyType, Pageable pageable);
-
-    Page<AuditLog> findByRuleId(UUID ruleId, Pageable pageable);
-
-    Page<AuditLog> findByCreatedAtBetween(LocalDateTime start, LocalDateTime end, Pageable pageable);
-}
@@ -0,0 +1,170 @@
+package com.islamic.policyengine.repository;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * One condition on an audited input or output field, written {@code input.destinationRegion=ME}
+ * or {@code output.riskScore>=70}.
+ *
+ * <p>Equality is rendered as jsonb containment, which the {@code jsonb_path_ops} GIN index on
+ * {@code audit_payload} answers for any field. Range operators compare
+ * {@code audit_payload_number(payload, field)}, which only an expression index per field makes
+ * fast; {@link com.islamic.policyengine.service.AuditSearchIndexService} decides which fields
+ * may use them. Either way the payload side is resolved to hashes first and joined back to
+ * {@code policy_audit_log} through the hash indexes (changelog 011).</p>
+ */
+public record AuditPayloadCriterion(Side side, String field, Operator operator, String value) {
+
+    public enum Side {
+        INPUT("input_hash"),
+        OUTPUT("output_hash");
+
+        private final String column;
+
+        Side(String column) {
+            this.column = column;
+        }
+    }
+
+    public enum Operator {
+        EQ("="),
+        GT(">"),
+        GTE(">="),
+        LT("<"),
+        LTE("<=");
+
+        private final String symbol;
+
+        Operator(String symbol) {
+            this.symbol = symbol;
+        }
+
+        public boolean isRange() {
+            return this != EQ;
+        }
+    }
+
+    /** Field names are embedded in SQL (to match the index expression), so only identifiers pass. */
+    public static final Pattern FIELD_NAME = Pattern.compile("[A-Za-z_][A-Za-z0-9_]*");
+
+    private static final Pattern CRITERION = Pattern.compile("(input|output)\\.([^<>=]+)(>=|<=|=|>|<)(.*)");
+
+    public AuditPayloadCriterion {
+        if (!FIELD_NAME.matcher(field).matches()) {
+            throw new IllegalArgumentException("Invalid field name: " + field);
+        }
+        if (operator.isRange()) {
+            number(value);
+        }
+    }
+
+    /**
+     * Parses {@code <input|output>.<field><op><value>} with {@code op} one of
+     * {@code = > >= < <=}.
+     */
+    public static AuditPayloadCriterion parse(String criterion) {
+        Matcher matcher = CRITERION.matcher(criterion.trim());
+        if (!matcher.matches()) {
+            throw new IllegalArgumentException("Invalid search criterion: " + criterion
+                    + " (expected e.g. input.transactionAmount>=50000000)");
+        }
+        Side side = Side.valueOf(matcher.group(1).toUpperCase(Locale.ROOT));
+        Operator operator = switch (matcher.group(3)) {
+            case ">" -> Operator.GT;
+            case ">=" -> Operator.GTE;
+            case "<" -> Operator.LT;
+            case "<=" -> Operator.LTE;
+            default -> Operator.EQ;
+        };
+        return new AuditPayloadCriterion(side, matcher.group(2).trim(), operator, matcher.group(4).trim());
+    }
+
+    String condition() {
+        String match;
+        if (operator.isRange()) {
+            match = "audit_payload_number(payload, '" + field + "') " + operator.symbol + " ?";
+        } else {
+            match = String.join(" OR ", Collections.nCopies(equalityForms().size(), "payload @> ?::jsonb"));
+        }
+        return side.column + " IN (SELECT hash FROM audit_payload WHERE " + match + ")";
+    }
+
+    List<Object> parameters() {
+        if (operator.isRange()) {
+            return List.of(number(value));
+        }
+        return new ArrayList<>(equalityForms());
+    }
+
+    /** Evaluates the criterion on one payload the way the SQL rendering does, for archived entries. */
+    boolean matches(JsonNode payload) {
+        JsonNode node = payload != null ? payload.get(field) : null;
+        if (node == null) {
+            return false;
+        }
+        if (operator.isRange()) {
+            if (!node.isNumber()) {
+                return false;
+            }
+            int comparison = node.decimalValue().compareTo(number(value));
+            return switch (operator) {
+                case GT -> comparison > 0;
+                case GTE -> comparison >= 0;
+                case LT -> comparison < 0;
+                case LTE -> comparison <= 0;
+                case EQ -> comparison == 0;
+            };
+        }
+        if (node.isTextual()) {
+            return node.textValue().equals(value);
+        }
+        if (node.isBoolean()) {
+            return value.equals(Boolean.toString(node.booleanValue()));
+        }
+        if (node.isNumber()) {
+            try {
+                return node.decimalValue().compareTo(new BigDecimal(value)) == 0;
+            } catch (NumberFormatException e) {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The request carries the value as text, so it matches the JSON string and, where it parses
+     * as one, the JSON number or boolean as well.
+     */
+    private List<String> equalityForms() {
+        JsonNodeFactory json = JsonNodeFactory.instance;
+        List<String> forms = new ArrayList<>(2);
+        forms.add(json.objectNode().put(field, value).toString());
+        if ("true".equals(value) || "false".equals(value)) {
+            forms.add(json.objectNode().put(field, Boolean.parseBoolean(value)).toString());
+        } else {
+            try {
+                forms.add(json.objectNode().put(field, new BigDecimal(value)).toString());
+            } catch (NumberFormatException e) {
+                // text only
+            }
+        }
+        return forms;
+    }
+
+    private static BigDecimal number(String value) {
+        try {
+            return new BigDecimal(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Range search needs a number, got: " + value);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.islamic.policyengine.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * {@code rule_artifact} (changelog 012): compiled rules keyed by rule id, version and engine
+ * version, so every instance loads what one of them compiled.
+ */
+@Repository
+@RequiredArgsConstructor
+public class RuleArtifactRepository {
+
+    /** The stored KJAR and the hash of the DRL it was compiled from. */
+    public record RuleArtifact(byte[] drlHash, byte[] kjar) {
+    }
+
+    private static final String FIND_SQL = "SELECT drl_hash, kjar FROM rule_artifact "
+            + "WHERE rule_id = ? AND version = ? AND engine_version = ?";
+
+    private static final String SAVE_SQL = "INSERT INTO rule_artifact (rule_id, version, engine_version, drl_hash, kjar) "
+            + "VALUES (?, ?, ?, ?, ?) "
+            + "ON CONFLICT (rule_id, version, engine_version) DO UPDATE "
+            + "SET drl_hash = EXCLUDED.drl_hash, kjar = EXCLUDED.kjar, created_at = now()";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public Optional<RuleArtifact> find(UUID ruleId, int version, String engineVersion) {
+        List<RuleArtifact> found = jdbcTemplate.query(FIND_SQL,
+                (rs, rowNum) -> new RuleArtifact(rs.getBytes("drl_hash"), rs.getBytes("kjar")),
+                ruleId, version, engineVersion);
+        return found.stream().findFirst();
+    }
+
+    /**
+     * Stores the artifact, replacing a stale one, and drops those of older versions of the rule
+     * built by the same engine version. Artifacts of other engine versions are left to the
+     * instances still running them during a rolling upgrade.
+     */
+    public void save(UUID ruleId, int version, String engineVersion, byte[] drlHash, byte[] kjar) {
+        jdbcTemplate.update(SAVE_SQL, ruleId, version, engineVersion, drlHash, kjar);
+        jdbcTemplate.update("DELETE FROM rule_artifact WHERE rule_id = ? AND engine_version = ? AND version < ?",
+                ruleId, engineVersion, version);
+    }
+}
@@ -18,6 +18,9 @@ public interface RuleRepository extends JpaRepository<Rule, UUID> {
     @EntityGraph(attributePaths = {"parameters", "fields"})
     List<Rule> findByPolicyTypeAndIsActiveTrue(String policyType);
 
+    @EntityGraph(attributePaths = {"parameters", "fields"})
+    List<Rule> findByIsActiveTrue();
+
     List<Rule> findByPolicyType(String policyType);
 
     Page<Rule> findByPolicyType(String policyType, Pageable pageable);
@@ -0,0 +1,93 @@
+package com.islamic.policyengine.service;
+
+import com.islamic.policyengine.model.entity.Rule;
+import com.islamic.policyengine.model.snapshot.RuleSnapshot;
+import com.islamic.policyengine.repository.RuleRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PostConstruct;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Copy-on-write registry of the active rule per policy type.
+ *
+ * <p>Readers get a lock-free lookup against an immutable map; writers rebuild the entry for a
+ * single policy type from the database and publish a new map. The evaluation hot path
+ * therefore never issues a query — the registry is only refreshed when a rule is created,
+ * updated or toggled.</p>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ActivePolicyRegistry {
+
+    private final RuleRepository ruleRepository;
+
+    private volatile Map<String, RuleSnapshot> activeRules = Collections.emptyMap();
+
+    /** Last {@link RuleSnapshot#getActivation() activation} handed out; guarded by {@code this}. */
+    private long publishSequence;
+
+    @PostConstruct
+    public synchronized void reload() {
+        Map<String, RuleSnapshot> loaded = new HashMap<>();
+        for (Rule rule : ruleRepository.findByIsActiveTrue()) {
+            if (!loaded.containsKey(rule.getPolicyType())) {
+                loaded.put(rule.getPolicyType(), published(RuleSnapshot.of(rule)));
+            }
+        }
+        activeRules = Collections.unmodifiableMap(loaded);
+        log.info("Loaded {} active policies: {}", loaded.size(), loaded.keySet());
+    }
+
+    public Optional<RuleSnapshot> find(String policyType) {
+        return Optional.ofNullable(activeRules.get(policyType));
+    }
+
+    public Map<String, RuleSnapshot> getAll() {
+        return activeRules;
+    }
+
+    /**
+     * Rebuilds the entry for {@code policyType} once the surrounding transaction commits, so
+     * readers never observe uncommitted or rolled-back rule state. Refreshes immediately when
+     * called outside a transaction.
+     */
+    public void refreshAfterCommit(String policyType) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    refresh(policyType);
+                }
+            });
+        } else {
+            refresh(policyType);
+        }
+    }
+
+    public synchronized void refresh(String policyType) {
+        List<Rule> rules = ruleRepository.findByPolicyTypeAndIsActiveTrue(policyType);
+        Map<String, RuleSnapshot> updated = new HashMap<>(activeRules);
+        if (rules.isEmpty()) {
+            updated.remove(policyType);
+        } else {
+            updated.put(policyType, published(RuleSnapshot.of(rules.get(0))));
+        }
+        activeRules = Collections.unmodifiableMap(updated);
+        log.debug("Refreshed active policy {} -> {}", policyType,
+                rules.isEmpty() ? "none" : rules.get(0).getId() + " v" + rules.get(0).getVersion());
+    }
+
+    private RuleSnapshot published(RuleSnapshot snapshot) {
+        return snapshot.toBuilder().activation(++publishSequence).build();
+    }
+}
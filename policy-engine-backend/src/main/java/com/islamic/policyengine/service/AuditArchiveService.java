@@ -0,0 +1,131 @@
+package com.islamic.policyengine.service;
+
+import com.islamic.policyengine.repository.AuditArchiveRepository;
+import com.islamic.policyengine.repository.AuditLogFilter;
+import com.islamic.policyengine.repository.AuditLogQueryRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+
+/**
+ * Moves whole months of {@code policy_audit_log} older than {@code archive.after-months} into
+ * the columnar cold tier ({@link AuditArchiveRepository}) and drops their partitions, so the
+ * database only holds recent entries.
+ *
+ * <p>A month is read day by day through the export cursor and written to a staging directory;
+ * then its partition is detached and its rows counted. Rows inserted while the month was being
+ * staged make the counts differ, and the month is staged again from the detached table, which
+ * no longer changes. The month is then published and the detached table dropped. Between detach
+ * and publish (a rename) the month is invisible; it is never served twice. A run interrupted
+ * after the detach recounts and publishes the staged month on the next run; one interrupted
+ * earlier starts the month over.</p>
+ */
+@Slf4j
+@Service
+public class AuditArchiveService {
+
+    private final AuditLogQueryRepository auditLogQueryRepository;
+    private final AuditArchiveRepository auditArchiveRepository;
+    private final AuditPartitionService auditPartitionService;
+    private final TransactionTemplate readOnlyTransaction;
+    private final boolean enabled;
+    private final int afterMonths;
+    private final int fetchSize;
+
+    public AuditArchiveService(AuditLogQueryRepository auditLogQueryRepository,
+                               AuditArchiveRepository auditArchiveRepository,
+                               AuditPartitionService auditPartitionService,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${policy-engine.audit.archive.enabled:false}") boolean enabled,
+                               @Value("${policy-engine.audit.archive.after-months:3}") int afterMonths,
+                               @Value("${policy-engine.audit.export.fetch-size:1000}") int fetchSize) {
+        this.auditLogQueryRepository = auditLogQueryRepository;
+        this.auditArchiveRepository = auditArchiveRepository;
+        this.auditPartitionService = auditPartitionService;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.enabled = enabled;
+        this.afterMonths = Math.max(1, afterMonths);
+        this.fetchSize = Math.max(1, fetchSize);
+    }
+
+    @Scheduled(cron = "${policy-engine.audit.archive.cron:0 45 0 * * *}")
+    public void archive() {
+        if (!enabled) {
+            return;
+        }
+        recoverStaged();
+        YearMonth cutoff = YearMonth.now().minusMonths(afterMonths);
+        for (YearMonth month : auditPartitionService.attachedMonths()) {
+            if (!month.isBefore(cutoff)) {
+                break;
+            }
+            archiveMonth(month);
+        }
+    }
+
+    void archiveMonth(YearMonth month) {
+        long start = System.nanoTime();
+        long rows = stage(month, null);
+        auditPartitionService.detach(month);
+        rows = publishDetached(month, rows);
+        log.info("Archived {} audit records of {} in {}ms", rows, month, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Publishes a staged month whose partition is detached and drops the partition. Rows
+     * written into the partition after their day was staged are only in the detached table,
+     * so when its row count differs from the staged one the month is staged again from it.
+     */
+    private long publishDetached(YearMonth month, long staged) {
+        long detached = auditPartitionService.detachedRows(month);
+        if (detached >= 0 && detached != staged) {
+            log.info("Detached audit partition of {} holds {} records, {} staged; staging it again", month,
+                    detached, staged);
+            staged = stage(month, AuditPartitionService.partitionName(month));
+        }
+        auditArchiveRepository.publish(month);
+        auditPartitionService.dropDetached(month);
+        // Payloads last used in this month or before are only referenced from the archive now
+        if (auditPartitionService.getRetentionAction() == AuditPartitionService.RetentionAction.DROP) {
+            auditPartitionService.purgePayloads(month.plusMonths(1));
+        }
+        return staged;
+    }
+
+    /** Stages {@code month} day by day from {@code table}, or from {@code policy_audit_log} when null. */
+    private long stage(YearMonth month, String table) {
+        auditArchiveRepository.prepareStaging(month);
+        long rows = 0;
+        for (LocalDate day = month.atDay(1); !day.isAfter(month.atEndOfMonth()); day = day.plusDays(1)) {
+            AuditLogFilter filter = new AuditLogFilter(null, null, day, day);
+            // The driver only streams through a server-side cursor inside a transaction
+            rows += auditArchiveRepository.writeDay(day, sink -> readOnlyTransaction.executeWithoutResult(status -> {
+                if (table == null) {
+                    auditLogQueryRepository.streamForExport(filter, fetchSize, sink);
+                } else {
+                    auditLogQueryRepository.streamForExport(table, filter, fetchSize, sink);
+                }
+            }));
+        }
+        return rows;
+    }
+
+    /** Finishes months whose partition was detached before the previous run could publish them. */
+    private void recoverStaged() {
+        List<YearMonth> attached = auditPartitionService.attachedMonths();
+        for (YearMonth month : auditArchiveRepository.stagedMonths()) {
+            if (!attached.contains(month)) {
+                long rows = publishDetached(month, auditArchiveRepository.stagedRows(month));
+                log.info("Published audit archive of {} ({} records) staged by an interrupted run", month, rows);
+            }
+        }
+    }
+}
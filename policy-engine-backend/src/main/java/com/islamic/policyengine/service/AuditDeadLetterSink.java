@@ -0,0 +1,60 @@
+package com.islamic.policyengine.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Journaled audit records the database rejected, kept in {@code dead-letter.ndjson} in the
+ * journal directory so that {@link AuditWriter} can move past them.
+ *
+ * <p>Each record is one JSON line with its metadata, its payloads as serialized JSON and the
+ * database error, enough to inspect it and replay it by hand.</p>
+ */
+@Slf4j
+final class AuditDeadLetterSink {
+
+    private static final String FILE_NAME = "dead-letter.ndjson";
+
+    private final Path file;
+    private final ObjectMapper objectMapper;
+
+    AuditDeadLetterSink(Path journalDirectory, ObjectMapper objectMapper) {
+        this.file = journalDirectory.resolve(FILE_NAME);
+        this.objectMapper = objectMapper;
+    }
+
+    /** Appends {@code record} and the error that rejected it; returns false if the file cannot be written. */
+    boolean append(AuditRecord record, RuntimeException error) {
+        Map<String, Object> entry = new LinkedHashMap<>();
+        entry.put("id", record.getId());
+        entry.put("policyType", record.getPolicyType());
+        entry.put("ruleId", record.getRuleId());
+        entry.put("ruleVersion", record.getRuleVersion());
+        entry.put("evaluationMs", record.getEvaluationMs());
+        entry.put("cacheHit", record.isCacheHit());
+        entry.put("callerId", record.getCallerId());
+        entry.put("createdAt", String.valueOf(record.getCreatedAt()));
+        entry.put("mode", record.getMode());
+        entry.put("inputJson", record.getInputJson());
+        entry.put("outputJson", record.getOutputJson());
+        entry.put("error", String.valueOf(error.getMessage()));
+        try {
+            Files.writeString(file, objectMapper.writeValueAsString(entry) + "\n", StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            log.error("Failed to write rejected audit record {} to {}", record.getId(), file, e);
+            return false;
+        }
+        log.error("Audit record {} for {} rejected by the database, moved to {}: {}", record.getId(),
+                record.getPolicyType(), file, error.getMessage());
+        return true;
+    }
+}
@@ -0,0 +1,195 @@
+package com.islamic.policyengine.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.MinimalPrettyPrinter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.islamic.policyengine.repository.AuditExportRow;
+import com.islamic.policyengine.repository.AuditLogFilter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+
+/**
+ * Streams audit extracts of any size as NDJSON or CSV.
+ *
+ * <p>Archived days are read first, one day file at a time, then the database through a
+ * server-side cursor ({@code export.fetch-size} rows per round trip) inside a read-only
+ * transaction on the response thread. Rows are written straight to the response, so memory use
+ * is one day file or fetch batch plus the output buffer regardless of the range. Payloads are
+ * copied as stored JSON text; they are never parsed.</p>
+ */
+@Slf4j
+@Service
+public class AuditExportService {
+
+    public enum ExportFormat {
+        NDJSON(MediaType.APPLICATION_NDJSON, "ndjson"),
+        CSV(new MediaType("text", "csv", StandardCharsets.UTF_8), "csv");
+
+        private final MediaType mediaType;
+        private final String extension;
+
+        ExportFormat(MediaType mediaType, String extension) {
+            this.mediaType = mediaType;
+            this.extension = extension;
+        }
+
+        public MediaType getMediaType() {
+            return mediaType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+    }
+
+    private static final String CSV_HEADER =
+            "id,policy_type,rule_id,rule_version,evaluation_ms,cache_hit,caller_id,created_at,input_data,output_data\n";
+
+    private static final int OUTPUT_BUFFER_SIZE = 64 * 1024;
+
+    private final AuditQueryService auditQueryService;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate readOnlyTransaction;
+    private final int fetchSize;
+
+    public AuditExportService(AuditQueryService auditQueryService,
+                              ObjectMapper objectMapper,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${policy-engine.audit.export.fetch-size:1000}") int fetchSize) {
+        this.auditQueryService = auditQueryService;
+        this.objectMapper = objectMapper;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.fetchSize = Math.max(1, fetchSize);
+    }
+
+    public StreamingResponseBody export(AuditLogFilter filter, ExportFormat format) {
+        return outputStream -> {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8),
+                    OUTPUT_BUFFER_SIZE);
+            long start = System.nanoTime();
+            long[] rows = new long[1];
+            try {
+                if (format == ExportFormat.NDJSON) {
+                    // One generator for the whole stream; entries separated by newlines
+                    JsonGenerator generator = objectMapper.getFactory().createGenerator(writer)
+                            .setPrettyPrinter(new MinimalPrettyPrinter("\n"));
+                    generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                    stream(filter, row -> {
+                        writeJson(generator, row);
+                        rows[0]++;
+                    });
+                    if (rows[0] > 0) {
+                        generator.writeRaw('\n');
+                    }
+                    generator.flush();
+                } else {
+                    writer.write(CSV_HEADER);
+                    stream(filter, row -> {
+                        writeCsv(writer, row);
+                        rows[0]++;
+                    });
+                }
+                writer.flush();
+            } catch (UncheckedIOException e) {
+                // Usually the client went away; the transaction has rolled back and the cursor is closed
+                throw e.getCause();
+            }
+            log.info("Exported {} audit records as {} in {}ms", rows[0], format, (System.nanoTime() - start) / 1_000_000);
+        };
+    }
+
+    private void stream(AuditLogFilter filter, IoConsumer<AuditExportRow> consumer) {
+        Consumer<AuditExportRow> unchecked = row -> {
+            try {
+                consumer.accept(row);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        };
+        readOnlyTransaction.executeWithoutResult(status ->
+                auditQueryService.streamForExport(filter, fetchSize, unchecked));
+    }
+
+    /** Same shape as {@code GET /api/v1/audit/{id}}; payloads are copied as raw JSON. */
+    static void writeJson(JsonGenerator generator, AuditExportRow row) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("id", row.id().toString());
+        generator.writeStringField("policyType", row.policyType());
+        generator.writeStringField("ruleId", row.ruleId() != null ? row.ruleId().toString() : null);
+        if (row.ruleVersion() != null) {
+            generator.writeNumberField("ruleVersion", row.ruleVersion());
+        } else {
+            generator.writeNullField("ruleVersion");
+        }
+        writeRawField(generator, "inputData", row.inputData());
+        writeRawField(generator, "outputData", row.outputData());
+        generator.writeNumberField("evaluationMs", row.evaluationMs());
+        generator.writeBooleanField("cacheHit", row.cacheHit());
+        generator.writeStringField("callerId", row.callerId());
+        generator.writeStringField("createdAt", row.createdAt().toString());
+        generator.writeEndObject();
+    }
+
+    // Payloads are null for entries audited as metadata only
+    private static void writeRawField(JsonGenerator generator, String name, String json) throws IOException {
+        if (json != null) {
+            generator.writeFieldName(name);
+            generator.writeRawValue(json);
+        } else {
+            generator.writeNullField(name);
+        }
+    }
+
+    private static void writeCsv(Writer writer, AuditExportRow row) throws IOException {
+        writer.write(row.id().toString());
+        writer.write(',');
+        writer.write(csv(row.policyType()));
+        writer.write(',');
+        writer.write(row.ruleId() != null ? row.ruleId().toString() : "");
+        writer.write(',');
+        writer.write(row.ruleVersion() != null ? row.ruleVersion().toString() : "");
+        writer.write(',');
+        writer.write(Integer.toString(row.evaluationMs()));
+        writer.write(',');
+        writer.write(Boolean.toString(row.cacheHit()));
+        writer.write(',');
+        writer.write(csv(row.callerId()));
+        writer.write(',');
+        writer.write(row.createdAt().toString());
+        writer.write(',');
+        writer.write(csv(row.inputData()));
+        writer.write(',');
+        writer.write(csv(row.outputData()));
+        writer.write('\n');
+    }
+
+    /** RFC 4180 quoting: fields containing a comma, quote or line break are quoted, quotes doubled. */
+    static String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    @FunctionalInterface
+    private interface IoConsumer<T> {
+        void accept(T value) throws IOException;
+    }
+}
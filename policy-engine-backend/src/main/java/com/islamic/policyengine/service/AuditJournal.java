@@ -0,0 +1,447 @@
+package com.islamic.policyengine.service;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only journal of audit records in memory-mapped segment files, shipped to the database
+ * by {@link AuditWriter}.
+ *
+ * <p>Segments are fixed-size files {@code <sequence>.journal}; each record is framed as
+ * {@code length, CRC32C, bytes}. A length of 0 marks the end of the written data and -1 a roll
+ * to the next segment. An append is a copy into the mapped segment, so it survives a JVM crash
+ * as soon as it returns (the kernel owns the dirty pages); with {@code force} every append is
+ * also flushed to the device, surviving power loss at the cost of a sync per record.</p>
+ *
+ * <p>Shipping is at-least-once: the reader hands out records after the committed position,
+ * and only {@link #commit()} (after the records are in the database) persists that position
+ * in the {@code checkpoint} file and deletes fully shipped segments. On open, the journal
+ * scans from the checkpoint to the last valid frame, so a torn final record is discarded and
+ * everything before it is replayed.</p>
+ *
+ * <p>A segment is unmapped as soon as the writer rolls past it or the reader moves on, rather
+ * than when its buffer happens to be collected: shipped segments are deleted, and a deleted
+ * file stays on disk for as long as a mapping of it exists. {@link #close()} releases the
+ * remaining two on shutdown.</p>
+ *
+ * <p>Each journal directory has a random {@link #id()}. {@link AuditWriter} stores the shipped
+ * position under it in the database, in the transaction that inserts the batch, and
+ * {@link #skipTo} moves past batches that were committed there but not yet checkpointed here.</p>
+ */
+@Slf4j
+final class AuditJournal {
+
+    /** A place in the journal: segment sequence and byte offset within it. */
+    record Position(long segment, int offset) {
+    }
+
+    private static final String SEGMENT_SUFFIX = ".journal";
+    private static final String CHECKPOINT = "checkpoint";
+    private static final String ID = "journal-id";
+    private static final int FRAME_HEADER = 8;
+    private static final int ROLL = -1;
+
+    private static final MethodHandle INVOKE_CLEANER = invokeCleaner();
+
+    private final Path directory;
+    private final UUID id;
+    private final int segmentSize;
+    private final long maxBytes;
+    private final boolean force;
+
+    // Writer state, guarded by this
+    private MappedByteBuffer writeSegment;
+    private long writeSequence;
+    private volatile Position written;
+    private long appended;
+
+    // Reader state, used by the shipping thread only
+    private MappedByteBuffer readSegment;
+    private long readSequence = -1;
+    private Position read;
+    private long readRecords;
+
+    private volatile Position committed;
+    private volatile long committedRecords;
+
+    /** End of the data found on open; records before it may already be in the database. */
+    private final Position recovered;
+
+    AuditJournal(Path directory, int segmentSize, long maxBytes, boolean force) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.maxBytes = maxBytes;
+        this.force = force;
+        try {
+            Files.createDirectories(directory);
+            id = readId();
+            committed = readCheckpoint();
+            Position end = scan(committed);
+            recovered = end;
+            written = end;
+            read = committed;
+            writeSequence = end.segment();
+            writeSegment = map(writeSequence);
+            writeSegment.position(end.offset());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open audit journal in " + directory, e);
+        }
+        if (appended > 0) {
+            log.info("Audit journal {} holds {} records not yet shipped; replaying", directory, appended);
+        }
+    }
+
+    /**
+     * Appends one record. Returns false, writing nothing, when the unshipped data would exceed
+     * {@code maxBytes}, and waits up to {@code timeoutMs} for the shipper to make room first.
+     */
+    synchronized boolean append(byte[] record, long timeoutMs) throws InterruptedException {
+        int frame = FRAME_HEADER + record.length;
+        if (frame + 4 > segmentSize) {
+            throw new IllegalArgumentException("Audit record of " + record.length + " bytes exceeds the journal segment size");
+        }
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        while (lagBytes() + frame > maxBytes) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return false;
+            }
+            TimeUnit.NANOSECONDS.timedWait(this, remaining);
+        }
+        try {
+            if (writeSegment == null) {
+                // Closed; appends after stopping stay in the journal for the next start
+                writeSegment = map(writeSequence);
+                writeSegment.position(written.offset());
+            }
+            // Keep room for the roll marker at the end of every segment
+            if (writeSegment.position() + frame + 4 > segmentSize) {
+                writeSegment.putInt(writeSegment.position(), ROLL);
+                if (force) {
+                    writeSegment.force();
+                }
+                // Mapped first: if that fails, the current segment must still be usable
+                MappedByteBuffer next = map(writeSequence + 1);
+                unmap(writeSegment);
+                writeSegment = next;
+                writeSequence++;
+            }
+            int start = writeSegment.position();
+            CRC32C crc = new CRC32C();
+            crc.update(record);
+            writeSegment.position(start + 4);
+            writeSegment.putInt((int) crc.getValue());
+            writeSegment.put(record);
+            // Length last: a reader that sees it sees the whole frame
+            writeSegment.putInt(start, record.length);
+            if (force) {
+                writeSegment.force();
+            }
+            appended++;
+            written = new Position(writeSequence, writeSegment.position());
+            return true;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to append to audit journal", e);
+        }
+    }
+
+    /** Up to {@code max} records after those already read, in append order. */
+    List<byte[]> read(int max) {
+        List<byte[]> records = new ArrayList<>(Math.min(max, 1024));
+        Position end = written;
+        try {
+            while (records.size() < max && !read.equals(end)) {
+                ByteBuffer segment = readSegment(read.segment());
+                int length = segment.getInt(read.offset());
+                if (length == ROLL) {
+                    read = new Position(read.segment() + 1, 0);
+                    continue;
+                }
+                byte[] record = new byte[length];
+                segment.get(read.offset() + FRAME_HEADER, record);
+                records.add(record);
+                read = new Position(read.segment(), read.offset() + FRAME_HEADER + length);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read audit journal", e);
+        }
+        readRecords += records.size();
+        return records;
+    }
+
+    /** Marks everything read so far as shipped. */
+    void commit() {
+        Position shipped = read;
+        try {
+            Path temp = directory.resolve(CHECKPOINT + ".tmp");
+            ByteBuffer checkpoint = ByteBuffer.allocate(12).putLong(shipped.segment()).putInt(shipped.offset()).flip();
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                channel.write(checkpoint);
+                channel.force(false);
+            }
+            Files.move(temp, directory.resolve(CHECKPOINT), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            for (long sequence : segments()) {
+                if (sequence < shipped.segment()) {
+                    Files.deleteIfExists(segmentPath(sequence));
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to checkpoint audit journal", e);
+        }
+        synchronized (this) {
+            committed = shipped;
+            committedRecords = readRecords;
+            notifyAll();
+        }
+    }
+
+    /**
+     * Reads and commits everything before {@code position}, a batch end recorded by an earlier
+     * run. Returns the number of records skipped; nothing happens if {@code position} is not
+     * ahead of the committed position.
+     */
+    long skipTo(Position position) {
+        if (compare(position, committed) <= 0 || compare(position, written) > 0) {
+            return 0;
+        }
+        long skipped = 0;
+        while (compare(read, position) < 0 && !read(1).isEmpty()) {
+            skipped++;
+        }
+        commit();
+        return skipped;
+    }
+
+    UUID id() {
+        return id;
+    }
+
+    /**
+     * Forces the current segment to the device and unmaps it and the read segment. The
+     * checkpoint needs nothing more: {@link #commit()} syncs it every time. Call only once the
+     * shipping thread has stopped; a later append or read maps its segment again.
+     */
+    synchronized void close() {
+        if (writeSegment != null) {
+            writeSegment.force();
+            unmap(writeSegment);
+            writeSegment = null;
+        }
+        unmap(readSegment);
+        readSegment = null;
+        readSequence = -1;
+    }
+
+    /** Forgets what was read since the last commit, so it is read again (after a failed write). */
+    void rewind() {
+        read = committed;
+        readRecords = committedRecords;
+    }
+
+    /** Whether {@code position} lies within the data found on open, i.e. may have been shipped before a crash. */
+    boolean isRecovered(Position position) {
+        return compare(position, recovered) < 0;
+    }
+
+    Position readPosition() {
+        return read;
+    }
+
+    Position writtenPosition() {
+        return written;
+    }
+
+    boolean isCommitted(Position position) {
+        return compare(committed, position) >= 0;
+    }
+
+    /** Waits until {@code position} is committed or {@code timeoutMs} passes. */
+    synchronized boolean awaitCommitted(Position position, long timeoutMs) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        while (!isCommitted(position)) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return false;
+            }
+            TimeUnit.NANOSECONDS.timedWait(this, remaining);
+        }
+        return true;
+    }
+
+    /** Bytes appended but not yet committed. */
+    long lagBytes() {
+        return offset(written) - offset(committed);
+    }
+
+    long lagRecords() {
+        return appended - committedRecords;
+    }
+
+    /** Disk space held by segments. */
+    long sizeBytes() {
+        return (written.segment() - committed.segment() + 1) * (long) segmentSize;
+    }
+
+    private long offset(Position position) {
+        return position.segment() * segmentSize + position.offset();
+    }
+
+    private static int compare(Position a, Position b) {
+        int result = Long.compare(a.segment(), b.segment());
+        return result != 0 ? result : Integer.compare(a.offset(), b.offset());
+    }
+
+    /**
+     * Walks the frames from {@code start}, counting them as unshipped, and returns the position
+     * after the last intact one. A frame with a bad checksum ends the journal.
+     */
+    private Position scan(Position start) throws IOException {
+        Position position = start;
+        MappedByteBuffer segment = null;
+        long mapped = -1;
+        try {
+            while (true) {
+                if (position.segment() != mapped) {
+                    if (!Files.exists(segmentPath(position.segment()))) {
+                        return position;
+                    }
+                    unmap(segment);
+                    segment = map(position.segment());
+                    mapped = position.segment();
+                }
+                int offset = position.offset();
+                if (offset + 4 > segmentSize) {
+                    return position;
+                }
+                int length = segment.getInt(offset);
+                if (length == ROLL) {
+                    position = new Position(position.segment() + 1, 0);
+                    continue;
+                }
+                if (length <= 0 || offset + FRAME_HEADER + length + 4 > segmentSize) {
+                    return position;
+                }
+                byte[] record = new byte[length];
+                segment.get(offset + FRAME_HEADER, record);
+                CRC32C crc = new CRC32C();
+                crc.update(record);
+                if ((int) crc.getValue() != segment.getInt(offset + 4)) {
+                    log.warn("Audit journal ends in a torn record at {}; discarding it", position);
+                    segment.putInt(offset, 0);
+                    return position;
+                }
+                appended++;
+                position = new Position(position.segment(), offset + FRAME_HEADER + length);
+            }
+        } finally {
+            unmap(segment);
+        }
+    }
+
+    private UUID readId() throws IOException {
+        Path path = directory.resolve(ID);
+        if (Files.exists(path)) {
+            return UUID.fromString(Files.readString(path).strip());
+        }
+        UUID created = UUID.randomUUID();
+        Path temp = directory.resolve(ID + ".tmp");
+        Files.writeString(temp, created.toString());
+        Files.move(temp, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        return created;
+    }
+
+    private Position readCheckpoint() throws IOException {
+        Path checkpoint = directory.resolve(CHECKPOINT);
+        if (Files.exists(checkpoint)) {
+            ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(checkpoint));
+            return new Position(buffer.getLong(), buffer.getInt());
+        }
+        TreeSet<Long> segments = segments();
+        return new Position(segments.isEmpty() ? 0 : segments.first(), 0);
+    }
+
+    private ByteBuffer readSegment(long sequence) throws IOException {
+        if (sequence != readSequence) {
+            unmap(readSegment);
+            readSegment = null;
+            readSequence = -1;
+            readSegment = map(sequence);
+            readSequence = sequence;
+        }
+        return readSegment;
+    }
+
+    private MappedByteBuffer map(long sequence) throws IOException {
+        try (FileChannel channel = FileChannel.open(segmentPath(sequence),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            // The mapping outlives the channel; a new segment is sparse and reads as zeros
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        }
+    }
+
+    /**
+     * Releases a mapping now. Only for buffers no thread touches again: access after unmapping
+     * crashes the JVM. Without {@code sun.misc.Unsafe} the mapping is left to the collector.
+     */
+    private static void unmap(MappedByteBuffer buffer) {
+        if (buffer == null || INVOKE_CLEANER == null) {
+            return;
+        }
+        try {
+            INVOKE_CLEANER.invokeExact((ByteBuffer) buffer);
+        } catch (Throwable e) {
+            log.warn("Failed to unmap an audit journal segment", e);
+        }
+    }
+
+    private static MethodHandle invokeCleaner() {
+        try {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+            theUnsafe.setAccessible(true);
+            return MethodHandles.lookup()
+                    .findVirtual(unsafeClass, "invokeCleaner", MethodType.methodType(void.class, ByteBuffer.class))
+                    .bindTo(theUnsafe.get(null));
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            log.info("Cannot unmap audit journal segments explicitly; leaving them to the garbage collector: {}",
+                    e.getMessage());
+            return null;
+        }
+    }
+
+    private TreeSet<Long> segments() throws IOException {
+        TreeSet<Long> segments = new TreeSet<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + SEGMENT_SUFFIX)) {
+            for (Path path : stream) {
+                String name = path.getFileName().toString();
+                segments.add(Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length())));
+            }
+        }
+        return segments;
+    }
+
+    private Path segmentPath(long sequence) {
+        return directory.resolve(String.format("%020d%s", sequence, SEGMENT_SUFFIX));
+    }
+}
@@ -0,0 +1,162 @@
+package com.islamic.policyengine.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import java.sql.Date;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Keeps the monthly partitions of {@code policy_audit_log} (changelog 006) ahead of the clock
+ * and enforces retention by detaching (and optionally dropping) whole partitions, never by
+ * deleting rows.
+ *
+ * <p>There is no default partition: {@code DETACH PARTITION ... CONCURRENTLY} is not allowed
+ * while one exists. A row for a month without a partition (the clock far off, or maintenance not
+ * run) fails its insert instead, and {@link AuditWriter} creates the month through
+ * {@link #ensureMonth} and retries. {@code create_audit_log_partition} takes an advisory lock
+ * (changelog 015), so instances creating the same month at once do not fail each other.</p>
+ */
+@Slf4j
+@Service
+public class AuditPartitionService {
+
+    public enum RetentionAction {
+        DETACH,
+        DROP
+    }
+
+    private static final Pattern PARTITION_NAME = Pattern.compile("policy_audit_log_y(\\d{4})m(\\d{2})");
+
+    private static final String PARTITIONS_SQL = "SELECT c.relname FROM pg_inherits i "
+            + "JOIN pg_class c ON c.oid = i.inhrelid "
+            + "JOIN pg_class p ON p.oid = i.inhparent "
+            + "WHERE p.relname = 'policy_audit_log'";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int premakeMonths;
+    private final int retentionMonths;
+    private final RetentionAction retentionAction;
+
+    public AuditPartitionService(JdbcTemplate jdbcTemplate,
+                                 @Value("${policy-engine.audit.partitions.premake-months:2}") int premakeMonths,
+                                 @Value("${policy-engine.audit.partitions.retention-months:0}") int retentionMonths,
+                                 @Value("${policy-engine.audit.partitions.retention-action:DROP}") RetentionAction retentionAction) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.premakeMonths = premakeMonths;
+        this.retentionMonths = retentionMonths;
+        this.retentionAction = retentionAction;
+    }
+
+    /**
+     * Runs before the audit writer starts, so the current month's partition exists even if the
+     * application was down when the scheduled run should have created it.
+     */
+    @PostConstruct
+    public void init() {
+        ensurePartitions();
+    }
+
+    @Scheduled(cron = "${policy-engine.audit.partitions.maintenance-cron:0 15 0 * * *}")
+    public void maintain() {
+        ensurePartitions();
+        applyRetention();
+    }
+
+    void ensurePartitions() {
+        YearMonth current = YearMonth.now();
+        for (int i = 0; i <= premakeMonths; i++) {
+            ensureMonth(current.plusMonths(i));
+        }
+    }
+
+    /** Creates the partition for {@code month} unless it exists; safe to call concurrently. */
+    void ensureMonth(YearMonth month) {
+        jdbcTemplate.queryForObject("SELECT create_audit_log_partition(?)", String.class, Date.valueOf(month.atDay(1)));
+    }
+
+    /**
+     * Removes partitions whose whole month lies before the retention window: with
+     * {@code retention-months: 12}, the current month and the 12 before it are kept.
+     */
+    void applyRetention() {
+        if (retentionMonths <= 0) {
+            return;
+        }
+        YearMonth oldestKept = YearMonth.now().minusMonths(retentionMonths);
+        boolean dropped = false;
+        for (YearMonth month : attachedMonths()) {
+            if (month.isBefore(oldestKept)) {
+                detach(month);
+                if (retentionAction == RetentionAction.DROP) {
+                    dropDetached(month);
+                    dropped = true;
+                }
+                log.info("Audit partition {} {} (retention {} months)", partitionName(month),
+                        retentionAction == RetentionAction.DROP ? "dropped" : "detached", retentionMonths);
+            }
+        }
+        if (dropped) {
+            purgePayloads(oldestKept);
+        }
+    }
+
+    /** Months with a partition attached to {@code policy_audit_log}, oldest first. */
+    List<YearMonth> attachedMonths() {
+        List<YearMonth> months = new ArrayList<>();
+        for (String partition : jdbcTemplate.queryForList(PARTITIONS_SQL, String.class)) {
+            Matcher matcher = PARTITION_NAME.matcher(partition);
+            if (matcher.matches()) {
+                months.add(YearMonth.of(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2))));
+            }
+        }
+        Collections.sort(months);
+        return months;
+    }
+
+    void detach(YearMonth month) {
+        // CONCURRENTLY avoids blocking inserts into the parent; requires autocommit
+        jdbcTemplate.execute("ALTER TABLE policy_audit_log DETACH PARTITION " + partitionName(month) + " CONCURRENTLY");
+    }
+
+    /** Rows of the detached partition of {@code month}, or -1 if it has been dropped. */
+    long detachedRows(YearMonth month) {
+        String table = partitionName(month);
+        if (jdbcTemplate.queryForObject("SELECT to_regclass(?)::text", String.class, table) == null) {
+            return -1;
+        }
+        Long rows = jdbcTemplate.queryForObject("SELECT count(*) FROM " + table, Long.class);
+        return rows != null ? rows : 0;
+    }
+
+    void dropDetached(YearMonth month) {
+        jdbcTemplate.execute("DROP TABLE IF EXISTS " + partitionName(month));
+    }
+
+    RetentionAction getRetentionAction() {
+        return retentionAction;
+    }
+
+    static String partitionName(YearMonth month) {
+        return String.format("policy_audit_log_y%04dm%02d", month.getYear(), month.getMonthValue());
+    }
+
+    /**
+     * Deletes deduplicated payloads (changelog 009) last referenced before {@code oldestKept}.
+     * Only after a DROP or an archive: detached partitions still reference their payloads.
+     */
+    void purgePayloads(YearMonth oldestKept) {
+        int deleted = jdbcTemplate.update("DELETE FROM audit_payload WHERE last_seen < ?",
+                Date.valueOf(oldestKept.atDay(1)));
+        log.info("Purged {} audit payloads last used before {}", deleted, oldestKept);
+    }
+}
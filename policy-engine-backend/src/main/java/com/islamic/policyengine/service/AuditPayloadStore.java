@@ -0,0 +1,123 @@
+package com.islamic.policyengine.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Content-addressed storage of audit payloads in {@code audit_payload} (changelog 009).
+ *
+ * <p>Each serialized payload is keyed by its SHA-256; audit rows only hold the hashes. A payload
+ * is upserted at most once per month: the row's {@code last_seen} month is raised on the first
+ * reference in a new month and left alone otherwise, so repeated payloads cost an index probe
+ * and no write. Hashes already stored for the current month are remembered in memory and not
+ * sent at all. {@code last_seen} lets partition retention drop payloads no kept month uses.</p>
+ *
+ * <p>Payloads are serialized in a canonical form, map entries sorted by key at every level, so
+ * the same content hashes the same whatever order the caller's map kept its keys in.</p>
+ */
+final class AuditPayloadStore {
+
+    private static final String UPSERT_SQL = "INSERT INTO audit_payload (hash, payload, last_seen) "
+            + "VALUES (?, ?::jsonb, ?) "
+            + "ON CONFLICT (hash) DO UPDATE SET last_seen = EXCLUDED.last_seen "
+            + "WHERE audit_payload.last_seen < EXCLUDED.last_seen";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectWriter canonicalWriter;
+    private final Cache<String, Boolean> stored;
+    private final LongAdder written = new LongAdder();
+    private final LongAdder deduplicated = new LongAdder();
+
+    AuditPayloadStore(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper, long knownHashes) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.canonicalWriter = objectMapper.writer().with(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS);
+        this.stored = Caffeine.newBuilder().maximumSize(knownHashes).build();
+    }
+
+    LongAdder written() {
+        return written;
+    }
+
+    LongAdder deduplicated() {
+        return deduplicated;
+    }
+
+    /** The JSON stored and hashed for {@code payload}. */
+    String json(Object payload) throws JsonProcessingException {
+        return canonicalWriter.writeValueAsString(payload);
+    }
+
+    /** The stored input JSON of {@code record}: as already serialized (journaled), or from its data. */
+    String inputJson(AuditRecord record) throws JsonProcessingException {
+        return record.getInputJson() != null ? record.getInputJson() : json(record.getInputData());
+    }
+
+    String outputJson(AuditRecord record) throws JsonProcessingException {
+        return record.getOutputJson() != null ? record.getOutputJson() : json(record.getOutputData());
+    }
+
+    Batch newBatch() {
+        return new Batch();
+    }
+
+    static byte[] sha256(String json) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(json.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /** Payloads referenced by one audit batch, each distinct (hash, month) staged once. */
+    final class Batch {
+
+        // Sorted so concurrent writers upsert in the same order
+        private final Map<String, Object[]> pending = new TreeMap<>();
+
+        /** Returns the hash to store in the audit row, staging the payload if it may be new. */
+        byte[] add(String json, LocalDate createdOn) {
+            byte[] hash = sha256(json);
+            LocalDate month = createdOn.withDayOfMonth(1);
+            String key = month + ":" + HexFormat.of().formatHex(hash);
+            if (stored.getIfPresent(key) != null || pending.containsKey(key)) {
+                deduplicated.increment();
+            } else {
+                pending.put(key, new Object[]{hash, json, Date.valueOf(month)});
+            }
+            return hash;
+        }
+
+        /** Upserts the staged payloads; call before inserting the audit rows that reference them. */
+        void store() {
+            if (pending.isEmpty()) {
+                return;
+            }
+            jdbcTemplate.batchUpdate(UPSERT_SQL, new ArrayList<>(pending.values()));
+        }
+
+        /**
+         * Remembers the staged payloads as stored; call once the transaction that ran
+         * {@link #store()} has committed, so a rolled-back upsert is sent again.
+         */
+        void committed() {
+            written.add(pending.size());
+            pending.keySet().forEach(key -> stored.put(key, Boolean.TRUE));
+        }
+    }
+}
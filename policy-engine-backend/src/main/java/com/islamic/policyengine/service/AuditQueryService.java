@@ -0,0 +1,97 @@
+package com.islamic.policyengine.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.islamic.policyengine.model.dto.AuditLogDto;
+import com.islamic.policyengine.repository.AuditArchiveRepository;
+import com.islamic.policyengine.repository.AuditCursor;
+import com.islamic.policyengine.repository.AuditExportRow;
+import com.islamic.policyengine.repository.AuditLogFilter;
+import com.islamic.policyengine.repository.AuditLogQueryRepository;
+import com.islamic.policyengine.repository.AuditLogQueryRepository.DetailSink;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Reads the audit log across both tiers: recent months from {@code policy_audit_log}, older
+ * ones from the columnar archive. Archived months are always older than every row still in
+ * the database, so pages continue from the database into the archive and exports run the
+ * other way round, without merging.
+ */
+@Service
+@RequiredArgsConstructor
+public class AuditQueryService {
+
+    private final AuditLogQueryRepository auditLogQueryRepository;
+    private final AuditArchiveRepository auditArchiveRepository;
+    private final ObjectMapper objectMapper;
+
+    public List<AuditLogDto> findPage(AuditLogFilter filter, AuditCursor after, int limit) {
+        List<AuditLogDto> page = auditLogQueryRepository.findPage(filter, after, limit);
+        if (page.size() < limit) {
+            page = new ArrayList<>(page);
+            page.addAll(auditArchiveRepository.findPage(filter, after, limit - page.size()));
+        }
+        return page;
+    }
+
+    public List<AuditLogDto> findOffsetPage(AuditLogFilter filter, long offset, int limit) {
+        List<AuditLogDto> page = auditLogQueryRepository.findOffsetPage(filter, offset, limit);
+        if (page.size() < limit) {
+            long archiveOffset = page.isEmpty() ? Math.max(0, offset - auditLogQueryRepository.count(filter)) : 0;
+            page = new ArrayList<>(page);
+            page.addAll(auditArchiveRepository.findOffsetPage(filter, archiveOffset, limit - page.size()));
+        }
+        return page;
+    }
+
+    public long count(AuditLogFilter filter) {
+        return auditLogQueryRepository.count(filter) + auditArchiveRepository.count(filter);
+    }
+
+    /** Planner estimate for the database, manifest estimate for the archive. */
+    public long estimateCount(AuditLogFilter filter) {
+        return auditLogQueryRepository.estimateCount(filter) + auditArchiveRepository.estimateCount(filter);
+    }
+
+    /** Oldest first: archived days, then the database through its cursor. */
+    public void streamForExport(AuditLogFilter filter, int fetchSize, Consumer<AuditExportRow> consumer) {
+        auditArchiveRepository.stream(filter, consumer);
+        auditLogQueryRepository.streamForExport(filter, fetchSize, consumer);
+    }
+
+    /**
+     * Streams one entry from the database or, failing that, the archive file of {@code day}
+     * (the entry's creation date). Without {@code day} archived entries are not found: there
+     * is no index from id to day, and searching every file would scan the whole archive.
+     */
+    public boolean streamDetail(UUID id, LocalDate day, DetailSink sink) {
+        if (auditLogQueryRepository.streamDetail(id, sink)) {
+            return true;
+        }
+        if (day == null) {
+            return false;
+        }
+        Optional<AuditExportRow> archived = auditArchiveRepository.findById(id, day);
+        if (archived.isEmpty()) {
+            return false;
+        }
+        try {
+            JsonGenerator generator = objectMapper.getFactory().createGenerator(sink.open());
+            AuditExportService.writeJson(generator, archived.get());
+            generator.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return true;
+    }
+}
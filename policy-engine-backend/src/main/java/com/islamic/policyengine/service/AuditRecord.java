@@ -0,0 +1,44 @@
+package com.islamic.policyengine.service;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * One evaluation waiting in the {@link AuditWriter} queue. Payloads are kept as objects and only
+ * serialized by the writer thread, off the request path. With the journal enabled they are
+ * serialized on submit instead, and records read back from the {@link AuditJournal} carry them
+ * in {@code inputJson} and {@code outputJson}.
+ */
+@Value
+@Builder
+public class AuditRecord implements AuditWriter.Entry {
+
+    /** How much of the evaluation is persisted, decided by {@link AuditSampler}. */
+    public enum Mode {
+        /** Audit row with payloads. */
+        FULL,
+        /** Audit row without payloads. */
+        METADATA,
+        /** No audit row; only counted in the evaluation rollups. */
+        COUNT_ONLY
+    }
+
+    UUID id;
+    String policyType;
+    UUID ruleId;
+    Integer ruleVersion;
+    Object inputData;
+    Object outputData;
+    int evaluationMs;
+    /** Served from the result cache: counted, but kept out of the latency figures. */
+    boolean cacheHit;
+    String callerId;
+    LocalDateTime createdAt;
+    @Builder.Default
+    Mode mode = Mode.FULL;
+    String inputJson;
+    String outputJson;
+}
@@ -0,0 +1,107 @@
+package com.islamic.policyengine.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.UUID;
+
+/**
+ * Encoding of an {@link AuditRecord} in an {@link AuditJournal} frame.
+ *
+ * <p>Fields are written in a fixed order with {@link DataOutputStream}; strings that may be null
+ * are a byte length (-1 for null) followed by UTF-8. Payloads go in as the JSON
+ * {@link AuditPayloadStore} stores and hashes, so a replayed record references the same
+ * payload rows. The high bit of the mode byte flags cache hits; frames written before it
+ * existed have it clear.</p>
+ */
+final class AuditRecordCodec {
+
+    private static final int CACHE_HIT_FLAG = 0x80;
+
+    private final AuditPayloadStore payloadStore;
+    private final ObjectMapper objectMapper;
+
+    AuditRecordCodec(AuditPayloadStore payloadStore, ObjectMapper objectMapper) {
+        this.payloadStore = payloadStore;
+        this.objectMapper = objectMapper;
+    }
+
+    byte[] encode(AuditRecord record) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(512);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeLong(record.getId().getMostSignificantBits());
+        out.writeLong(record.getId().getLeastSignificantBits());
+        out.writeLong(record.getCreatedAt().toEpochSecond(ZoneOffset.UTC));
+        out.writeInt(record.getCreatedAt().getNano());
+        out.writeUTF(record.getPolicyType());
+        out.writeBoolean(record.getRuleId() != null);
+        if (record.getRuleId() != null) {
+            out.writeLong(record.getRuleId().getMostSignificantBits());
+            out.writeLong(record.getRuleId().getLeastSignificantBits());
+        }
+        out.writeInt(record.getRuleVersion() != null ? record.getRuleVersion() : -1);
+        out.writeInt(record.getEvaluationMs());
+        writeNullable(out, record.getCallerId());
+        out.writeByte(record.getMode().ordinal() | (record.isCacheHit() ? CACHE_HIT_FLAG : 0));
+        writeNullable(out, record.getMode() == AuditRecord.Mode.FULL ? payloadStore.inputJson(record) : null);
+        writeNullable(out, payloadStore.outputJson(record));
+        return bytes.toByteArray();
+    }
+
+    AuditRecord decode(byte[] frame) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(frame));
+        UUID id = new UUID(in.readLong(), in.readLong());
+        LocalDateTime createdAt = LocalDateTime.ofEpochSecond(in.readLong(), in.readInt(), ZoneOffset.UTC);
+        String policyType = in.readUTF();
+        UUID ruleId = in.readBoolean() ? new UUID(in.readLong(), in.readLong()) : null;
+        int ruleVersion = in.readInt();
+        int evaluationMs = in.readInt();
+        String callerId = readNullable(in);
+        int modeByte = in.readUnsignedByte();
+        AuditRecord.Mode mode = AuditRecord.Mode.values()[modeByte & ~CACHE_HIT_FLAG];
+        String inputJson = readNullable(in);
+        String outputJson = readNullable(in);
+        return AuditRecord.builder()
+                .id(id)
+                .policyType(policyType)
+                .ruleId(ruleId)
+                .ruleVersion(ruleVersion >= 0 ? ruleVersion : null)
+                .evaluationMs(evaluationMs)
+                .cacheHit((modeByte & CACHE_HIT_FLAG) != 0)
+                .callerId(callerId)
+                .createdAt(createdAt)
+                .mode(mode)
+                .inputJson(inputJson)
+                .outputJson(outputJson)
+                // The rollups read the outcome fields of the result
+                .outputData(outputJson != null ? objectMapper.readValue(outputJson, Object.class) : null)
+                .build();
+    }
+
+    private static void writeNullable(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readNullable(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,87 @@
+package com.islamic.policyengine.service;
+
+import com.islamic.policyengine.config.AuditSamplingProperties;
+import com.islamic.policyengine.config.AuditSamplingProperties.PolicySampling;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Decides how much of an evaluation is audited, per {@link AuditSamplingProperties}.
+ *
+ * <p>Results that are not approvals are always recorded in full. Approvals are recorded with
+ * probability {@code approval-rate}, optionally without payloads; the rest are only counted.
+ * Every decision increments {@code policyengine.audit.sampling{policyType, mode}}, and skipped
+ * evaluations still reach the evaluation rollups, so counts and latency stats stay exact.</p>
+ */
+@Slf4j
+@Component
+public class AuditSampler {
+
+    private final Map<String, Rule> rules;
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentMap<String, Counter> counters = new ConcurrentHashMap<>();
+
+    public AuditSampler(AuditSamplingProperties properties, MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        Map<String, Rule> rules = new HashMap<>();
+        properties.getPolicies().forEach((policyType, sampling) -> rules.put(policyType, Rule.of(policyType, sampling)));
+        this.rules = Map.copyOf(rules);
+        if (!rules.isEmpty()) {
+            log.info("Audit sampling enabled for {}", rules.keySet());
+        }
+    }
+
+    AuditRecord.Mode decide(String policyType, Object result) {
+        Rule rule = rules.get(policyType);
+        AuditRecord.Mode mode = rule == null ? AuditRecord.Mode.FULL : rule.decide(result);
+        counters.computeIfAbsent(policyType + '|' + mode, key -> Counter.builder("policyengine.audit.sampling")
+                        .description("Evaluations by audit sampling decision")
+                        .tag("policyType", policyType)
+                        .tag("mode", mode.name().toLowerCase())
+                        .register(meterRegistry))
+                .increment();
+        return mode;
+    }
+
+    private record Rule(String field, Object value, double rate, boolean payloads) {
+
+        static Rule of(String policyType, PolicySampling sampling) {
+            String approval = sampling.getApproval();
+            int separator = approval != null ? approval.indexOf('=') : -1;
+            if (separator <= 0) {
+                throw new IllegalStateException("policy-engine.audit.sampling.policies." + policyType
+                        + ".approval must be field=value, got " + approval);
+            }
+            if (sampling.getApprovalRate() < 0.0 || sampling.getApprovalRate() > 1.0) {
+                throw new IllegalStateException("policy-engine.audit.sampling.policies." + policyType
+                        + ".approval-rate must be between 0 and 1");
+            }
+            String raw = approval.substring(separator + 1).trim();
+            Object value = "true".equalsIgnoreCase(raw) || "false".equalsIgnoreCase(raw) ? Boolean.valueOf(raw) : raw;
+            return new Rule(approval.substring(0, separator).trim(), value, sampling.getApprovalRate(),
+                    sampling.isApprovalPayloads());
+        }
+
+        AuditRecord.Mode decide(Object result) {
+            if (!(result instanceof Map<?, ?> fields) || !isApproval(fields.get(field))) {
+                return AuditRecord.Mode.FULL;
+            }
+            if (rate < 1.0 && ThreadLocalRandom.current().nextDouble() >= rate) {
+                return AuditRecord.Mode.COUNT_ONLY;
+            }
+            return payloads ? AuditRecord.Mode.FULL : AuditRecord.Mode.METADATA;
+        }
+
+        private boolean isApproval(Object actual) {
+            return actual != null && (value.equals(actual) || value.toString().equals(actual.toString()));
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package com.islamic.policyengine.service;
+
+import com.islamic.policyengine.repository.AuditPayloadCriterion;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Maintains one expression index on {@code audit_payload_number(payload, field)} per numeric
+ * rule field marked {@code searchable}, so range searches on audited values (for example
+ * {@code input.transactionAmount>50000000}) are answered from an index instead of a scan.
+ *
+ * <p>Indexes are built with {@code CREATE INDEX CONCURRENTLY} on a background thread at startup
+ * and after every rule save, so neither audit inserts nor the request are blocked while a large
+ * table is indexed. A field becomes range-searchable only once its index is valid; indexes of
+ * fields no longer marked searchable are left in place.</p>
+ */
+@Slf4j
+@Service
+public class AuditSearchIndexService implements DisposableBean {
+
+    private static final String INDEX_PREFIX = "idx_audit_payload_num_";
+
+    private static final String SEARCHABLE_FIELDS_SQL = "SELECT DISTINCT field_name FROM rule_fields "
+            + "WHERE searchable AND field_type IN ('INTEGER', 'BIG_DECIMAL')";
+
+    private static final String INDEXES_SQL = "SELECT c.relname, i.indisvalid FROM pg_index i "
+            + "JOIN pg_class c ON c.oid = i.indexrelid "
+            + "JOIN pg_class t ON t.oid = i.indrelid "
+            + "WHERE t.relname = 'audit_payload' AND c.relname LIKE 'idx\\_audit\\_payload\\_num\\_%'";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ExecutorService executor;
+    private final AtomicBoolean syncPending = new AtomicBoolean();
+
+    private volatile Set<String> rangeFields = Set.of();
+
+    public AuditSearchIndexService(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "audit-search-index");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady() {
+        requestSync();
+    }
+
+    /** Re-syncs the indexes once the current transaction (typically a rule save) commits. */
+    public void syncAfterCommit() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    requestSync();
+                }
+            });
+        } else {
+            requestSync();
+        }
+    }
+
+    /**
+     * Parses search criteria and rejects range comparisons on fields without a valid index,
+     * which would otherwise scan every stored payload.
+     */
+    public List<AuditPayloadCriterion> parseCriteria(List<String> criteria) {
+        if (criteria == null) {
+            return List.of();
+        }
+        List<AuditPayloadCriterion> parsed = criteria.stream().map(AuditPayloadCriterion::parse).toList();
+        for (AuditPayloadCriterion criterion : parsed) {
+            if (criterion.operator().isRange() && !rangeFields.contains(criterion.field())) {
+                throw new IllegalArgumentException("Field " + criterion.field()
+                        + " is not range-searchable; mark it searchable on a numeric rule field or use '='");
+            }
+        }
+        return parsed;
+    }
+
+    public Set<String> getRangeFields() {
+        return rangeFields;
+    }
+
+    /**
+     * Runs a sync on the index thread and waits for it, after any sync already queued, so the
+     * caller sees every index the current rule fields call for.
+     */
+    public void syncNow() {
+        try {
+            executor.submit(this::sync).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while syncing audit search indexes", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("Failed to sync audit search indexes", e.getCause());
+        }
+    }
+
+    private void requestSync() {
+        // Saves arriving while a sync is queued are covered by that sync
+        if (syncPending.compareAndSet(false, true)) {
+            executor.execute(() -> {
+                syncPending.set(false);
+                try {
+                    sync();
+                } catch (RuntimeException e) {
+                    log.error("Failed to sync audit search indexes", e);
+                }
+            });
+        }
+    }
+
+    void sync() {
+        Map<String, Boolean> existing = new HashMap<>();
+        jdbcTemplate.query(INDEXES_SQL, (RowCallbackHandler) rs -> existing.put(rs.getString(1), rs.getBoolean(2)));
+
+        Set<String> ready = new HashSet<>();
+        for (String field : jdbcTemplate.queryForList(SEARCHABLE_FIELDS_SQL, String.class)) {
+            if (!AuditPayloadCriterion.FIELD_NAME.matcher(field).matches()) {
+                log.warn("Searchable field {} is not a plain identifier, not indexing it", field);
+                continue;
+            }
+            String index = indexName(field);
+            Boolean valid = existing.get(index);
+            if (Boolean.TRUE.equals(valid)) {
+                ready.add(field);
+                continue;
+            }
+            try {
+                if (valid != null) {
+                    // Left behind by an interrupted concurrent build
+                    jdbcTemplate.execute("DROP INDEX CONCURRENTLY IF EXISTS " + index);
+                }
+                long start = System.nanoTime();
+                jdbcTemplate.execute("CREATE INDEX CONCURRENTLY IF NOT EXISTS " + index
+                        + " ON audit_payload (audit_payload_number(payload, '" + field + "'))");
+                log.info("Created audit search index {} for {} in {}ms", index, field,
+                        (System.nanoTime() - start) / 1_000_000);
+                ready.add(field);
+            } catch (RuntimeException e) {
+                log.error("Failed to create audit search index {} for {}", index, field, e);
+            }
+        }
+        rangeFields = Set.copyOf(ready);
+    }
+
+    /** Distinct per field even where names differ only in case; within the 63-byte limit. */
+    static String indexName(String field) {
+        String base = field.toLowerCase(Locale.ROOT);
+        if (base.length() > 32) {
+            base = base.substring(0, 32);
+        }
+        return INDEX_PREFIX + base + "_" + String.format("%08x", field.hashCode());
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+}
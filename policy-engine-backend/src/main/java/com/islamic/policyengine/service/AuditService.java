@@ -1,39 +1,57 @@
 package com.islamic.policyengine.service;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.islamic.policyengine.model.dto.EvaluationRequest;
 import com.islamic.policyengine.model.dto.EvaluationResponse;
-import com.islamic.policyengine.model.entity.AuditLog;
-import com.islamic.policyengine.model.entity.Rule;
-import com.islamic.policyengine.repository.AuditLogRepository;
+import com.islamic.policyengine.model.snapshot.RuleSnapshot;
 import lombok.RequiredArgsConstructor;
-import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
-@Slf4j
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Records evaluations in {@code policy_audit_log} through the write-behind {@link AuditWriter};
+ * nothing here touches the database on the request thread.
+ */
 @Service
 @RequiredArgsConstructor
 public class AuditService {
 
-    private final AuditLogRepository auditLogRepository;
-    private final ObjectMapper objectMapper;
+    private final AuditWriter auditWriter;
+    private final AuditSampler auditSampler;
 
-    public void log(String policyType, Rule rule, EvaluationRequest request,
+    /**
+     * Records the evaluation as decided by {@link AuditSampler}. A record that keeps no payload
+     * drops its input here, so the writer never serializes it; the result object is kept only
+     * for the rollup outcome.
+     */
+    public void log(String policyType, RuleSnapshot rule, EvaluationRequest request,
                     EvaluationResponse response, long evaluationMs) {
-        try {
-            AuditLog auditLog = AuditLog.builder()
-                    .policyType(policyType)
-                    .rule(rule)
-                    .ruleVersion(rule.getVersion())
-                    .inputData(objectMapper.writeValueAsString(request.getData()))
-                    .outputData(objectMapper.writeValueAsString(response.getResult()))
-                    .evaluationMs((int) evaluationMs)
-                    .build();
+        AuditRecord.Mode mode = auditSampler.decide(policyType, response.getResult());
+        auditWriter.submit(AuditRecord.builder()
+                .id(UUID.randomUUID())
+                .policyType(policyType)
+                .ruleId(rule.getId())
+                .ruleVersion(rule.getVersion())
+                .inputData(mode == AuditRecord.Mode.FULL ? request.getData() : null)
+                .outputData(response.getResult())
+                .evaluationMs((int) evaluationMs)
+                .cacheHit(response.isCacheHit())
+                .createdAt(LocalDateTime.now())
+                .mode(mode)
+                .build());
+    }
 
-            auditLogRepository.save(auditLog);
-        } catch (JsonProcessingException e) {
-            log.error("Failed to serialize audit data", e);
+    /**
+     * Same as {@link #log} for each pair. The writer ships them in chunks of {@code flush-size}
+     * together with other queued records, not as one insert per call.
+     */
+    public void logBatch(String policyType, RuleSnapshot rule, List<EvaluationRequest> requests,
+                         List<EvaluationResponse> responses) {
+        for (int i = 0; i < responses.size(); i++) {
+            EvaluationResponse response = responses.get(i);
+            log(policyType, rule, requests.get(i), response, response.getEvaluationMs());
         }
     }
 }
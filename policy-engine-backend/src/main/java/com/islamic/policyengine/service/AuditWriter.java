@@ -0,0 +1,684 @@
+package com.islamic.policyengine.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Write-behind pipeline for {@code policy_audit_log}.
+ *
+ * <p>Evaluations enqueue an {@link AuditRecord} into a bounded queue and return. A single
+ * writer thread drains the queue, serializes the payloads and inserts them with one JDBC batch
+ * per {@code flush-size} records or {@code flush-interval-ms}, whichever comes first; with
+ * {@code reWriteBatchedInserts} the driver sends each batch as multi-row inserts. When the
+ * queue is full, {@code overflow: BLOCK} makes the caller wait (backpressure) and
+ * {@code overflow: DROP} discards the record and counts it.</p>
+ *
+ * <p>On shutdown the writer stops after the web server, drains whatever is queued and writes it
+ * before the DataSource is closed.</p>
+ *
+ * <p>With {@code journal.enabled} the in-memory queue is replaced by an {@link AuditJournal}
+ * on local disk: {@link #submit} serializes the record and appends it to a memory-mapped
+ * segment, and the writer thread ships the journal in batches, committing its position only
+ * after the insert succeeded. A crash or a database outage therefore loses nothing: batches
+ * failing while the database is unreachable are retried with backoff, and records not yet
+ * shipped are replayed on the next start. A batch the database rejects while it is up is
+ * retried record by record; records still rejected go to the {@link AuditDeadLetterSink} and
+ * count as failed, so one bad record cannot stall the journal. Records are framed by
+ * {@link AuditRecordCodec}.
+ * The shipped position is also stored in {@code audit_journal_checkpoint} in the batch's
+ * transaction, and on start the journal skips what the database already has, so a replayed
+ * batch is never counted in the rollups twice. {@code journal.max-size-mb} bounds the unshipped backlog, with
+ * {@code overflow} deciding what happens when it is reached; {@code BLOCK} waits at most
+ * {@code journal.block-timeout-ms} and then drops the record.</p>
+ *
+ * <p>Payloads are stored once per distinct content through {@link AuditPayloadStore}; the
+ * audit rows reference them by hash. Records sampled out by {@link AuditSampler} get a row
+ * without payloads ({@code METADATA}) or none at all ({@code COUNT_ONLY}). Every batch, sampled
+ * records included, is folded into the per-minute rollups of {@link EvaluationRollupService}
+ * in the transaction that inserts its rows.</p>
+ */
+@Slf4j
+@Component
+public class AuditWriter implements SmartLifecycle {
+
+    public enum OverflowPolicy {
+        BLOCK,
+        DROP
+    }
+
+    /** Queue element: an audit record or a flush request. */
+    interface Entry {
+    }
+
+    private record FlushRequest(CountDownLatch done) implements Entry {
+    }
+
+    /** A batch ready for {@link #commit}: its rows, every record it counts (rows and {@code COUNT_ONLY}) and payloads. */
+    private record Prepared(List<Object[]> rows, List<AuditRecord> accepted, AuditPayloadStore.Batch payloads) {
+    }
+
+    // Inserts stay idempotent for rows written outside the checkpointed transaction (older versions)
+    private static final String INSERT_SQL = "INSERT INTO policy_audit_log "
+            + "(id, policy_type, rule_id, rule_version, input_hash, output_hash, evaluation_ms, cache_hit, caller_id, "
+            + "created_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?) ON CONFLICT (id, created_at) DO NOTHING";
+
+    private static final String CHECKPOINT_SQL = "INSERT INTO audit_journal_checkpoint "
+            + "(journal_id, segment_sequence, segment_offset, updated_at) VALUES (?, ?, ?, now()) "
+            + "ON CONFLICT (journal_id) DO UPDATE SET segment_sequence = EXCLUDED.segment_sequence, "
+            + "segment_offset = EXCLUDED.segment_offset, updated_at = EXCLUDED.updated_at";
+
+    private static final long MAX_RETRY_BACKOFF_MS = 10_000;
+
+    // A segment is a single mapping, which cannot exceed Integer.MAX_VALUE bytes
+    private static final int MAX_SEGMENT_SIZE_MB = 2047;
+
+    static final int PHASE = SmartLifecycle.DEFAULT_PHASE - 1024;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EvaluationRollupService rollupService;
+    private final AuditPartitionService partitionService;
+    private final TransactionTemplate transactions;
+    private final AuditPayloadStore payloadStore;
+    private final AuditRecordCodec codec;
+    private final BlockingQueue<Entry> queue;
+    private final int flushSize;
+    private final long flushIntervalMs;
+    private final OverflowPolicy overflow;
+    private final long shutdownTimeoutMs;
+    private final AuditJournal journal;
+    private final long journalBlockTimeoutMs;
+    private final AuditDeadLetterSink deadLetters;
+
+    private final LongAdder written = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    private volatile boolean running;
+    private volatile boolean flushRequested;
+    private Thread writerThread;
+
+    public AuditWriter(JdbcTemplate jdbcTemplate,
+                       ObjectMapper objectMapper,
+                       EvaluationRollupService rollupService,
+                       AuditPartitionService partitionService,
+                       PlatformTransactionManager transactionManager,
+                       MeterRegistry meterRegistry,
+                       @Value("${policy-engine.audit.queue-capacity:10000}") int queueCapacity,
+                       @Value("${policy-engine.audit.flush-size:500}") int flushSize,
+                       @Value("${policy-engine.audit.flush-interval-ms:200}") long flushIntervalMs,
+                       @Value("${policy-engine.audit.overflow:BLOCK}") OverflowPolicy overflow,
+                       @Value("${policy-engine.audit.shutdown-timeout-ms:10000}") long shutdownTimeoutMs,
+                       @Value("${policy-engine.audit.payload-cache-size:100000}") long payloadCacheSize,
+                       @Value("${policy-engine.audit.journal.enabled:false}") boolean journalEnabled,
+                       @Value("${policy-engine.audit.journal.directory:data/audit-journal}") String journalDirectory,
+                       @Value("${policy-engine.audit.journal.segment-size-mb:64}") int journalSegmentSizeMb,
+                       @Value("${policy-engine.audit.journal.max-size-mb:1024}") long journalMaxSizeMb,
+                       @Value("${policy-engine.audit.journal.block-timeout-ms:5000}") long journalBlockTimeoutMs,
+                       @Value("${policy-engine.audit.journal.force:false}") boolean journalForce) {
+        if (journalEnabled) {
+            if (journalSegmentSizeMb < 1 || journalSegmentSizeMb > MAX_SEGMENT_SIZE_MB) {
+                throw new IllegalStateException("policy-engine.audit.journal.segment-size-mb must be between 1 and "
+                        + MAX_SEGMENT_SIZE_MB + ", was " + journalSegmentSizeMb);
+            }
+            if (journalMaxSizeMb < 1) {
+                throw new IllegalStateException("policy-engine.audit.journal.max-size-mb must be at least 1, was "
+                        + journalMaxSizeMb);
+            }
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.rollupService = rollupService;
+        this.partitionService = partitionService;
+        this.transactions = new TransactionTemplate(transactionManager);
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.flushSize = Math.max(1, flushSize);
+        this.flushIntervalMs = Math.max(1, flushIntervalMs);
+        this.overflow = overflow;
+        this.shutdownTimeoutMs = shutdownTimeoutMs;
+        this.payloadStore = new AuditPayloadStore(jdbcTemplate, objectMapper, payloadCacheSize);
+        this.codec = new AuditRecordCodec(payloadStore, objectMapper);
+        this.journal = journalEnabled
+                ? new AuditJournal(Path.of(journalDirectory), (int) (journalSegmentSizeMb * 1024L * 1024),
+                        journalMaxSizeMb * 1024L * 1024, journalForce)
+                : null;
+        this.journalBlockTimeoutMs = Math.max(0, journalBlockTimeoutMs);
+        this.deadLetters = new AuditDeadLetterSink(Path.of(journalDirectory), objectMapper);
+
+        Gauge.builder("policyengine.audit.queue.size", queue, BlockingQueue::size)
+                .description("Audit records waiting to be written")
+                .register(meterRegistry);
+        FunctionCounter.builder("policyengine.audit.records", written, LongAdder::sum)
+                .description("Audit records by outcome")
+                .tag("result", "written")
+                .register(meterRegistry);
+        FunctionCounter.builder("policyengine.audit.records", dropped, LongAdder::sum)
+                .description("Audit records by outcome")
+                .tag("result", "dropped")
+                .register(meterRegistry);
+        FunctionCounter.builder("policyengine.audit.records", failed, LongAdder::sum)
+                .description("Audit records by outcome")
+                .tag("result", "failed")
+                .register(meterRegistry);
+        FunctionCounter.builder("policyengine.audit.payloads", payloadStore.written(), LongAdder::sum)
+                .description("Audit payloads sent to audit_payload vs. skipped as already stored")
+                .tag("result", "stored")
+                .register(meterRegistry);
+        FunctionCounter.builder("policyengine.audit.payloads", payloadStore.deduplicated(), LongAdder::sum)
+                .description("Audit payloads sent to audit_payload vs. skipped as already stored")
+                .tag("result", "deduplicated")
+                .register(meterRegistry);
+        if (journal != null) {
+            Gauge.builder("policyengine.audit.journal.lag", journal, AuditJournal::lagRecords)
+                    .description("Journaled audit records not yet shipped to the database")
+                    .baseUnit("records")
+                    .register(meterRegistry);
+            Gauge.builder("policyengine.audit.journal.lag.bytes", journal, AuditJournal::lagBytes)
+                    .description("Journaled audit data not yet shipped to the database")
+                    .baseUnit("bytes")
+                    .register(meterRegistry);
+            Gauge.builder("policyengine.audit.journal.size", journal, AuditJournal::sizeBytes)
+                    .description("Disk space held by audit journal segments")
+                    .baseUnit("bytes")
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * Queues {@code record} for writing. Once the writer has stopped, the record is written
+     * synchronously instead; a journaled record stays in the journal until the next start.
+     */
+    public void submit(AuditRecord record) {
+        if (journal != null) {
+            journal(record);
+            return;
+        }
+        if (!running) {
+            write(List.of(record), null);
+            return;
+        }
+        if (overflow == OverflowPolicy.DROP) {
+            if (!queue.offer(record)) {
+                dropped.increment();
+                log.debug("Audit queue full, dropped record for {}", record.getPolicyType());
+            }
+            return;
+        }
+        try {
+            queue.put(record);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            dropped.increment();
+        }
+    }
+
+    /**
+     * Blocks until every record submitted before this call has been written (or has failed).
+     */
+    public void flush() {
+        if (!running) {
+            return;
+        }
+        if (journal != null) {
+            AuditJournal.Position target = journal.writtenPosition();
+            flushRequested = true;
+            LockSupport.unpark(writerThread);
+            try {
+                if (!journal.awaitCommitted(target, shutdownTimeoutMs)) {
+                    log.warn("Audit flush did not complete within {}ms", shutdownTimeoutMs);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return;
+        }
+        CountDownLatch done = new CountDownLatch(1);
+        try {
+            queue.put(new FlushRequest(done));
+            if (!done.await(shutdownTimeoutMs, TimeUnit.MILLISECONDS)) {
+                log.warn("Audit flush did not complete within {}ms", shutdownTimeoutMs);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void journal(AuditRecord record) {
+        byte[] encoded;
+        try {
+            encoded = codec.encode(record);
+        } catch (IOException e) {
+            failed.increment();
+            log.error("Failed to serialize audit data", e);
+            return;
+        }
+        try {
+            // Nothing ships while the writer is stopped, so waiting for room would never end
+            if (overflow == OverflowPolicy.DROP || !running) {
+                if (!journal.append(encoded, 0)) {
+                    dropped.increment();
+                    log.debug("Audit journal full, dropped record for {}", record.getPolicyType());
+                }
+                return;
+            }
+            if (!journal.append(encoded, journalBlockTimeoutMs)) {
+                dropped.increment();
+                log.debug("Audit journal still full after {}ms, dropped record for {}", journalBlockTimeoutMs,
+                        record.getPolicyType());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            dropped.increment();
+        } catch (IllegalArgumentException e) {
+            failed.increment();
+            log.error("Audit record for {} does not fit in a journal segment", record.getPolicyType(), e);
+        }
+    }
+
+    /**
+     * Ships the journal: reads up to {@code flush-size} records, waiting up to
+     * {@code flush-interval-ms} to fill a batch, writes them and commits the journal position.
+     * A failed write leaves the position where it was. While the database is unreachable the
+     * batch is retried with backoff; otherwise it is shipped record by record.
+     */
+    private void ship() {
+        long intervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+        long backoffMs = flushIntervalMs;
+        boolean checkpointSynced = false;
+        while ((running || journal.lagRecords() > 0) && !Thread.currentThread().isInterrupted()) {
+            if (!checkpointSynced) {
+                checkpointSynced = skipCommittedBatches();
+                if (!checkpointSynced) {
+                    if (!running) {
+                        return;
+                    }
+                    LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(backoffMs));
+                    backoffMs = Math.min(backoffMs * 2, MAX_RETRY_BACKOFF_MS);
+                    continue;
+                }
+            }
+            List<byte[]> frames = journal.read(flushSize);
+            if (frames.size() < flushSize && running && !flushRequested) {
+                LockSupport.parkNanos(intervalNanos);
+                frames.addAll(journal.read(flushSize - frames.size()));
+            }
+            flushRequested = false;
+            if (frames.isEmpty()) {
+                continue;
+            }
+
+            List<AuditRecord> batch = new ArrayList<>(frames.size());
+            for (byte[] frame : frames) {
+                try {
+                    batch.add(codec.decode(frame));
+                } catch (IOException e) {
+                    failed.increment();
+                    log.error("Skipping unreadable audit journal record", e);
+                }
+            }
+            if (write(batch, journal.readPosition())) {
+                journal.commit();
+                backoffMs = flushIntervalMs;
+                continue;
+            }
+            journal.rewind();
+            // The database answers, so it rejected something in the batch
+            if (databaseAvailable() && shipOneByOne(frames.size())) {
+                backoffMs = flushIntervalMs;
+                continue;
+            }
+            if (!running) {
+                // Left in the journal for the next start
+                return;
+            }
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(backoffMs));
+            backoffMs = Math.min(backoffMs * 2, MAX_RETRY_BACKOFF_MS);
+        }
+    }
+
+    /**
+     * Ships the next {@code count} journal records one per transaction, committing the journal
+     * past each as it is resolved. A record the database rejects while it is up goes to the
+     * dead letters and counts as failed. Returns false, with the journal rewound to the
+     * first unresolved record, if the database stops answering or the dead-letter file cannot
+     * be written.
+     */
+    private boolean shipOneByOne(int count) {
+        for (int i = 0; i < count; i++) {
+            List<byte[]> frames = journal.read(1);
+            if (frames.isEmpty()) {
+                return true;
+            }
+            AuditRecord record;
+            try {
+                record = codec.decode(frames.get(0));
+            } catch (IOException e) {
+                failed.increment();
+                log.error("Skipping unreadable audit journal record", e);
+                journal.commit();
+                continue;
+            }
+            RuntimeException rejected = writeOne(record, journal.readPosition());
+            if (rejected != null) {
+                if (!databaseAvailable() || !deadLetters.append(record, rejected)) {
+                    journal.rewind();
+                    return false;
+                }
+                failed.increment();
+            }
+            journal.commit();
+        }
+        return true;
+    }
+
+    /** Writes one journaled record in its own transaction; returns the error if it failed. */
+    private RuntimeException writeOne(AuditRecord record, AuditJournal.Position shippedTo) {
+        Prepared prepared = prepare(List.of(record));
+        try {
+            commit(prepared.rows(), prepared.accepted(), prepared.payloads(), shippedTo);
+        } catch (RuntimeException e) {
+            return e;
+        }
+        prepared.payloads().committed();
+        written.add(prepared.rows().size());
+        return null;
+    }
+
+    /** Whether the database answers, which tells a rejected batch from an outage. */
+    private boolean databaseAvailable() {
+        try {
+            jdbcTemplate.queryForObject("SELECT 1", Integer.class);
+            return true;
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Moves the journal past batches whose transaction committed after its last local
+     * checkpoint (a crash in between). Returns false while the database is unreachable.
+     */
+    private boolean skipCommittedBatches() {
+        List<AuditJournal.Position> stored;
+        try {
+            stored = jdbcTemplate.query("SELECT segment_sequence, segment_offset FROM audit_journal_checkpoint "
+                            + "WHERE journal_id = ?",
+                    (rs, rowNum) -> new AuditJournal.Position(rs.getLong(1), rs.getInt(2)), journal.id());
+        } catch (RuntimeException e) {
+            log.warn("Audit database unavailable, cannot read the journal checkpoint: {}", e.getMessage());
+            return false;
+        }
+        if (!stored.isEmpty()) {
+            long skipped = journal.skipTo(stored.get(0));
+            if (skipped > 0) {
+                log.info("Skipped {} journaled audit records already written before the restart", skipped);
+            }
+        }
+        return true;
+    }
+
+    private void drain() {
+        List<AuditRecord> batch = new ArrayList<>(flushSize);
+        List<Entry> drained = new ArrayList<>(flushSize);
+        List<FlushRequest> flushRequests = new ArrayList<>();
+
+        while (running || !queue.isEmpty()) {
+            try {
+                Entry first = queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                drained.add(first);
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+                // Keep filling the batch until it is full, the interval passes or a flush is requested
+                while (true) {
+                    int room = flushSize - batch.size() - drained.size();
+                    if (room > 0) {
+                        queue.drainTo(drained, room);
+                    }
+                    for (Entry entry : drained) {
+                        if (entry instanceof FlushRequest) {
+                            flushRequests.add((FlushRequest) entry);
+                        } else {
+                            batch.add((AuditRecord) entry);
+                        }
+                    }
+                    drained.clear();
+                    long remainingNanos = deadline - System.nanoTime();
+                    if (batch.size() >= flushSize || !flushRequests.isEmpty() || remainingNanos <= 0) {
+                        break;
+                    }
+                    Entry next = queue.poll(remainingNanos, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    drained.add(next);
+                }
+            } catch (InterruptedException e) {
+                // stop() interrupts only after its own timeout; write what we hold and exit
+                Thread.currentThread().interrupt();
+                write(batch, null);
+                flushRequests.forEach(request -> request.done().countDown());
+                return;
+            }
+
+            write(batch, null);
+            batch.clear();
+            flushRequests.forEach(request -> request.done().countDown());
+            flushRequests.clear();
+        }
+    }
+
+    /**
+     * Writes one batch. Returns false if the database rejected it; serialization failures are
+     * counted and skipped. Payloads, audit rows and rollups are written in one transaction, so
+     * the rollups count exactly the batches that were inserted. With the journal,
+     * {@code shippedTo} (the journal position after the batch) is stored in the same
+     * transaction; a batch is then applied once even if the process dies before the journal's
+     * own checkpoint.
+     */
+    private boolean write(List<AuditRecord> records, AuditJournal.Position shippedTo) {
+        if (records.isEmpty()) {
+            return true;
+        }
+        Prepared prepared = prepare(records);
+        List<Object[]> rows = prepared.rows();
+        try {
+            commit(rows, prepared.accepted(), prepared.payloads(), shippedTo);
+        } catch (RuntimeException e) {
+            if (journal != null) {
+                log.warn("Failed to write {} audit records, keeping them in the journal: {}", rows.size(), e.getMessage());
+                return false;
+            }
+            failed.add(rows.size());
+            log.error("Failed to write {} audit records", rows.size(), e);
+            return false;
+        }
+        prepared.payloads().committed();
+        written.add(rows.size());
+        return true;
+    }
+
+    /** Serializes {@code records}; records that fail to serialize are counted and left out. */
+    private Prepared prepare(List<AuditRecord> records) {
+        List<Object[]> rows = new ArrayList<>(records.size());
+        List<AuditRecord> accepted = new ArrayList<>(records.size());
+        AuditPayloadStore.Batch payloads = payloadStore.newBatch();
+        for (AuditRecord record : records) {
+            if (record.getMode() == AuditRecord.Mode.COUNT_ONLY) {
+                accepted.add(record);
+                continue;
+            }
+            try {
+                byte[] inputHash = null;
+                byte[] outputHash = null;
+                if (record.getMode() == AuditRecord.Mode.FULL) {
+                    LocalDate createdOn = record.getCreatedAt().toLocalDate();
+                    inputHash = payloads.add(payloadStore.inputJson(record), createdOn);
+                    outputHash = payloads.add(payloadStore.outputJson(record), createdOn);
+                }
+                rows.add(new Object[]{
+                        record.getId(),
+                        record.getPolicyType(),
+                        record.getRuleId(),
+                        record.getRuleVersion(),
+                        inputHash,
+                        outputHash,
+                        record.getEvaluationMs(),
+                        record.isCacheHit(),
+                        record.getCallerId(),
+                        Timestamp.valueOf(record.getCreatedAt())
+                });
+                accepted.add(record);
+            } catch (JsonProcessingException e) {
+                failed.increment();
+                log.error("Failed to serialize audit data", e);
+            }
+        }
+        return new Prepared(rows, accepted, payloads);
+    }
+
+    /**
+     * Runs the batch transaction. If Postgres finds no partition for a row, the transaction is
+     * aborted, so the missing months are created outside it and the batch is run again.
+     */
+    private void commit(List<Object[]> rows, List<AuditRecord> accepted, AuditPayloadStore.Batch payloads,
+                        AuditJournal.Position shippedTo) {
+        try {
+            transactions.executeWithoutResult(status -> insert(rows, accepted, payloads, shippedTo));
+        } catch (DataAccessException e) {
+            if (!isMissingPartition(e)) {
+                throw e;
+            }
+            Set<YearMonth> months = new TreeSet<>();
+            for (AuditRecord record : accepted) {
+                months.add(YearMonth.from(record.getCreatedAt()));
+            }
+            log.warn("No audit partition for some of {}, creating the missing ones", months);
+            months.forEach(partitionService::ensureMonth);
+            transactions.executeWithoutResult(status -> insert(rows, accepted, payloads, shippedTo));
+        }
+    }
+
+    private void insert(List<Object[]> rows, List<AuditRecord> accepted, AuditPayloadStore.Batch payloads,
+                        AuditJournal.Position shippedTo) {
+        payloads.store();
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_SQL, rows);
+        }
+        rollupService.record(accepted);
+        if (shippedTo != null) {
+            jdbcTemplate.update(CHECKPOINT_SQL, journal.id(), shippedTo.segment(), shippedTo.offset());
+        }
+    }
+
+    /** Postgres reports a row outside every partition as check_violation (23514). */
+    private static boolean isMissingPartition(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            for (SQLException sql = cause instanceof SQLException ? (SQLException) cause : null; sql != null;
+                 sql = sql.getNextException()) {
+                if ("23514".equals(sql.getSQLState()) && String.valueOf(sql.getMessage()).contains("no partition")) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        writerThread = new Thread(journal != null ? this::ship : this::drain, "audit-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+        log.info("Audit writer started (flush {} records / {}ms, overflow {}, {})", flushSize, flushIntervalMs, overflow,
+                journal != null ? "journaled" : "in-memory queue");
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(writerThread);
+        try {
+            writerThread.join(shutdownTimeoutMs);
+            if (writerThread.isAlive()) {
+                log.warn("Audit writer did not drain within {}ms, {} records pending", shutdownTimeoutMs,
+                        journal != null ? journal.lagRecords() : queue.size());
+                writerThread.interrupt();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (journal != null) {
+            // An access after unmapping crashes the JVM, so a writer still shipping keeps its mappings
+            if (!writerThread.isAlive()) {
+                journal.close();
+            }
+            log.info("Audit writer stopped ({} records written, {} left in the journal)", written.sum(), journal.lagRecords());
+            return;
+        }
+        // Anything submitted while stopping went into the queue after the writer's last look
+        List<Entry> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        List<AuditRecord> records = new ArrayList<>(remaining.size());
+        for (Entry entry : remaining) {
+            if (entry instanceof AuditRecord) {
+                records.add((AuditRecord) entry);
+            } else {
+                ((FlushRequest) entry).done().countDown();
+            }
+        }
+        write(records, null);
+        log.info("Audit writer stopped ({} records written)", written.sum());
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * {@code Integer.MAX_VALUE - 1024}: below {@code WebServerGracefulShutdownLifecycle}
+     * ({@code SmartLifecycle.DEFAULT_PHASE}, {@code Integer.MAX_VALUE}) and
+     * {@code WebServerStartStopLifecycle} ({@code Integer.MAX_VALUE - 1}). Lower phases start
+     * first and stop last, so the writer starts before the web server accepts requests and stops
+     * only after graceful shutdown has drained in-flight requests and the server has stopped;
+     * no request can enqueue into a stopped writer, and the DataSource is still open.
+     */
+    @Override
+    public int getPhase() {
+        return PHASE;
+    }
+}
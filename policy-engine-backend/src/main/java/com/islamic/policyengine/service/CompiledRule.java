@@ -0,0 +1,96 @@
+package com.islamic.policyengine.service;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.kie.api.KieBase;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Everything the evaluation path needs for one (rule id, version), built once and cached
+ * under the {@code kieBases} cache. Closed by the cache when the entry is evicted or replaced,
+ * which also returns its lease on the (possibly shared) KieBase. Evaluations hold the entry
+ * between {@link #acquire()} and {@link #release()}; closing an entry still in use only retires
+ * it, and the last of those evaluations releases its resources.
+ */
+@Getter
+@RequiredArgsConstructor
+public class CompiledRule implements AutoCloseable {
+
+    private final KieBase kieBase;
+
+    /** The DRL never mutates working memory, so a session only ever holds the one input fact. */
+    private final boolean stateless;
+
+    /** The KieBase was built with Drools sequential mode and must be run with a StatelessKieSession. */
+    private final boolean sequential;
+
+    /** Reusable sessions for the KieBase; {@code null} for stateless rules. */
+    private final KieSessionPool sessionPool;
+
+    /** Input/result binding onto the declared fact type; {@code null} when the rule declares none. */
+    private final FactBindingPlan bindingPlan;
+
+    /** Whether the KieBase was shared, loaded from a stored artifact or compiled from the DRL. */
+    private final RuleArtifactService.Source source;
+
+    /** Identifies the KieBase in {@link SharedKieBaseRegistry}; equal for rules sharing it. */
+    private final String contentHash;
+
+    /** Time taken to load or compile the KieBase and prepare the rest of this entry. */
+    private final long buildMs;
+
+    @Getter(AccessLevel.NONE)
+    private final List<Runnable> closeActions = new CopyOnWriteArrayList<>();
+
+    @Getter(AccessLevel.NONE)
+    private final AtomicInteger inUse = new AtomicInteger();
+
+    @Getter(AccessLevel.NONE)
+    private final AtomicBoolean retired = new AtomicBoolean();
+
+    @Getter(AccessLevel.NONE)
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    public void onClose(Runnable action) {
+        closeActions.add(action);
+    }
+
+    /** Marks an evaluation as using this entry until the matching {@link #release()}. */
+    public void acquire() {
+        inUse.incrementAndGet();
+    }
+
+    public void release() {
+        if (inUse.decrementAndGet() == 0 && retired.get()) {
+            closeNow();
+        }
+    }
+
+    public boolean isInUse() {
+        return inUse.get() > 0;
+    }
+
+    /** Retires the entry; its resources are released now, or by the last evaluation using it. */
+    @Override
+    public void close() {
+        retired.set(true);
+        if (inUse.get() == 0) {
+            closeNow();
+        }
+    }
+
+    private void closeNow() {
+        if (!closed.compareAndSet(false, true)) {
+            return;
+        }
+        if (sessionPool != null) {
+            sessionPool.close();
+        }
+        closeActions.forEach(Runnable::run);
+    }
+}
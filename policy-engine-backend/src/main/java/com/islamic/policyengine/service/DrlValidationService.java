@@ -48,6 +48,25 @@ public class DrlValidationService {
             "import\\s+(static\\s+)?([\\w.]+)");
 
     public List<String> validateDrl(String drlSource) {
+        List<String> errors = validateSecurity(drlSource);
+        if (!errors.isEmpty()) {
+            return errors;
+        }
+
+        // Syntax validation via KieHelper — only return ERROR-level messages
+        KieHelper kieHelper = new KieHelper();
+        kieHelper.addContent(drlSource, ResourceType.DRL);
+        Results results = kieHelper.verify();
+        return results.getMessages(Message.Level.ERROR).stream()
+                .map(Message::getText)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Blocked patterns and imports only, without compiling; for callers that build the DRL
+     * themselves and keep the result.
+     */
+    public List<String> validateSecurity(String drlSource) {
         List<String> errors = new ArrayList<>();
 
         // Security: check for blocked patterns in source
@@ -68,17 +87,6 @@ public class DrlValidationService {
                         + ". Only imports from com.islamic.policyengine.model.*, java.math.*, and java.util.* are permitted");
             }
         }
-
-        if (!errors.isEmpty()) {
-            return errors;
-        }
-
-        // Syntax validation via KieHelper — only return ERROR-level messages
-        KieHelper kieHelper = new KieHelper();
-        kieHelper.addContent(drlSource, ResourceType.DRL);
-        Results results = kieHelper.verify();
-        return results.getMessages(Message.Level.ERROR).stream()
-                .map(Message::getText)
-                .collect(Collectors.toList());
+        return errors;
     }
 }
@@ -1,39 +1,137 @@
 package com.islamic.policyengine.service;
 
-import com.islamic.policyengine.exception.DrlCompilationException;
-import com.islamic.policyengine.model.entity.Rule;
+import com.islamic.policyengine.model.snapshot.RuleSnapshot;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.kie.api.KieBase;
-import org.kie.api.builder.Message;
-import org.kie.api.builder.Results;
-import org.kie.api.io.ResourceType;
-import org.kie.internal.utils.KieHelper;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
 import java.util.UUID;
-import java.util.stream.Collectors;
+import java.util.concurrent.TimeUnit;
 
+@Slf4j
 @Service
+@RequiredArgsConstructor
 public class DroolsEngineService {
 
-    @Cacheable(value = "kieBases", key = "#rule.id + '-' + #rule.version")
-    public KieBase compileRule(Rule rule) {
-        KieHelper kieHelper = new KieHelper();
-        kieHelper.addContent(rule.getDrlSource(), ResourceType.DRL);
+    private final RuleArtifactService ruleArtifactService;
+    private final SharedKieBaseRegistry sharedKieBaseRegistry;
+    private final MeterRegistry meterRegistry;
 
-        Results results = kieHelper.verify();
-        if (results.hasMessages(Message.Level.ERROR)) {
-            List<Message> errors = results.getMessages(Message.Level.ERROR);
-            throw new DrlCompilationException(errors);
+    @Value("${policy-engine.session-pool.max-idle:32}")
+    private int sessionPoolMaxIdle;
+
+    /**
+     * Returns the cached {@link CompiledRule} for {@code rule}, building it on a miss. Concurrent
+     * misses for the same (id, version) wait for a single build rather than each building one.
+     */
+    @Cacheable(value = "kieBases", key = "#rule.id + '-' + #rule.version", sync = true)
+    public CompiledRule compileRule(RuleSnapshot rule) {
+        return build(rule);
+    }
+
+    /**
+     * Compiles {@code rule} without touching the cache; the caller owns the result until it is
+     * {@link #install installed}, and closes it otherwise. Throws {@link
+     * com.islamic.policyengine.exception.DrlCompilationException} for DRL errors.
+     */
+    public CompiledRule build(RuleSnapshot rule) {
+        long start = System.nanoTime();
+        boolean stateless = KieBaseCompiler.isStatelessEligible(rule.getDrlSource());
+        boolean sequential = stateless && rule.isSequential();
+        if (rule.isSequential() && !stateless) {
+            log.warn("Rule {} v{} requests sequential mode but its DRL mutates working memory; "
+                    + "evaluating it with a stateful session", rule.getId(), rule.getVersion());
         }
 
-        return kieHelper.build();
+        SharedKieBaseRegistry.Lease lease = sharedKieBaseRegistry.acquire(rule, sequential,
+                () -> ruleArtifactService.kieBase(rule, sequential));
+        CompiledRule compiled;
+        long elapsed;
+        try {
+            KieBase kieBase = lease.kieBase();
+            // Stateless rules run in a StatelessKieSession; only the others borrow pooled sessions
+            KieSessionPool sessionPool = stateless ? null : new KieSessionPool(kieBase, sessionPoolMaxIdle);
+            FactBindingPlan bindingPlan = FactBindingPlan.compile(kieBase, rule);
+            elapsed = System.nanoTime() - start;
+            compiled = new CompiledRule(kieBase, stateless, sequential, sessionPool, bindingPlan,
+                    lease.source(), lease.contentHash(), TimeUnit.NANOSECONDS.toMillis(elapsed));
+            if (sessionPool != null) {
+                registerPoolMetrics(rule, compiled, sessionPool);
+            }
+            compiled.onClose(lease::release);
+        } catch (RuntimeException e) {
+            lease.release();
+            throw e;
+        }
+
+        Timer.builder("policyengine.rule.compile")
+                .description("KieBase builds, on cache misses and before rule changes are published")
+                .tag("policyType", rule.getPolicyType())
+                .tag("source", lease.source().name())
+                .tag("mode", rule.getCompileMode().name())
+                .register(meterRegistry)
+                .record(elapsed, TimeUnit.NANOSECONDS);
+        String action = switch (lease.source()) {
+            case ARTIFACT -> "Loaded stored artifact of";
+            case SHARED -> "Reused shared KieBase " + lease.contentHash() + " for";
+            case COMPILED -> "Compiled";
+        };
+        log.info("{} rule {} v{} ({}, {}) in {}ms", action, rule.getId(), rule.getVersion(), rule.getPolicyType(),
+                rule.getCompileMode(), compiled.getBuildMs());
+        return compiled;
+    }
+
+    /** Caches a {@link #build} result under {@code rule}'s (id, version), replacing any entry. */
+    @CachePut(value = "kieBases", key = "#rule.id + '-' + #rule.version")
+    public CompiledRule install(RuleSnapshot rule, CompiledRule compiled) {
+        return compiled;
     }
 
     @CacheEvict(value = "kieBases", key = "#ruleId + '-' + #oldVersion")
     public void evictCache(UUID ruleId, int oldVersion) {
-        // Cache entry removed; next evaluation triggers recompilation
+        // Cache entry removed (closing its session pool); next evaluation triggers recompilation
+    }
+
+    private void registerPoolMetrics(RuleSnapshot rule, CompiledRule compiled, KieSessionPool pool) {
+        Tags tags = Tags.of(
+                "policyType", rule.getPolicyType(),
+                "ruleId", String.valueOf(rule.getId()),
+                "version", String.valueOf(rule.getVersion()));
+
+        List<Meter> meters = List.of(
+                Gauge.builder("policyengine.session.pool.idle", pool, KieSessionPool::getIdle)
+                        .description("Idle pooled KieSessions")
+                        .tags(tags)
+                        .register(meterRegistry),
+                Gauge.builder("policyengine.session.pool.capacity", pool, KieSessionPool::getCapacity)
+                        .description("Maximum idle KieSessions kept per KieBase")
+                        .tags(tags)
+                        .register(meterRegistry),
+                FunctionCounter.builder("policyengine.session.pool.requests", pool, KieSessionPool::getHits)
+                        .description("Session borrows served from the pool")
+                        .tags(tags.and("result", "hit"))
+                        .register(meterRegistry),
+                FunctionCounter.builder("policyengine.session.pool.requests", pool, KieSessionPool::getMisses)
+                        .description("Session borrows that built a new session")
+                        .tags(tags.and("result", "miss"))
+                        .register(meterRegistry),
+                FunctionCounter.builder("policyengine.session.pool.discarded", pool, KieSessionPool::getDiscarded)
+                        .description("Sessions disposed on release instead of being pooled")
+                        .tags(tags)
+                        .register(meterRegistry));
+
+        compiled.onClose(() -> meters.forEach(meterRegistry::remove));
     }
 }
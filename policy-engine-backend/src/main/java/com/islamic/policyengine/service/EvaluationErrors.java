@@ -0,0 +1,50 @@
+package com.islamic.policyengine.service;
+
+import com.islamic.policyengine.exception.PolicyNotFoundException;
+import com.islamic.policyengine.exception.RuleFiringLimitException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Error codes and messages for evaluations reported inside a 200 response (batch items, stream
+ * lines, fan-out policies), matching what {@code GlobalExceptionHandler} returns for a single
+ * evaluation.
+ */
+@Slf4j
+final class EvaluationErrors {
+
+    private EvaluationErrors() {
+    }
+
+    static String code(RuntimeException e) {
+        if (e instanceof PolicyNotFoundException) {
+            return "POLICY_NOT_FOUND";
+        }
+        if (e instanceof RuleFiringLimitException) {
+            return "RULE_FIRING_LIMIT_EXCEEDED";
+        }
+        if (e instanceof ResponseStatusException) {
+            return ((ResponseStatusException) e).getStatus() == HttpStatus.SERVICE_UNAVAILABLE
+                    ? "EVALUATION_REJECTED" : "EVALUATION_TIMEOUT";
+        }
+        if (e instanceof IllegalArgumentException) {
+            return "VALIDATION_ERROR";
+        }
+        return "INTERNAL_ERROR";
+    }
+
+    /**
+     * Unexpected failures are logged here and reported with a generic message.
+     */
+    static String message(RuntimeException e) {
+        if (e instanceof ResponseStatusException) {
+            return ((ResponseStatusException) e).getReason();
+        }
+        if ("INTERNAL_ERROR".equals(code(e))) {
+            log.error("Evaluation failed", e);
+            return "An unexpected error occurred";
+        }
+        return e.getMessage();
+    }
+}
@@ -0,0 +1,219 @@
+package com.islamic.policyengine.service;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.islamic.policyengine.model.dto.EvaluationResponse;
+import com.islamic.policyengine.model.snapshot.RuleSnapshot;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Opt-in cache of evaluation results for the policy types listed in
+ * {@code policy-engine.result-cache.policies}.
+ *
+ * <p>A compiled rule is a pure function of its version (DRL and parameters) and its input, so
+ * results are keyed by rule id, version and {@link FactBindingPlan#inputFingerprint}. A new
+ * rule version therefore never sees old entries; the first request for it also drops the
+ * policy's previous entries. Which rule is current is decided by the registry's
+ * {@link RuleSnapshot#getActivation() activation} order, so a request still holding the
+ * snapshot from before a swap cannot make the old rule current again. Concurrent requests for
+ * the same key share one in-flight evaluation. Failed evaluations are not cached.</p>
+ *
+ * <p>Responses served without running the rule (hits and coalesced requests) are flagged
+ * {@code cacheHit}, so the audit log and the rollups keep them out of the latency figures.</p>
+ */
+@Slf4j
+@Component
+public class EvaluationResultCache {
+
+    private final Set<String> policies;
+    private final long maxSize;
+    private final Duration ttl;
+    private final Ticker ticker;
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentMap<String, PolicyResults> caches = new ConcurrentHashMap<>();
+
+    @Autowired
+    public EvaluationResultCache(@Value("${policy-engine.result-cache.policies:}") Set<String> policies,
+                                 @Value("${policy-engine.result-cache.max-size:10000}") long maxSize,
+                                 @Value("${policy-engine.result-cache.ttl-seconds:300}") long ttlSeconds,
+                                 MeterRegistry meterRegistry) {
+        this(policies, maxSize, ttlSeconds, meterRegistry, Ticker.systemTicker());
+    }
+
+    EvaluationResultCache(Set<String> policies, long maxSize, long ttlSeconds, MeterRegistry meterRegistry,
+                          Ticker ticker) {
+        this.ticker = ticker;
+        this.policies = Set.copyOf(policies);
+        this.maxSize = maxSize;
+        this.ttl = Duration.ofSeconds(ttlSeconds);
+        this.meterRegistry = meterRegistry;
+        if (!this.policies.isEmpty()) {
+            log.info("Result cache enabled for {} (max {} entries per policy, ttl {})", this.policies, maxSize, ttl);
+        }
+    }
+
+    public boolean isEnabled(String policyType) {
+        return policies.contains(policyType);
+    }
+
+    /**
+     * Returns the cached response for {@code rule} and {@code inputFingerprint}, running
+     * {@code evaluation} only if no entry exists and none is in flight. Cached responses are
+     * returned with {@code cacheHit} set, {@code evaluationMs} 0 and a fresh timestamp.
+     */
+    public EvaluationResponse get(RuleSnapshot rule, String inputFingerprint, Supplier<EvaluationResponse> evaluation) {
+        PolicyResults results = caches.computeIfAbsent(rule.getPolicyType(), this::newPolicyResults);
+        results.onActivation(rule);
+
+        ResultKey key = new ResultKey(rule.getId(), rule.getVersion(), inputFingerprint);
+        CompletableFuture<EvaluationResponse> computing = new CompletableFuture<>();
+        CompletableFuture<EvaluationResponse> existing = results.cache.asMap().putIfAbsent(key, computing);
+
+        if (existing == null) {
+            results.misses.increment();
+            try {
+                EvaluationResponse response = evaluation.get();
+                response.setResult(freeze(response.getResult()));
+                computing.complete(response);
+                return response;
+            } catch (RuntimeException | Error e) {
+                // Caffeine drops exceptionally completed futures, so the next request retries
+                computing.completeExceptionally(e);
+                throw e;
+            }
+        }
+
+        if (existing.isDone()) {
+            results.hits.increment();
+        } else {
+            results.coalesced.increment();
+        }
+        return fromCache(join(existing));
+    }
+
+    private static EvaluationResponse join(CompletableFuture<EvaluationResponse> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private static EvaluationResponse fromCache(EvaluationResponse cached) {
+        return EvaluationResponse.builder()
+                .policyType(cached.getPolicyType())
+                .ruleId(cached.getRuleId())
+                .ruleVersion(cached.getRuleVersion())
+                .result(cached.getResult())
+                .evaluationMs(0L)
+                .cacheHit(true)
+                .timestamp(LocalDateTime.now())
+                .build();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Object freeze(Object result) {
+        return result instanceof Map ? Collections.unmodifiableMap((Map<String, Object>) result) : result;
+    }
+
+    private PolicyResults newPolicyResults(String policyType) {
+        PolicyResults results = new PolicyResults(Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .ticker(ticker)
+                .buildAsync());
+
+        Tags tags = Tags.of("policyType", policyType);
+        FunctionCounter.builder("policyengine.result.cache.requests", results.hits, LongAdder::sum)
+                .description("Evaluations answered from a cached result")
+                .tags(tags.and("result", "hit"))
+                .register(meterRegistry);
+        FunctionCounter.builder("policyengine.result.cache.requests", results.coalesced, LongAdder::sum)
+                .description("Evaluations that waited on an identical in-flight evaluation")
+                .tags(tags.and("result", "coalesced"))
+                .register(meterRegistry);
+        FunctionCounter.builder("policyengine.result.cache.requests", results.misses, LongAdder::sum)
+                .description("Evaluations that ran the rule")
+                .tags(tags.and("result", "miss"))
+                .register(meterRegistry);
+        Gauge.builder("policyengine.result.cache.hit.ratio", results, PolicyResults::hitRatio)
+                .description("Share of evaluations not running the rule (hits and coalesced)")
+                .tags(tags)
+                .register(meterRegistry);
+        Gauge.builder("policyengine.result.cache.size", results, r -> r.cache.synchronous().estimatedSize())
+                .description("Cached results")
+                .tags(tags)
+                .register(meterRegistry);
+        return results;
+    }
+
+    private record ResultKey(UUID ruleId, int version, String inputFingerprint) {
+    }
+
+    private static final class PolicyResults {
+
+        private final AsyncCache<ResultKey, EvaluationResponse> cache;
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder coalesced = new LongAdder();
+        private final LongAdder misses = new LongAdder();
+        private volatile long activation;
+        private UUID ruleId;
+        private int version;
+
+        PolicyResults(AsyncCache<ResultKey, EvaluationResponse> cache) {
+            this.cache = cache;
+        }
+
+        /**
+         * Drops the entries of the previous rule version once a later activation of a different
+         * rule or version shows up. Snapshots from an earlier activation, or from outside the
+         * registry (activation 0), never move it back.
+         */
+        void onActivation(RuleSnapshot rule) {
+            if (rule.getActivation() <= activation) {
+                return;
+            }
+            synchronized (this) {
+                if (rule.getActivation() <= activation) {
+                    return;
+                }
+                if (ruleId != null && (!ruleId.equals(rule.getId()) || version != rule.getVersion())) {
+                    cache.synchronous().invalidateAll();
+                }
+                ruleId = rule.getId();
+                version = rule.getVersion();
+                activation = rule.getActivation();
+            }
+        }
+
+        double hitRatio() {
+            long served = hits.sum() + coalesced.sum();
+            long total = served + misses.sum();
+            return total == 0 ? 0.0 : (double) served / total;
+        }
+    }
+}
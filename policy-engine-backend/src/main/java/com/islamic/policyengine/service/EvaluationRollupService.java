@@ -0,0 +1,281 @@
+package com.islamic.policyengine.service;
+
+import com.islamic.policyengine.model.dto.EvaluationStatsBucket;
+import com.islamic.policyengine.model.dto.EvaluationStatsResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Per-minute evaluation rollups in {@code evaluation_rollup_minute} (changelog 008): count,
+ * latency histogram and outcome per policy type, rule and rule version.
+ *
+ * <p>{@link AuditWriter} hands every batch to {@link #record} inside the transaction that
+ * inserts its audit rows; it folds the batch into one upsert per minute and key. The rollups
+ * therefore move with the audit log, commit for commit. Stats are read from the rollups only;
+ * a 30-day query touches at most 43,200 minute rows per key instead of every audit row.</p>
+ *
+ * <p>Result-cache hits count in {@code evaluations} and {@code cache_hits} but not in the latency
+ * histogram, sum or max: their {@code evaluation_ms} of 0 is not a rule latency, and averages and
+ * percentiles cover evaluations that ran the rule.</p>
+ */
+@Slf4j
+@Service
+public class EvaluationRollupService {
+
+    public enum StatsInterval {
+        MINUTE(ChronoUnit.MINUTES),
+        HOUR(ChronoUnit.HOURS),
+        DAY(ChronoUnit.DAYS);
+
+        private final ChronoUnit unit;
+
+        StatsInterval(ChronoUnit unit) {
+            this.unit = unit;
+        }
+    }
+
+    static final int MAX_OUTCOME_LENGTH = 100;
+
+    private static final int MAX_BUCKETS = 10_000;
+
+    private static final Comparator<RollupKey> KEY_ORDER = Comparator.comparing(RollupKey::bucket)
+            .thenComparing(RollupKey::policyType)
+            .thenComparing(RollupKey::ruleId)
+            .thenComparingInt(RollupKey::ruleVersion)
+            .thenComparing(RollupKey::outcome);
+
+    private static final String UPSERT_SQL = upsertSql();
+
+    private static final String STATS_SQL_PREFIX = "SELECT date_trunc(?::text, bucket) AS period, outcome, "
+            + "sum(evaluations) AS evaluations, sum(cache_hits) AS cache_hits, sum(latency_sum_ms) AS latency_sum_ms, "
+            + "max(latency_max_ms) AS latency_max_ms, " + sumColumns() + " "
+            + "FROM evaluation_rollup_minute WHERE bucket >= ? AND bucket < ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int retentionDays;
+
+    public EvaluationRollupService(JdbcTemplate jdbcTemplate,
+                                   @Value("${policy-engine.rollup.retention-days:400}") int retentionDays) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.retentionDays = retentionDays;
+    }
+
+    /**
+     * Adds {@code records} to their minute rollups. Keys are upserted in a fixed order so
+     * concurrent writers (several instances) cannot deadlock on each other's rows.
+     */
+    void record(List<AuditRecord> records) {
+        Map<RollupKey, Rollup> rollups = new TreeMap<>(KEY_ORDER);
+        for (AuditRecord record : records) {
+            if (record.getRuleId() == null || record.getRuleVersion() == null) {
+                continue;
+            }
+            RollupKey key = new RollupKey(record.getCreatedAt().truncatedTo(ChronoUnit.MINUTES),
+                    record.getPolicyType(), record.getRuleId(), record.getRuleVersion(),
+                    outcome(record.getOutputData()));
+            Rollup rollup = rollups.computeIfAbsent(key, k -> new Rollup());
+            if (record.isCacheHit()) {
+                rollup.cacheHits++;
+            } else {
+                rollup.latency.record(record.getEvaluationMs());
+            }
+        }
+        if (rollups.isEmpty()) {
+            return;
+        }
+
+        List<Object[]> rows = new ArrayList<>(rollups.size());
+        rollups.forEach((key, rollup) -> {
+            LatencyHistogram histogram = rollup.latency;
+            long[] counts = histogram.counts();
+            Object[] row = new Object[9 + counts.length];
+            row[0] = Timestamp.valueOf(key.bucket());
+            row[1] = key.policyType();
+            row[2] = key.ruleId();
+            row[3] = key.ruleVersion();
+            row[4] = key.outcome();
+            row[5] = histogram.total() + rollup.cacheHits;
+            row[6] = rollup.cacheHits;
+            row[7] = histogram.sum();
+            row[8] = histogram.max();
+            for (int i = 0; i < counts.length; i++) {
+                row[9 + i] = counts[i];
+            }
+            rows.add(row);
+        });
+        jdbcTemplate.batchUpdate(UPSERT_SQL, rows);
+    }
+
+    /**
+     * The boolean fields of an evaluation result, sorted by name ({@code allowed=false},
+     * {@code eligible=true,requiresReview=false}), or {@code -} if there are none. Changelog
+     * 008 derives the same value when backfilling from existing audit rows.
+     */
+    static String outcome(Object outputData) {
+        if (!(outputData instanceof Map<?, ?> result)) {
+            return "-";
+        }
+        Map<String, Object> booleans = new TreeMap<>();
+        result.forEach((field, value) -> {
+            if (value instanceof Boolean) {
+                booleans.put(String.valueOf(field), value);
+            }
+        });
+        StringJoiner outcome = new StringJoiner(",");
+        booleans.forEach((field, value) -> outcome.add(field + "=" + value));
+        String joined = outcome.length() == 0 ? "-" : outcome.toString();
+        return joined.length() > MAX_OUTCOME_LENGTH ? joined.substring(0, MAX_OUTCOME_LENGTH) : joined;
+    }
+
+    public EvaluationStatsResponse stats(String policyType, UUID ruleId, LocalDateTime from, LocalDateTime to,
+                                         StatsInterval interval) {
+        if (!from.isBefore(to)) {
+            throw new IllegalArgumentException("from must be before to");
+        }
+        LocalDateTime start = from.truncatedTo(interval.unit);
+        if (interval.unit.between(start, to) > MAX_BUCKETS) {
+            throw new IllegalArgumentException("Range spans more than " + MAX_BUCKETS + " "
+                    + interval.name().toLowerCase() + " buckets; use a coarser interval");
+        }
+
+        StringBuilder sql = new StringBuilder(STATS_SQL_PREFIX);
+        List<Object> parameters = new ArrayList<>(List.of(interval.name().toLowerCase(),
+                Timestamp.valueOf(start), Timestamp.valueOf(to)));
+        if (policyType != null) {
+            sql.append(" AND policy_type = ?");
+            parameters.add(policyType);
+        }
+        if (ruleId != null) {
+            sql.append(" AND rule_id = ?");
+            parameters.add(ruleId);
+        }
+        sql.append(" GROUP BY period, outcome ORDER BY period");
+
+        Map<LocalDateTime, Period> periods = new LinkedHashMap<>();
+        Period summary = new Period();
+        jdbcTemplate.query(sql.toString(), rs -> {
+            long[] counts = new long[LatencyHistogram.COLUMNS.length];
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] = rs.getLong(LatencyHistogram.COLUMNS[i]);
+            }
+            long evaluations = rs.getLong("evaluations");
+            long cacheHits = rs.getLong("cache_hits");
+            long latencySum = rs.getLong("latency_sum_ms");
+            int latencyMax = rs.getInt("latency_max_ms");
+            String outcome = rs.getString("outcome");
+
+            Period period = periods.computeIfAbsent(rs.getTimestamp("period").toLocalDateTime(), p -> new Period());
+            period.add(outcome, evaluations, cacheHits, counts, latencySum, latencyMax);
+            summary.add(outcome, evaluations, cacheHits, counts, latencySum, latencyMax);
+        }, parameters.toArray());
+
+        long intervalSeconds = interval.unit.getDuration().getSeconds();
+        List<EvaluationStatsBucket> buckets = new ArrayList<>(periods.size());
+        periods.forEach((bucket, period) -> buckets.add(period.toBucket(bucket, intervalSeconds)));
+
+        return EvaluationStatsResponse.builder()
+                .policyType(policyType)
+                .ruleId(ruleId)
+                .from(start)
+                .to(to)
+                .interval(interval.name())
+                .summary(summary.toBucket(start, Math.max(1, Duration.between(start, to).getSeconds())))
+                .buckets(buckets)
+                .build();
+    }
+
+    @Scheduled(cron = "${policy-engine.rollup.purge-cron:0 30 0 * * *}")
+    public void purge() {
+        if (retentionDays <= 0) {
+            return;
+        }
+        int deleted = jdbcTemplate.update("DELETE FROM evaluation_rollup_minute WHERE bucket < ?",
+                Timestamp.valueOf(LocalDateTime.now().truncatedTo(ChronoUnit.DAYS).minusDays(retentionDays)));
+        if (deleted > 0) {
+            log.info("Purged {} evaluation rollup rows older than {} days", deleted, retentionDays);
+        }
+    }
+
+    private static String upsertSql() {
+        String buckets = String.join(", ", LatencyHistogram.COLUMNS);
+        StringBuilder sql = new StringBuilder("INSERT INTO evaluation_rollup_minute "
+                + "(bucket, policy_type, rule_id, rule_version, outcome, evaluations, cache_hits, latency_sum_ms, "
+                + "latency_max_ms, ")
+                .append(buckets)
+                .append(") VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?")
+                .append(", ?".repeat(LatencyHistogram.COLUMNS.length))
+                .append(") ON CONFLICT (bucket, policy_type, rule_id, rule_version, outcome) DO UPDATE SET ")
+                .append("evaluations = evaluation_rollup_minute.evaluations + EXCLUDED.evaluations, ")
+                .append("cache_hits = evaluation_rollup_minute.cache_hits + EXCLUDED.cache_hits, ")
+                .append("latency_sum_ms = evaluation_rollup_minute.latency_sum_ms + EXCLUDED.latency_sum_ms, ")
+                .append("latency_max_ms = GREATEST(evaluation_rollup_minute.latency_max_ms, EXCLUDED.latency_max_ms)");
+        for (String column : LatencyHistogram.COLUMNS) {
+            sql.append(", ").append(column).append(" = evaluation_rollup_minute.").append(column)
+                    .append(" + EXCLUDED.").append(column);
+        }
+        return sql.toString();
+    }
+
+    private static String sumColumns() {
+        StringJoiner sums = new StringJoiner(", ");
+        for (String column : LatencyHistogram.COLUMNS) {
+            sums.add("sum(" + column + ") AS " + column);
+        }
+        return sums.toString();
+    }
+
+    private record RollupKey(LocalDateTime bucket, String policyType, UUID ruleId, int ruleVersion, String outcome) {
+    }
+
+    private static final class Rollup {
+
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private long cacheHits;
+    }
+
+    private static final class Period {
+
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private final Map<String, Long> outcomes = new TreeMap<>();
+        private long evaluations;
+        private long cacheHits;
+
+        void add(String outcome, long evaluations, long cacheHits, long[] counts, long latencySum, int latencyMax) {
+            latency.add(counts, latencySum, latencyMax);
+            outcomes.merge(outcome, evaluations, Long::sum);
+            this.evaluations += evaluations;
+            this.cacheHits += cacheHits;
+        }
+
+        EvaluationStatsBucket toBucket(LocalDateTime bucket, long seconds) {
+            return EvaluationStatsBucket.builder()
+                    .bucket(bucket)
+                    .evaluations(evaluations)
+                    .cacheHits(cacheHits)
+                    .throughputPerSecond((double) evaluations / seconds)
+                    .avgMs(latency.mean())
+                    .maxMs(latency.max())
+                    .p50Ms(latency.percentile(0.50))
+                    .p95Ms(latency.percentile(0.95))
+                    .p99Ms(latency.percentile(0.99))
+                    .outcomes(outcomes)
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,318 @@
+package com.islamic.policyengine.service;
+
+import com.islamic.policyengine.model.enums.FieldType;
+import com.islamic.policyengine.model.snapshot.RuleFieldSnapshot;
+import com.islamic.policyengine.model.snapshot.RuleParameterSnapshot;
+import com.islamic.policyengine.model.snapshot.RuleSnapshot;
+import lombok.extern.slf4j.Slf4j;
+import org.kie.api.KieBase;
+import org.kie.api.definition.KiePackage;
+import org.kie.api.definition.rule.Global;
+import org.kie.api.definition.type.FactField;
+import org.kie.api.definition.type.FactType;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+/**
+ * How request data is bound onto a rule's declared fact type and read back, compiled once per
+ * (rule id, version).
+ *
+ * <p>Field categories, converters and accessors are resolved up front into parallel arrays;
+ * accessors are {@link MethodHandle}s on the generated getters/setters, so the hot path does no
+ * string comparison, no stream and no {@link FactType} reflection. Globals are cast once and
+ * limited to the globals the KieBase actually declares.</p>
+ */
+@Slf4j
+public final class FactBindingPlan {
+
+    static final String RULES_PACKAGE = "com.islamic.policyengine.rules";
+
+    private static final MethodType CONSTRUCTOR_TYPE = MethodType.methodType(Object.class);
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+
+    private final MethodHandle constructor;
+
+    private final String[] inputNames;
+    private final FieldType[] inputTypes;
+    private final MethodHandle[] setters;
+
+    private final String[] resultNames;
+    private final MethodHandle[] getters;
+
+    private final String[] globalNames;
+    private final Object[] globalValues;
+
+    private FactBindingPlan(MethodHandle constructor,
+                            String[] inputNames, FieldType[] inputTypes, MethodHandle[] setters,
+                            String[] resultNames, MethodHandle[] getters,
+                            String[] globalNames, Object[] globalValues) {
+        this.constructor = constructor;
+        this.inputNames = inputNames;
+        this.inputTypes = inputTypes;
+        this.setters = setters;
+        this.resultNames = resultNames;
+        this.getters = getters;
+        this.globalNames = globalNames;
+        this.globalValues = globalValues;
+    }
+
+    /**
+     * @return the plan, or {@code null} when the rule has no declared fact type in the KieBase
+     */
+    public static FactBindingPlan compile(KieBase kieBase, RuleSnapshot rule) {
+        FactType factType = rule.getFactTypeName() != null
+                ? kieBase.getFactType(RULES_PACKAGE, rule.getFactTypeName())
+                : null;
+        if (factType == null) {
+            return null;
+        }
+
+        Class<?> factClass = factType.getFactClass();
+        MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+
+        List<RuleFieldSnapshot> inputs = rule.getInputFields();
+        String[] inputNames = new String[inputs.size()];
+        FieldType[] inputTypes = new FieldType[inputs.size()];
+        MethodHandle[] setters = new MethodHandle[inputs.size()];
+        for (int i = 0; i < inputs.size(); i++) {
+            RuleFieldSnapshot field = inputs.get(i);
+            inputNames[i] = field.getFieldName();
+            inputTypes[i] = FieldType.of(field.getFieldType());
+            setters[i] = setter(lookup, factType, factClass, field.getFieldName());
+        }
+
+        List<RuleFieldSnapshot> results = rule.getResultFields();
+        String[] resultNames = new String[results.size()];
+        MethodHandle[] getters = new MethodHandle[results.size()];
+        for (int i = 0; i < results.size(); i++) {
+            RuleFieldSnapshot field = results.get(i);
+            resultNames[i] = field.getFieldName();
+            getters[i] = getter(lookup, factType, factClass, field.getFieldName());
+        }
+
+        Set<String> declaredGlobals = new HashSet<>();
+        for (KiePackage kiePackage : kieBase.getKiePackages()) {
+            for (Global global : kiePackage.getGlobalVariables()) {
+                declaredGlobals.add(global.getName());
+            }
+        }
+        List<String> globalNames = new ArrayList<>();
+        List<Object> globalValues = new ArrayList<>();
+        for (RuleParameterSnapshot param : rule.getParameters()) {
+            if (declaredGlobals.contains(param.getParamKey())) {
+                globalNames.add(param.getParamKey());
+                globalValues.add(castParameterValue(param));
+            } else {
+                log.debug("Parameter '{}' of rule {} is not a declared global", param.getParamKey(), rule.getId());
+            }
+        }
+
+        return new FactBindingPlan(constructor(lookup, factType, factClass),
+                inputNames, inputTypes, setters, resultNames, getters,
+                globalNames.toArray(new String[0]), globalValues.toArray());
+    }
+
+    /**
+     * Creates a fact and binds every declared INPUT field present in {@code data}.
+     */
+    public Object newFact(Map<String, Object> data) {
+        try {
+            Object fact = (Object) constructor.invokeExact();
+            if (data != null) {
+                for (int i = 0; i < inputNames.length; i++) {
+                    Object rawValue = data.get(inputNames[i]);
+                    if (rawValue != null) {
+                        setters[i].invokeExact(fact, inputTypes[i].convert(rawValue));
+                    }
+                }
+            }
+            return fact;
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException("Failed to bind input fields", e);
+        }
+    }
+
+    /**
+     * Projects {@code data} onto the declared INPUT fields, dropping keys the rule does not use.
+     */
+    public Map<String, Object> selectInputs(Map<String, Object> data) {
+        Map<String, Object> inputs = new LinkedHashMap<>(inputNames.length * 2);
+        if (data != null) {
+            for (String name : inputNames) {
+                Object value = data.get(name);
+                if (value != null) {
+                    inputs.put(name, value);
+                }
+            }
+        }
+        return inputs;
+    }
+
+    /**
+     * SHA-256 over the declared INPUT fields of {@code data} after type conversion, so inputs the
+     * rule would bind identically hash identically: undeclared keys are ignored, a missing key
+     * equals a null value, {@code "3000000"} equals {@code 3000000}, and decimals are compared
+     * without trailing zeros ({@code 10.50} equals {@code 10.5}).
+     */
+    public String inputFingerprint(Map<String, Object> data) {
+        MessageDigest digest = sha256();
+        for (int i = 0; i < inputNames.length; i++) {
+            update(digest, inputNames[i]);
+            Object rawValue = data != null ? data.get(inputNames[i]) : null;
+            if (rawValue == null) {
+                digest.update((byte) 0);
+            } else {
+                digest.update((byte) 1);
+                updateValue(digest, inputTypes[i].convert(rawValue));
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * Reads every declared RESULT field, in field order.
+     */
+    public Map<String, Object> readResult(Object fact) {
+        Map<String, Object> result = new LinkedHashMap<>(resultNames.length * 2);
+        try {
+            for (int i = 0; i < resultNames.length; i++) {
+                result.put(resultNames[i], (Object) getters[i].invokeExact(fact));
+            }
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException("Failed to read result fields", e);
+        }
+        return result;
+    }
+
+    public void applyGlobals(BiConsumer<String, Object> globals) {
+        for (int i = 0; i < globalNames.length; i++) {
+            globals.accept(globalNames[i], globalValues[i]);
+        }
+    }
+
+    private static MethodHandle constructor(MethodHandles.Lookup lookup, FactType factType, Class<?> factClass) {
+        try {
+            return lookup.findConstructor(factClass, MethodType.methodType(void.class)).asType(CONSTRUCTOR_TYPE);
+        } catch (ReflectiveOperationException e) {
+            log.debug("No public constructor on {}, falling back to FactType", factClass.getName());
+            return bind(lookup, factType, "newInstance", MethodType.methodType(Object.class)).asType(CONSTRUCTOR_TYPE);
+        }
+    }
+
+    private static MethodHandle setter(MethodHandles.Lookup lookup, FactType factType, Class<?> factClass, String name) {
+        FactField field = factType.getField(name);
+        try {
+            if (field == null) {
+                // Unknown field: keep FactType's own error, raised only when a value is bound
+                throw new NoSuchFieldException(name);
+            }
+            return lookup.findVirtual(factClass, "set" + capitalize(name),
+                    MethodType.methodType(void.class, field.getType())).asType(SETTER_TYPE);
+        } catch (ReflectiveOperationException e) {
+            log.debug("No setter for '{}' on {}, falling back to FactType", name, factClass.getName());
+            MethodHandle set = bind(lookup, factType, "set",
+                    MethodType.methodType(void.class, Object.class, String.class, Object.class));
+            return MethodHandles.insertArguments(set, 1, name).asType(SETTER_TYPE);
+        }
+    }
+
+    private static MethodHandle getter(MethodHandles.Lookup lookup, FactType factType, Class<?> factClass, String name) {
+        FactField field = factType.getField(name);
+        try {
+            if (field == null) {
+                throw new NoSuchFieldException(name);
+            }
+            String prefix = field.getType() == boolean.class ? "is" : "get";
+            return lookup.findVirtual(factClass, prefix + capitalize(name),
+                    MethodType.methodType(field.getType())).asType(GETTER_TYPE);
+        } catch (ReflectiveOperationException e) {
+            log.debug("No getter for '{}' on {}, falling back to FactType", name, factClass.getName());
+            MethodHandle get = bind(lookup, factType, "get",
+                    MethodType.methodType(Object.class, Object.class, String.class));
+            return MethodHandles.insertArguments(get, 1, name).asType(GETTER_TYPE);
+        }
+    }
+
+    private static MethodHandle bind(MethodHandles.Lookup lookup, FactType factType, String method, MethodType type) {
+        try {
+            return lookup.findVirtual(FactType.class, method, type).bindTo(factType);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("FactType." + method + " is not accessible", e);
+        }
+    }
+
+    private static Object castParameterValue(RuleParameterSnapshot param) {
+        String type = param.getParamType().toUpperCase();
+        String value = param.getParamValue();
+
+        switch (type) {
+            case "DECIMAL":
+                return new BigDecimal(value);
+            case "INTEGER":
+                return Integer.parseInt(value);
+            case "STRING":
+                return value;
+            case "BOOLEAN":
+                return Boolean.parseBoolean(value);
+            default:
+                return value;
+        }
+    }
+
+    private static void updateValue(MessageDigest digest, Object value) {
+        if (value instanceof List) {
+            List<?> values = (List<?>) value;
+            update(digest, "list:" + values.size());
+            for (Object element : values) {
+                update(digest, String.valueOf(element));
+            }
+        } else if (value instanceof BigDecimal) {
+            update(digest, ((BigDecimal) value).stripTrailingZeros().toPlainString());
+        } else {
+            update(digest, String.valueOf(value));
+        }
+    }
+
+    /**
+     * Length-prefixed, so adjacent values cannot run into each other.
+     */
+    private static void update(MessageDigest digest, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        digest.update((byte) (bytes.length >>> 24));
+        digest.update((byte) (bytes.length >>> 16));
+        digest.update((byte) (bytes.length >>> 8));
+        digest.update((byte) bytes.length);
+        digest.update(bytes);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static String capitalize(String name) {
+        return name.substring(0, 1).toUpperCase() + name.substring(1);
+    }
+}
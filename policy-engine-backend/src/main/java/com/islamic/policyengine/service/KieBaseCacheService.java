@@ -0,0 +1,195 @@
+package com.islamic.policyengine.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.islamic.policyengine.model.dto.KieBaseEntryDto;
+import com.islamic.policyengine.model.snapshot.RuleSnapshot;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Inspects and manages the {@code kieBases} cache of {@link DroolsEngineService}.
+ *
+ * <p>Once the application is ready, every active rule is compiled in parallel (at most one
+ * build per core, or {@code warm-up.parallelism}) before the readiness state switches to
+ * {@code ACCEPTING_TRAFFIC}: Spring Boot publishes it only after the
+ * {@link ApplicationReadyEvent} listeners return. A build that fails or outlasts
+ * {@code warm-up.timeout-seconds} is logged and left to the first evaluation, so one broken
+ * rule never keeps the instance out of rotation.</p>
+ */
+@Slf4j
+@Service
+public class KieBaseCacheService {
+
+    private static final String CACHE_NAME = "kieBases";
+
+    private final DroolsEngineService droolsEngineService;
+    private final ActivePolicyRegistry activePolicyRegistry;
+    private final CacheManager cacheManager;
+    private final boolean warmUpEnabled;
+    private final int parallelism;
+    private final long timeoutSeconds;
+
+    public KieBaseCacheService(DroolsEngineService droolsEngineService,
+                               ActivePolicyRegistry activePolicyRegistry,
+                               CacheManager cacheManager,
+                               @Value("${policy-engine.warm-up.enabled:true}") boolean warmUpEnabled,
+                               @Value("${policy-engine.warm-up.parallelism:0}") int parallelism,
+                               @Value("${policy-engine.warm-up.timeout-seconds:120}") long timeoutSeconds) {
+        this.droolsEngineService = droolsEngineService;
+        this.activePolicyRegistry = activePolicyRegistry;
+        this.cacheManager = cacheManager;
+        this.warmUpEnabled = warmUpEnabled;
+        this.parallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        this.timeoutSeconds = timeoutSeconds;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUpOnStartup() {
+        if (!warmUpEnabled) {
+            return;
+        }
+        long start = System.nanoTime();
+        List<KieBaseEntryDto> results = warmUp(null);
+        long failed = results.stream().filter(result -> result.getError() != null).count();
+        long fromArtifacts = count(results, RuleArtifactService.Source.ARTIFACT);
+        long shared = count(results, RuleArtifactService.Source.SHARED);
+        log.info("Warmed up {} of {} active rules in {}ms ({} from stored artifacts, {} shared, {} compiled)",
+                results.size() - failed, results.size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start),
+                fromArtifacts, shared, results.size() - failed - fromArtifacts - shared);
+    }
+
+    /** Cached entries, active rules first. */
+    public List<KieBaseEntryDto> getEntries() {
+        Map<String, RuleSnapshot> active = activePolicyRegistry.getAll();
+        List<KieBaseEntryDto> entries = new ArrayList<>();
+        nativeCache().asMap().forEach((key, value) -> {
+            String text = key.toString();
+            int separator = text.lastIndexOf('-');
+            UUID ruleId = UUID.fromString(text.substring(0, separator));
+            int version = Integer.parseInt(text.substring(separator + 1));
+            RuleSnapshot rule = active.values().stream()
+                    .filter(candidate -> candidate.getId().equals(ruleId) && candidate.getVersion() == version)
+                    .findFirst()
+                    .orElse(null);
+            CompiledRule compiled = (CompiledRule) value;
+            entries.add(KieBaseEntryDto.builder()
+                    .ruleId(ruleId)
+                    .version(version)
+                    .policyType(rule != null ? rule.getPolicyType() : null)
+                    .active(rule != null)
+                    .stateless(compiled.isStateless())
+                    .sequential(compiled.isSequential())
+                    .idleSessions(compiled.getSessionPool() != null ? compiled.getSessionPool().getIdle() : null)
+                    .source(compiled.getSource().name())
+                    .contentHash(compiled.getContentHash())
+                    .compileMs(compiled.getBuildMs())
+                    .build());
+        });
+        entries.sort(Comparator.comparing(KieBaseEntryDto::isActive).reversed()
+                .thenComparing(entry -> String.valueOf(entry.getPolicyType())));
+        return entries;
+    }
+
+    /**
+     * Compiles the active rule of {@code policyType}, or of every policy type when null, unless
+     * it is already cached. Returns one entry per rule with how its cache entry was built and
+     * how long that took, or the error.
+     */
+    public List<KieBaseEntryDto> warmUp(String policyType) {
+        List<RuleSnapshot> rules = activePolicyRegistry.getAll().values().stream()
+                .filter(rule -> policyType == null || rule.getPolicyType().equals(policyType))
+                .toList();
+        if (policyType != null && rules.isEmpty()) {
+            throw new IllegalArgumentException("No active rule for policy type " + policyType);
+        }
+        if (rules.isEmpty()) {
+            return List.of();
+        }
+
+        AtomicInteger threadCount = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(parallelism, rules.size()), task -> {
+            Thread thread = new Thread(task, "kiebase-warm-up-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Callable<CompiledRule>> builds = rules.stream()
+                    .<Callable<CompiledRule>>map(rule -> () -> droolsEngineService.compileRule(rule))
+                    .toList();
+            List<Future<CompiledRule>> futures = executor.invokeAll(builds, timeoutSeconds, TimeUnit.SECONDS);
+
+            List<KieBaseEntryDto> results = new ArrayList<>(rules.size());
+            for (int i = 0; i < rules.size(); i++) {
+                results.add(result(rules.get(i), futures.get(i)));
+            }
+            return results;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while warming up KieBases", e);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    public void evict(UUID ruleId, int version) {
+        droolsEngineService.evictCache(ruleId, version);
+    }
+
+    public void evictAll() {
+        // invalidateAll runs the removal listener, closing session pools like a single eviction
+        nativeCache().invalidateAll();
+    }
+
+    private KieBaseEntryDto result(RuleSnapshot rule, Future<CompiledRule> future) {
+        KieBaseEntryDto.KieBaseEntryDtoBuilder entry = KieBaseEntryDto.builder()
+                .ruleId(rule.getId())
+                .version(rule.getVersion())
+                .policyType(rule.getPolicyType())
+                .active(true);
+        try {
+            CompiledRule compiled = future.get();
+            return entry.source(compiled.getSource().name())
+                    .contentHash(compiled.getContentHash())
+                    .compileMs(compiled.getBuildMs())
+                    .build();
+        } catch (CancellationException e) {
+            log.warn("Warm-up of rule {} v{} ({}) did not finish within {}s", rule.getId(), rule.getVersion(),
+                    rule.getPolicyType(), timeoutSeconds);
+            return entry.error("Timed out after " + timeoutSeconds + "s").build();
+        } catch (ExecutionException e) {
+            log.error("Warm-up of rule {} v{} ({}) failed", rule.getId(), rule.getVersion(), rule.getPolicyType(),
+                    e.getCause());
+            return entry.error(e.getCause().getMessage()).build();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return entry.error("Interrupted").build();
+        }
+    }
+
+    private static long count(List<KieBaseEntryDto> results, RuleArtifactService.Source source) {
+        return results.stream().filter(result -> source.name().equals(result.getSource())).count();
+    }
+
+    @SuppressWarnings("unchecked")
+    private Cache<Object, Object> nativeCache() {
+        return (Cache<Object, Object>) cacheManager.getCache(CACHE_NAME).getNativeCache();
+    }
+}
@@ -0,0 +1,140 @@
+package com.islamic.policyengine.service;
+
+import com.islamic.policyengine.exception.DrlCompilationException;
+import com.islamic.policyengine.model.enums.CompileMode;
+import org.drools.compiler.kie.builder.impl.InternalKieModule;
+import org.drools.model.codegen.ExecutableModelProject;
+import org.kie.api.KieBase;
+import org.kie.api.KieBaseConfiguration;
+import org.kie.api.KieServices;
+import org.kie.api.builder.KieBuilder;
+import org.kie.api.builder.KieFileSystem;
+import org.kie.api.builder.KieModule;
+import org.kie.api.builder.Message;
+import org.kie.api.builder.ReleaseId;
+import org.kie.api.builder.Results;
+import org.kie.api.runtime.KieContainer;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+/**
+ * Compiles DRL source into a {@link KieBase} in a single build pass.
+ *
+ * <p>Every build gets its own release id so concurrent compilations never share a
+ * {@code KieModule}, and the module is removed from the global {@code KieRepository} once the
+ * container exists.</p>
+ *
+ * <p>{@link CompileMode#EXECUTABLE_MODEL} builds with the Drools executable model: the DRL is
+ * translated to Java (lambda constraints, generated consequences) and compiled once, so the
+ * KieBase needs no MVEL at runtime and its KJAR carries the compiled classes.</p>
+ *
+ * <p>A build can also be kept as its KJAR ({@link #compileArtifact}) and turned back into a
+ * {@code KieBase} later by {@link #load}, in this or another instance.</p>
+ */
+@Component
+public class KieBaseCompiler {
+
+    private static final String SEQUENTIAL_PROPERTY = "drools.sequential";
+    private static final String DRL_PATH = "src/main/resources/com/islamic/policyengine/rules/rule.drl";
+
+    /**
+     * Consequences or attributes that need a stateful session: working-memory mutation, or
+     * agenda control that a one-shot stateless execution cannot drive.
+     */
+    private static final Pattern STATEFUL_CONSTRUCTS = Pattern.compile(
+            "\\b(insert|insertLogical|modify|update|retract|delete)\\s*\\("
+                    + "|\\b(agenda-group|ruleflow-group|timer|calendars|duration)\\b");
+
+    /** A built KieBase and the KJAR it came from. */
+    public record Artifact(KieBase kieBase, byte[] kjar) {
+    }
+
+    private final KieServices kieServices = KieServices.Factory.get();
+
+    // A KJAR keeps the release id it was built with, so loads of the same bytes must not
+    // interleave their add and remove in the shared KieRepository
+    private final Object[] loadLocks = new Object[64];
+
+    public KieBaseCompiler() {
+        Arrays.setAll(loadLocks, i -> new Object());
+    }
+
+    public KieBase compile(String drlSource, boolean sequential) {
+        return compile(drlSource, sequential, CompileMode.CLASSIC);
+    }
+
+    public KieBase compile(String drlSource, boolean sequential, CompileMode mode) {
+        ReleaseId releaseId = build(drlSource, mode);
+        try {
+            return newKieBase(releaseId, sequential);
+        } finally {
+            kieServices.getRepository().removeKieModule(releaseId);
+        }
+    }
+
+    /** Compiles like {@link #compile} and also returns the KJAR bytes, for {@link #load}. */
+    public Artifact compileArtifact(String drlSource, boolean sequential, CompileMode mode) {
+        ReleaseId releaseId = build(drlSource, mode);
+        try {
+            byte[] kjar = ((InternalKieModule) kieServices.getRepository().getKieModule(releaseId)).getBytes();
+            return new Artifact(newKieBase(releaseId, sequential), kjar);
+        } finally {
+            kieServices.getRepository().removeKieModule(releaseId);
+        }
+    }
+
+    /** Builds a {@code KieBase} from KJAR bytes produced by {@link #compileArtifact}. */
+    public KieBase load(byte[] kjar, boolean sequential) {
+        synchronized (loadLocks[Math.floorMod(Arrays.hashCode(kjar), loadLocks.length)]) {
+            KieModule module = kieServices.getRepository().addKieModule(kieServices.getResources().newByteArrayResource(kjar));
+            try {
+                return newKieBase(module.getReleaseId(), sequential);
+            } finally {
+                kieServices.getRepository().removeKieModule(module.getReleaseId());
+            }
+        }
+    }
+
+    private ReleaseId build(String drlSource, CompileMode mode) {
+        ReleaseId releaseId = kieServices.newReleaseId(
+                "com.islamic.policyengine", "rule-" + UUID.randomUUID(), "1.0.0");
+
+        KieFileSystem kfs = kieServices.newKieFileSystem();
+        kfs.generateAndWritePomXML(releaseId);
+        kfs.write(DRL_PATH, drlSource);
+
+        KieBuilder kieBuilder = mode == CompileMode.EXECUTABLE_MODEL
+                ? kieServices.newKieBuilder(kfs).buildAll(ExecutableModelProject.class)
+                : kieServices.newKieBuilder(kfs).buildAll();
+        Results results = kieBuilder.getResults();
+        if (results.hasMessages(Message.Level.ERROR)) {
+            List<Message> errors = results.getMessages(Message.Level.ERROR);
+            kieServices.getRepository().removeKieModule(releaseId);
+            throw new DrlCompilationException(errors);
+        }
+        return releaseId;
+    }
+
+    private KieBase newKieBase(ReleaseId releaseId, boolean sequential) {
+        KieContainer kieContainer = kieServices.newKieContainer(releaseId);
+        KieBaseConfiguration configuration = kieServices.newKieBaseConfiguration();
+        if (sequential) {
+            configuration.setProperty(SEQUENTIAL_PROPERTY, "true");
+        }
+        return kieContainer.newKieBase(configuration);
+    }
+
+    /**
+     * Whether the DRL can be evaluated with a {@code StatelessKieSession}: no rule inserts,
+     * modifies or retracts facts, and none relies on agenda groups or timers. The check is
+     * lexical and errs towards stateful — a keyword inside a comment or string only costs the
+     * faster path, never correctness.
+     */
+    public static boolean isStatelessEligible(String drlSource) {
+        return !STATEFUL_CONSTRUCTS.matcher(drlSource).find();
+    }
+}
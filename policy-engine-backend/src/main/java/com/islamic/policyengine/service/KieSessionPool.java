@@ -0,0 +1,114 @@
+package com.islamic.policyengine.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.kie.api.KieBase;
+import org.kie.api.runtime.KieSession;
+import org.kie.api.runtime.rule.EntryPoint;
+import org.kie.api.runtime.rule.FactHandle;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded pool of idle {@link KieSession}s for one {@link KieBase}.
+ *
+ * <p>{@link #borrow()} never blocks: a miss simply builds a new session. On
+ * {@link #release(KieSession, boolean) release} the session is reset by deleting every fact
+ * from every entry point and parked for reuse; sessions that were halted or threw, sessions
+ * returned to a full pool, and sessions returned after {@link #close()} are disposed.</p>
+ */
+@Slf4j
+public class KieSessionPool implements AutoCloseable {
+
+    private final KieBase kieBase;
+    private final int capacity;
+    private final BlockingQueue<KieSession> idle;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder discarded = new LongAdder();
+
+    private volatile boolean closed;
+
+    public KieSessionPool(KieBase kieBase, int capacity) {
+        this.kieBase = kieBase;
+        this.capacity = capacity;
+        this.idle = new ArrayBlockingQueue<>(Math.max(1, capacity));
+    }
+
+    public KieSession borrow() {
+        KieSession session = idle.poll();
+        if (session != null) {
+            hits.increment();
+            return session;
+        }
+        misses.increment();
+        return kieBase.newKieSession();
+    }
+
+    /**
+     * @param reusable {@code false} when the evaluation failed or the session was halted; the
+     *                 session is then disposed instead of being reset
+     */
+    public void release(KieSession session, boolean reusable) {
+        if (closed || capacity == 0 || !reusable || !reset(session) || !idle.offer(session)) {
+            discarded.increment();
+            session.dispose();
+            return;
+        }
+        // close() may have drained the queue between the check above and the offer
+        if (closed && idle.remove(session)) {
+            session.dispose();
+        }
+    }
+
+    private boolean reset(KieSession session) {
+        try {
+            for (EntryPoint entryPoint : session.getEntryPoints()) {
+                List<FactHandle> handles = new ArrayList<>(entryPoint.getFactHandles());
+                for (FactHandle handle : handles) {
+                    entryPoint.delete(handle);
+                }
+            }
+            return true;
+        } catch (RuntimeException e) {
+            log.debug("Could not reset pooled session, disposing it: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    public int getIdle() {
+        return idle.size();
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getDiscarded() {
+        return discarded.sum();
+    }
+
+    /**
+     * Retires the pool: idle sessions are disposed now, borrowed ones when they are released.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        KieSession session;
+        while ((session = idle.poll()) != null) {
+            session.dispose();
+        }
+    }
+}
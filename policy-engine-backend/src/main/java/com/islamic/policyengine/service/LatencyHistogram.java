@@ -0,0 +1,104 @@
+package com.islamic.policyengine.service;
+
+/**
+ * Fixed-bucket histogram of {@code evaluation_ms}, in the layout of the {@code le_*} columns of
+ * {@code evaluation_rollup_minute}. Bucket {@code i} counts values in
+ * {@code (BOUNDS[i-1], BOUNDS[i]]}; the last bucket counts everything above the highest bound.
+ * Histograms merge by addition, so minute rows roll up into any coarser interval.
+ */
+final class LatencyHistogram {
+
+    static final int[] BOUNDS = {0, 1, 2, 5, 10, 25, 50, 100, 250, 500, 1000};
+
+    /** Column names matching the buckets, {@code le_inf} last. */
+    static final String[] COLUMNS = columns();
+
+    private final long[] counts = new long[BOUNDS.length + 1];
+    private long total;
+    private long sum;
+    private int max;
+
+    void record(int evaluationMs) {
+        counts[bucketOf(evaluationMs)]++;
+        total++;
+        sum += evaluationMs;
+        max = Math.max(max, evaluationMs);
+    }
+
+    void add(long[] bucketCounts, long latencySum, int latencyMax) {
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] += bucketCounts[i];
+            total += bucketCounts[i];
+        }
+        sum += latencySum;
+        max = Math.max(max, latencyMax);
+    }
+
+    void merge(LatencyHistogram other) {
+        add(other.counts, other.sum, other.max);
+    }
+
+    long[] counts() {
+        return counts.clone();
+    }
+
+    long total() {
+        return total;
+    }
+
+    long sum() {
+        return sum;
+    }
+
+    int max() {
+        return max;
+    }
+
+    double mean() {
+        return total == 0 ? 0.0 : (double) sum / total;
+    }
+
+    /**
+     * Estimates the {@code quantile} (0..1) by linear interpolation inside the bucket holding
+     * that rank. Values in the open-ended bucket are reported as the observed maximum.
+     */
+    double percentile(double quantile) {
+        if (total == 0) {
+            return 0.0;
+        }
+        double rank = quantile * total;
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == 0 || seen + counts[i] < rank) {
+                seen += counts[i];
+                continue;
+            }
+            if (i == BOUNDS.length) {
+                return max;
+            }
+            double lower = i == 0 ? 0 : BOUNDS[i - 1];
+            double upper = Math.min(BOUNDS[i], max);
+            double within = (rank - seen) / counts[i];
+            return lower + Math.max(0.0, upper - lower) * within;
+        }
+        return max;
+    }
+
+    static int bucketOf(int evaluationMs) {
+        for (int i = 0; i < BOUNDS.length; i++) {
+            if (evaluationMs <= BOUNDS[i]) {
+                return i;
+            }
+        }
+        return BOUNDS.length;
+    }
+
+    private static String[] columns() {
+        String[] columns = new String[BOUNDS.length + 1];
+        for (int i = 0; i < BOUNDS.length; i++) {
+            columns[i] = "le_" + BOUNDS[i];
+        }
+        columns[BOUNDS.length] = "le_inf";
+        return columns;
+    }
+}
@@ -0,0 +1,113 @@
+package com.islamic.policyengine.service;
+
+import com.islamic.policyengine.model.dto.EvaluationRequest;
+import com.islamic.policyengine.model.dto.EvaluationResponse;
+import com.islamic.policyengine.model.dto.MultiPolicyEvaluationRequest;
+import com.islamic.policyengine.model.dto.MultiPolicyEvaluationResponse;
+import com.islamic.policyengine.model.dto.PolicyEvaluationResult;
+import com.islamic.policyengine.model.snapshot.RuleSnapshot;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Evaluates one input against several policies concurrently.
+ *
+ * <p>Every policy but the first is submitted to the fan-out pool; the first runs on the request
+ * thread, so end-to-end latency is that of the slowest policy. Each policy only sees the input
+ * keys its rule declares and goes through the result cache like a single evaluation; a failing
+ * policy is reported in its slot without failing the others.</p>
+ *
+ * <p>Each policy is audited on its own with the original request input, so an audit entry
+ * shows what the caller sent. Audit records are handed to the {@link AuditWriter} from the
+ * request thread once every policy has returned, never from a fan-out worker.</p>
+ */
+@Service
+public class MultiPolicyEvaluationService {
+
+    private final PolicyEvaluationService policyEvaluationService;
+    private final AuditService auditService;
+    private final Executor fanOutExecutor;
+
+    public MultiPolicyEvaluationService(PolicyEvaluationService policyEvaluationService,
+                                        AuditService auditService,
+                                        @Qualifier("fanOutEvaluationExecutor") Executor fanOutEvaluationExecutor) {
+        this.policyEvaluationService = policyEvaluationService;
+        this.auditService = auditService;
+        this.fanOutExecutor = fanOutEvaluationExecutor;
+    }
+
+    public MultiPolicyEvaluationResponse evaluate(MultiPolicyEvaluationRequest request) {
+        if (request.getPolicyTypes() == null || request.getPolicyTypes().isEmpty()) {
+            throw new IllegalArgumentException("At least one policy type is required");
+        }
+        List<String> policyTypes = new ArrayList<>(new LinkedHashSet<>(request.getPolicyTypes()));
+        Map<String, Object> data = request.getData();
+
+        long start = System.nanoTime();
+
+        List<CompletableFuture<Evaluated>> pending = new ArrayList<>(policyTypes.size() - 1);
+        for (String policyType : policyTypes.subList(1, policyTypes.size())) {
+            pending.add(CompletableFuture.supplyAsync(() -> evaluatePolicy(policyType, data), fanOutExecutor));
+        }
+
+        List<Evaluated> evaluated = new ArrayList<>(policyTypes.size());
+        evaluated.add(evaluatePolicy(policyTypes.get(0), data));
+        for (CompletableFuture<Evaluated> future : pending) {
+            evaluated.add(future.join());
+        }
+
+        EvaluationRequest audited = EvaluationRequest.builder().data(data).build();
+        List<PolicyEvaluationResult> results = new ArrayList<>(evaluated.size());
+        for (Evaluated item : evaluated) {
+            if (item.response() != null) {
+                auditService.log(item.rule().getPolicyType(), item.rule(), audited, item.response(),
+                        item.response().getEvaluationMs());
+            }
+            results.add(item.result());
+        }
+
+        return MultiPolicyEvaluationResponse.builder()
+                .results(results)
+                .evaluationMs((System.nanoTime() - start) / 1_000_000)
+                .timestamp(LocalDateTime.now())
+                .build();
+    }
+
+    private Evaluated evaluatePolicy(String policyType, Map<String, Object> data) {
+        long start = System.nanoTime();
+        try {
+            RuleSnapshot rule = policyEvaluationService.findActiveRule(policyType);
+            CompiledRule compiled = policyEvaluationService.compile(rule);
+            Map<String, Object> inputs = compiled.getBindingPlan().selectInputs(data);
+
+            EvaluationResponse response = policyEvaluationService.evaluateActive(rule, compiled, inputs);
+
+            return new Evaluated(PolicyEvaluationResult.builder()
+                    .policyType(rule.getPolicyType())
+                    .ruleId(rule.getId())
+                    .ruleVersion(rule.getVersion())
+                    .result(response.getResult())
+                    .evaluationMs(response.getEvaluationMs())
+                    .elapsedMs((System.nanoTime() - start) / 1_000_000)
+                    .build(), rule, response);
+        } catch (RuntimeException e) {
+            return new Evaluated(PolicyEvaluationResult.builder()
+                    .policyType(policyType)
+                    .elapsedMs((System.nanoTime() - start) / 1_000_000)
+                    .error(EvaluationErrors.code(e))
+                    .message(EvaluationErrors.message(e))
+                    .build(), null, null);
+        }
+    }
+
+    private record Evaluated(PolicyEvaluationResult result, RuleSnapshot rule, EvaluationResponse response) {
+    }
+}
@@ -5,230 +5,175 @@ import com.islamic.policyengine.model.dto.EvaluationRequest;
 import com.islamic.policyengine.model.dto.EvaluationResponse;
 import com.islamic.policyengine.model.dto.PolicySchemaDTO;
 import com.islamic.policyengine.model.dto.RuleFieldDTO;
-import com.islamic.policyengine.model.entity.Rule;
-import com.islamic.policyengine.model.entity.RuleField;
-import com.islamic.policyengine.model.entity.RuleParameter;
+import com.islamic.policyengine.model.snapshot.RuleFieldSnapshot;
+import com.islamic.policyengine.model.snapshot.RuleSnapshot;
 import com.islamic.policyengine.repository.RuleRepository;
+import com.islamic.policyengine.service.RuleExecutionGuard.ExecutionMode;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.kie.api.KieBase;
-import org.kie.api.definition.type.FactType;
 import org.kie.api.runtime.KieSession;
-import org.springframework.http.HttpStatus;
+import org.kie.api.runtime.StatelessKieSession;
 import org.springframework.stereotype.Service;
-import org.springframework.web.server.ResponseStatusException;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.*;
-import java.util.concurrent.*;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class PolicyEvaluationService {
 
-    private static final long EVALUATION_TIMEOUT_MS = 5000;
-    private static final String RULES_PACKAGE = "com.islamic.policyengine.rules";
-
     private final DroolsEngineService droolsEngineService;
     private final RuleRepository ruleRepository;
+    private final ActivePolicyRegistry activePolicyRegistry;
     private final AuditService auditService;
-
-    private final ExecutorService ruleExecutor = Executors.newCachedThreadPool();
+    private final RuleExecutionGuard ruleExecutionGuard;
+    private final EvaluationResultCache evaluationResultCache;
 
     public EvaluationResponse evaluate(String policyType, EvaluationRequest request) {
-        List<Rule> rules = ruleRepository.findByPolicyTypeAndIsActiveTrue(policyType);
-        if (rules.isEmpty()) {
-            throw new PolicyNotFoundException("No active rule found for policy type: " + policyType);
-        }
-        Rule rule = rules.get(0);
-
-        return evaluateWithRule(rule, request, true);
+        RuleSnapshot rule = findActiveRule(policyType);
+        EvaluationResponse response = evaluateActive(rule, compile(rule), request.getData());
+        auditService.log(rule.getPolicyType(), rule, request, response, response.getEvaluationMs());
+        return response;
     }
 
     public EvaluationResponse evaluateRuleById(UUID ruleId, EvaluationRequest request) {
-        Rule rule = ruleRepository.findWithParametersById(ruleId)
-                .orElseThrow(() -> new PolicyNotFoundException("Rule not found with id: " + ruleId));
-        return evaluateWithRule(rule, request, true);
+        return evaluateWithRule(findRule(ruleId), request, true);
     }
 
     public EvaluationResponse testRuleById(UUID ruleId, EvaluationRequest request) {
-        Rule rule = ruleRepository.findWithParametersById(ruleId)
-                .orElseThrow(() -> new PolicyNotFoundException("Rule not found with id: " + ruleId));
-        return evaluateWithRule(rule, request, false);
+        return evaluateWithRule(findRule(ruleId), request, false);
     }
 
-    public EvaluationResponse evaluateWithRule(Rule rule, EvaluationRequest request, boolean writeAudit) {
-        KieBase kieBase = droolsEngineService.compileRule(rule);
-        KieSession session = kieBase.newKieSession();
-
-        try {
-            // Set globals for backward compatibility with old rules that use parameters
-            setGlobals(session, rule.getParameters());
-
-            String factTypeName = rule.getFactTypeName();
-            Map<String, Object> data = request.getData();
-            Object fact;
-
-            // Determine if this rule uses dynamic declared types or legacy Java fact classes
-            FactType declaredFactType = (factTypeName != null)
-                    ? kieBase.getFactType(RULES_PACKAGE, factTypeName)
-                    : null;
-
-            Collection<RuleField> resultFieldDefs;
-
-            if (declaredFactType != null) {
-                // Dynamic evaluation using Drools declared types
-                fact = declaredFactType.newInstance();
-
-                // Set input field values
-                for (RuleField field : rule.getFields()) {
-                    if ("INPUT".equals(field.getFieldCategory())) {
-                        Object rawValue = data.get(field.getFieldName());
-                        if (rawValue != null) {
-                            Object converted = convertForFieldType(rawValue, field.getFieldType());
-                            declaredFactType.set(fact, field.getFieldName(), converted);
-                        }
-                    }
-                }
-
-                resultFieldDefs = rule.getFields().stream()
-                        .filter(f -> "RESULT".equals(f.getFieldCategory()))
-                        .collect(java.util.stream.Collectors.toSet());
-            } else {
-                // Legacy evaluation path: use FactMetadataService reflection (backward compat)
-                throw new RuntimeException("Rule '" + rule.getName() + "' has no factTypeName and no declared type. "
-                        + "Legacy Java fact class evaluation is no longer supported for rules without field definitions.");
-            }
+    RuleSnapshot findActiveRule(String policyType) {
+        return activePolicyRegistry.find(policyType)
+                .orElseThrow(() -> new PolicyNotFoundException("No active rule found for policy type: " + policyType));
+    }
 
-            session.insert(fact);
+    private RuleSnapshot findRule(UUID ruleId) {
+        return ruleRepository.findWithParametersById(ruleId)
+                .map(RuleSnapshot::of)
+                .orElseThrow(() -> new PolicyNotFoundException("Rule not found with id: " + ruleId));
+    }
 
-            long start = System.nanoTime();
-
-            // Fire rules with timeout to prevent infinite loops (TRD §11)
-            Future<?> future = ruleExecutor.submit(() -> session.fireAllRules());
-            try {
-                future.get(EVALUATION_TIMEOUT_MS, TimeUnit.MILLISECONDS);
-            } catch (TimeoutException e) {
-                future.cancel(true);
-                session.halt();
-                throw new ResponseStatusException(HttpStatus.GATEWAY_TIMEOUT,
-                        "Rule evaluation timed out after " + EVALUATION_TIMEOUT_MS + "ms");
-            } catch (ExecutionException e) {
-                throw new RuntimeException("Rule evaluation failed", e.getCause());
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                throw new RuntimeException("Rule evaluation interrupted", e);
-            }
+    public EvaluationResponse evaluateWithRule(RuleSnapshot rule, EvaluationRequest request, boolean writeAudit) {
+        EvaluationResponse response = evaluateCompiled(rule, compile(rule), request.getData());
 
-            long durationMs = (System.nanoTime() - start) / 1_000_000;
+        if (writeAudit) {
+            auditService.log(rule.getPolicyType(), rule, request, response, response.getEvaluationMs());
+        }
 
-            // Extract result fields
-            Map<String, Object> result = new HashMap<>();
-            for (RuleField field : resultFieldDefs) {
-                Object value = declaredFactType.get(fact, field.getFieldName());
-                result.put(field.getFieldName(), value);
-            }
+        return response;
+    }
 
-            EvaluationResponse response = EvaluationResponse.builder()
-                    .policyType(rule.getPolicyType())
-                    .ruleId(rule.getId())
-                    .ruleVersion(rule.getVersion())
-                    .result(result)
-                    .evaluationMs(durationMs)
-                    .timestamp(LocalDateTime.now())
-                    .build();
-
-            if (writeAudit) {
-                auditService.log(rule.getPolicyType(), rule, request, response, durationMs);
-            }
+    /**
+     * Resolves the cached {@link CompiledRule} for {@code rule}, rejecting rules without a
+     * declared fact type.
+     */
+    CompiledRule compile(RuleSnapshot rule) {
+        CompiledRule compiled = droolsEngineService.compileRule(rule);
+        if (compiled.getBindingPlan() == null) {
+            // Legacy Java fact class evaluation (FactMetadataService reflection) is gone
+            throw new RuntimeException("Rule '" + rule.getName() + "' has no factTypeName and no declared type. "
+                    + "Legacy Java fact class evaluation is no longer supported for rules without field definitions.");
+        }
+        return compiled;
+    }
 
-            return response;
-        } catch (InstantiationException | IllegalAccessException e) {
-            throw new RuntimeException("Failed to create declared fact instance for rule: " + rule.getName(), e);
-        } finally {
-            session.dispose();
+    /**
+     * Evaluates one input against the active rule of its policy type, going through the result
+     * cache when it is enabled for that policy. Does not write an audit record.
+     */
+    EvaluationResponse evaluateActive(RuleSnapshot rule, CompiledRule compiled, Map<String, Object> data) {
+        if (!evaluationResultCache.isEnabled(rule.getPolicyType())) {
+            return evaluateCompiled(rule, compiled, data);
         }
+        String fingerprint = compiled.getBindingPlan().inputFingerprint(data);
+        return evaluationResultCache.get(rule, fingerprint, () -> evaluateCompiled(rule, compiled, data));
+    }
+
+    /**
+     * Evaluates one input against an already compiled rule. Does not write an audit record.
+     */
+    EvaluationResponse evaluateCompiled(RuleSnapshot rule, CompiledRule compiled, Map<String, Object> data) {
+        return evaluateCompiled(rule, compiled, data, ruleExecutionGuard.getMode());
     }
 
-    private void setGlobals(KieSession session, Collection<RuleParameter> parameters) {
-        for (RuleParameter param : parameters) {
-            Object value = castParameterValue(param);
-            try {
-                session.setGlobal(param.getParamKey(), value);
-            } catch (RuntimeException e) {
-                log.debug("Could not set global '{}': {}", param.getParamKey(), e.getMessage());
+    /**
+     * Evaluates one input against an already compiled rule, firing in {@code mode}. Bulk
+     * evaluation passes {@link ExecutionMode#INLINE}: its items already run on a pool thread, and
+     * handing each to the rule executor would block that thread for a second one.
+     */
+    EvaluationResponse evaluateCompiled(RuleSnapshot rule, CompiledRule compiled, Map<String, Object> data,
+                                        ExecutionMode mode) {
+        FactBindingPlan plan = compiled.getBindingPlan();
+        Object fact = plan.newFact(data);
+
+        long start = System.nanoTime();
+
+        // Fire rules with timeout and max-firings guard to prevent infinite loops (TRD §11)
+        compiled.acquire();
+        try {
+            if (compiled.isStateless()) {
+                fireStateless(compiled.getKieBase(), plan, fact, mode);
+            } else {
+                firePooled(compiled.getSessionPool(), plan, fact, mode);
             }
+        } finally {
+            compiled.release();
         }
+
+        long durationMs = (System.nanoTime() - start) / 1_000_000;
+
+        return EvaluationResponse.builder()
+                .policyType(rule.getPolicyType())
+                .ruleId(rule.getId())
+                .ruleVersion(rule.getVersion())
+                .result(plan.readResult(fact))
+                .evaluationMs(durationMs)
+                .timestamp(LocalDateTime.now())
+                .build();
     }
 
-    private Object castParameterValue(RuleParameter param) {
-        String type = param.getParamType().toUpperCase();
-        String value = param.getParamValue();
-
-        switch (type) {
-            case "DECIMAL":
-                return new BigDecimal(value);
-            case "INTEGER":
-                return Integer.parseInt(value);
-            case "STRING":
-                return value;
-            case "BOOLEAN":
-                return Boolean.parseBoolean(value);
-            default:
-                return value;
+    private void firePooled(KieSessionPool sessionPool, FactBindingPlan plan, Object fact, ExecutionMode mode) {
+        KieSession session = sessionPool.borrow();
+        boolean reusable = false;
+        try {
+            // Set globals for backward compatibility with old rules that use parameters
+            plan.applyGlobals(session::setGlobal);
+            session.insert(fact);
+            ruleExecutionGuard.fireAllRules(session, mode);
+            reusable = true;
+        } finally {
+            sessionPool.release(session, reusable);
         }
     }
 
-    private Object convertForFieldType(Object rawValue, String fieldType) {
-        if (rawValue == null) return null;
-        String strValue = String.valueOf(rawValue);
-
-        switch (fieldType) {
-            case "BIG_DECIMAL":
-                return new BigDecimal(strValue);
-            case "INTEGER":
-                if (rawValue instanceof Integer) return rawValue;
-                if (rawValue instanceof Number) return ((Number) rawValue).intValue();
-                return Integer.parseInt(strValue);
-            case "BOOLEAN":
-                if (rawValue instanceof Boolean) return rawValue;
-                return Boolean.parseBoolean(strValue);
-            case "STRING":
-            case "ENUM":
-                return strValue;
-            case "LIST_STRING":
-                if (rawValue instanceof List) return rawValue;
-                return new ArrayList<>(Arrays.asList(strValue.split(",")));
-            default:
-                return strValue;
-        }
+    /**
+     * Rules whose DRL never mutates working memory run in a {@link StatelessKieSession}, which
+     * inserts, fires and disposes in one call; sequential-mode KieBases only run this way.
+     */
+    private void fireStateless(KieBase kieBase, FactBindingPlan plan, Object fact, ExecutionMode mode) {
+        StatelessKieSession session = kieBase.newStatelessKieSession();
+        plan.applyGlobals(session::setGlobal);
+        ruleExecutionGuard.execute(session, fact, mode);
     }
 
     public PolicySchemaDTO getSchema(String policyType) {
-        List<Rule> rules = ruleRepository.findByPolicyTypeAndIsActiveTrue(policyType);
-        if (rules.isEmpty()) {
-            throw new PolicyNotFoundException("No active rule found for policy type: " + policyType);
-        }
-        Rule rule = rules.get(0);
-        return buildSchema(rule);
+        return buildSchema(findActiveRule(policyType));
     }
 
     public PolicySchemaDTO getSchemaByRuleId(UUID ruleId) {
-        Rule rule = ruleRepository.findWithParametersById(ruleId)
-                .orElseThrow(() -> new PolicyNotFoundException("Rule not found with id: " + ruleId));
-        return buildSchema(rule);
+        return buildSchema(findRule(ruleId));
     }
 
-    private PolicySchemaDTO buildSchema(Rule rule) {
-        List<RuleFieldDTO> inputFields = rule.getFields().stream()
-                .filter(f -> "INPUT".equals(f.getFieldCategory()))
+    private PolicySchemaDTO buildSchema(RuleSnapshot rule) {
+        List<RuleFieldDTO> inputFields = rule.getInputFields().stream()
                 .map(this::toFieldDto)
                 .collect(java.util.stream.Collectors.toList());
 
-        List<RuleFieldDTO> resultFields = rule.getFields().stream()
-                .filter(f -> "RESULT".equals(f.getFieldCategory()))
+        List<RuleFieldDTO> resultFields = rule.getResultFields().stream()
                 .map(this::toFieldDto)
                 .collect(java.util.stream.Collectors.toList());
 
@@ -242,7 +187,7 @@ public class PolicyEvaluationService {
                 .build();
     }
 
-    private RuleFieldDTO toFieldDto(RuleField field) {
+    private RuleFieldDTO toFieldDto(RuleFieldSnapshot field) {
         return RuleFieldDTO.builder()
                 .fieldName(field.getFieldName())
                 .fieldType(field.getFieldType())
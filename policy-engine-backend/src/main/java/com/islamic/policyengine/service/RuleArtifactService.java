@@ -0,0 +1,146 @@
+package com.islamic.policyengine.service;
+
+import com.islamic.policyengine.model.enums.CompileMode;
+import com.islamic.policyengine.model.snapshot.RuleSnapshot;
+import com.islamic.policyengine.repository.RuleArtifactRepository;
+import com.islamic.policyengine.repository.RuleArtifactRepository.RuleArtifact;
+import lombok.extern.slf4j.Slf4j;
+import org.kie.api.KieBase;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.Properties;
+
+/**
+ * Compiled rules shared through {@code rule_artifact}: a KieBase is loaded from the stored KJAR
+ * of its (rule id, version, engine version) when there is one, and otherwise compiled and its
+ * KJAR stored for the next instance or restart.
+ *
+ * <p>An artifact is used only if it was built from the same DRL (SHA-256 of the source) and
+ * loads cleanly; anything else counts as stale, is logged and replaced by a fresh compile. The
+ * engine version in the key keeps instances on different Drools releases from sharing
+ * binaries during a rolling upgrade. Artifacts are written in their own transaction, so a
+ * failure to store one never fails the evaluation or rule save that compiled it.</p>
+ *
+ * <p>When the compile happens inside a transaction, such as a rule save, the outer transaction
+ * keeps its connection while the artifact is stored, so that store holds a second pool
+ * connection for the duration of one insert and one delete. The pool has to leave room for
+ * this: a pool exhausted by concurrent rule saves makes the store wait for the connection
+ * timeout and then skip the artifact, which only costs a compile on the next cache miss.</p>
+ */
+@Slf4j
+@Service
+public class RuleArtifactService {
+
+    public enum Source {
+        ARTIFACT,
+        COMPILED,
+        /** Reused from another cached rule with the same DRL, see {@link SharedKieBaseRegistry}. */
+        SHARED
+    }
+
+    /** A KieBase and where it came from. */
+    public record Loaded(KieBase kieBase, Source source) {
+    }
+
+    static final String ENGINE_VERSION = "drools-" + droolsVersion();
+
+    private final KieBaseCompiler kieBaseCompiler;
+    private final RuleArtifactRepository ruleArtifactRepository;
+    private final TransactionTemplate separateTransaction;
+    private final boolean enabled;
+
+    public RuleArtifactService(KieBaseCompiler kieBaseCompiler,
+                               RuleArtifactRepository ruleArtifactRepository,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${policy-engine.rule-artifacts.enabled:true}") boolean enabled) {
+        this.kieBaseCompiler = kieBaseCompiler;
+        this.ruleArtifactRepository = ruleArtifactRepository;
+        this.separateTransaction = new TransactionTemplate(transactionManager);
+        this.separateTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.enabled = enabled;
+    }
+
+    public Loaded kieBase(RuleSnapshot rule, boolean sequential) {
+        CompileMode mode = rule.getCompileMode();
+        if (!enabled) {
+            return new Loaded(kieBaseCompiler.compile(rule.getDrlSource(), sequential, mode), Source.COMPILED);
+        }
+        String engineVersion = engineVersion(mode);
+        byte[] drlHash = sha256(rule.getDrlSource());
+        Optional<KieBase> stored = load(rule, engineVersion, drlHash, sequential);
+        if (stored.isPresent()) {
+            return new Loaded(stored.get(), Source.ARTIFACT);
+        }
+
+        KieBaseCompiler.Artifact artifact = kieBaseCompiler.compileArtifact(rule.getDrlSource(), sequential, mode);
+        try {
+            separateTransaction.executeWithoutResult(status -> ruleArtifactRepository.save(
+                    rule.getId(), rule.getVersion(), engineVersion, drlHash, artifact.kjar()));
+        } catch (RuntimeException e) {
+            log.warn("Failed to store the compiled artifact of rule {} v{}: {}", rule.getId(), rule.getVersion(), e.getMessage());
+        }
+        return new Loaded(artifact.kieBase(), Source.COMPILED);
+    }
+
+    private Optional<KieBase> load(RuleSnapshot rule, String engineVersion, byte[] drlHash, boolean sequential) {
+        Optional<RuleArtifact> artifact;
+        try {
+            artifact = ruleArtifactRepository.find(rule.getId(), rule.getVersion(), engineVersion);
+        } catch (RuntimeException e) {
+            log.warn("Failed to read the compiled artifact of rule {} v{}: {}", rule.getId(), rule.getVersion(), e.getMessage());
+            return Optional.empty();
+        }
+        if (artifact.isEmpty()) {
+            return Optional.empty();
+        }
+        if (!Arrays.equals(artifact.get().drlHash(), drlHash)) {
+            // The version number was reused, e.g. by a save whose transaction rolled back
+            log.info("Compiled artifact of rule {} v{} is stale (DRL changed); recompiling", rule.getId(), rule.getVersion());
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(kieBaseCompiler.load(artifact.get().kjar(), sequential));
+        } catch (RuntimeException e) {
+            log.warn("Compiled artifact of rule {} v{} does not load; recompiling", rule.getId(), rule.getVersion(), e);
+            return Optional.empty();
+        }
+    }
+
+    /** Executable-model KJARs hold generated classes, so they are keyed apart from classic ones. */
+    private static String engineVersion(CompileMode mode) {
+        return mode == CompileMode.EXECUTABLE_MODEL ? ENGINE_VERSION + "+executable-model" : ENGINE_VERSION;
+    }
+
+    private static byte[] sha256(String drlSource) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(drlSource.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static String droolsVersion() {
+        try (InputStream in = KieBase.class.getClassLoader()
+                .getResourceAsStream("META-INF/maven/org.drools/drools-compiler/pom.properties")) {
+            if (in != null) {
+                Properties properties = new Properties();
+                properties.load(in);
+                return properties.getProperty("version", "unknown");
+            }
+        } catch (IOException e) {
+            log.warn("Failed to read the Drools version", e);
+        }
+        return "unknown";
+    }
+}
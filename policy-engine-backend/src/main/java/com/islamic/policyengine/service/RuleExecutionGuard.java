@@ -0,0 +1,299 @@
+package com.islamic.policyengine.service;
+
+import com.islamic.policyengine.exception.RuleFiringLimitException;
+import lombok.extern.slf4j.Slf4j;
+import org.kie.api.KieServices;
+import org.kie.api.command.KieCommands;
+import org.kie.api.event.rule.AfterMatchFiredEvent;
+import org.kie.api.event.rule.DefaultAgendaEventListener;
+import org.kie.api.runtime.KieSession;
+import org.kie.api.runtime.StatelessKieSession;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fires a session's agenda under the evaluation deadline and the max-firings guard (TRD §11).
+ *
+ * <p>{@link ExecutionMode#INLINE} (the default) fires on the calling thread and a single shared
+ * timer thread calls {@link KieSession#halt()} when the deadline passes, so there is no thread
+ * hop per evaluation and the thread count stays constant under load. Drools only checks for a
+ * halt between firings: a consequence that is slow, or loops within one firing, keeps the
+ * request thread past the deadline, and the 504 is raised once that firing returns.</p>
+ *
+ * <p>{@link ExecutionMode#EXECUTOR} hands every {@code fireAllRules()} to a separate thread and
+ * waits for the future until the deadline, so the caller gets its 504 on time however long a
+ * consequence runs. Choose it for rule sets whose consequences may block. The rule executor is
+ * a fixed pool of {@code executor-threads} with a bounded queue: an evaluation that finds both
+ * full is rejected with 503, and a late one keeps its thread until its consequence returns, so
+ * slow rules under load cost capacity rather than new threads.</p>
+ */
+@Slf4j
+@Component
+public class RuleExecutionGuard implements DisposableBean {
+
+    public enum ExecutionMode {
+        INLINE,
+        EXECUTOR
+    }
+
+    private final long timeoutMs;
+    private final int maxFirings;
+    private final ExecutionMode mode;
+
+    private final ScheduledThreadPoolExecutor watchdog;
+    /** {@code null} in INLINE mode, which never leaves the calling thread. */
+    private final ThreadPoolExecutor ruleExecutor;
+    private final KieCommands kieCommands = KieServices.Factory.get().getCommands();
+
+    public RuleExecutionGuard(@Value("${policy-engine.evaluation.timeout-ms:5000}") long timeoutMs,
+                              @Value("${policy-engine.evaluation.max-rule-firings:10000}") int maxFirings,
+                              @Value("${policy-engine.evaluation.execution-mode:INLINE}") ExecutionMode mode,
+                              @Value("${policy-engine.evaluation.executor-threads:0}") int executorThreads,
+                              @Value("${policy-engine.evaluation.executor-queue-capacity:1000}") int executorQueueCapacity) {
+        this.timeoutMs = timeoutMs;
+        this.maxFirings = maxFirings;
+        this.mode = mode;
+
+        this.watchdog = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "rule-watchdog");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // Almost every deadline is cancelled; drop them from the queue instead of letting them pile up
+        this.watchdog.setRemoveOnCancelPolicy(true);
+
+        if (mode == ExecutionMode.EXECUTOR) {
+            int threads = executorThreads > 0 ? executorThreads : 2 * Runtime.getRuntime().availableProcessors();
+            AtomicInteger index = new AtomicInteger();
+            this.ruleExecutor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(Math.max(1, executorQueueCapacity)),
+                    runnable -> {
+                        Thread thread = new Thread(runnable, "rule-executor-" + index.getAndIncrement());
+                        thread.setDaemon(true);
+                        return thread;
+                    },
+                    new ThreadPoolExecutor.AbortPolicy());
+            log.info("Rule execution mode {} (timeout {}ms, max {} firings, {} executor threads, queue capacity {})",
+                    mode, timeoutMs, maxFirings, threads, executorQueueCapacity);
+        } else {
+            this.ruleExecutor = null;
+            log.info("Rule execution mode {} (timeout {}ms, max {} firings)", mode, timeoutMs, maxFirings);
+        }
+    }
+
+    /**
+     * Fires all activations on {@code session}.
+     *
+     * @return the number of rules fired
+     * @throws ResponseStatusException   with 504 when the deadline passes, or 503 when the rule
+     *                                   executor is saturated
+     * @throws RuleFiringLimitException  when the agenda exceeds the configured number of firings
+     */
+    public int fireAllRules(KieSession session) {
+        return fireAllRules(session, mode);
+    }
+
+    /**
+     * Like {@link #fireAllRules(KieSession)}, in the given mode rather than the configured one.
+     * Bulk evaluation passes {@link ExecutionMode#INLINE} to fire on its own worker thread.
+     */
+    public int fireAllRules(KieSession session, ExecutionMode mode) {
+        int fired = mode == ExecutionMode.INLINE || ruleExecutor == null ? fireInline(session) : fireOnExecutor(session);
+        return checkFiringLimit(fired);
+    }
+
+    /**
+     * Inserts {@code fact} into a stateless session and fires it, capped at the configured
+     * number of firings. In INLINE mode the batch runs on the calling thread and the deadline is
+     * checked after every firing, with the same limit as {@link #fireAllRules}: a consequence
+     * that is slow within one firing is only stopped once it returns. In EXECUTOR mode the batch
+     * runs on the rule executor; a late one is interrupted, ends at its next firing and its
+     * fact is discarded.
+     *
+     * @return the number of rules fired
+     * @throws ResponseStatusException   with 504 when the deadline passes, or 503 when the rule
+     *                                   executor is saturated
+     * @throws RuleFiringLimitException  when the agenda exceeds the configured number of firings
+     */
+    public int execute(StatelessKieSession session, Object fact) {
+        return execute(session, fact, mode);
+    }
+
+    /** Like {@link #execute(StatelessKieSession, Object)}, in the given mode rather than the configured one. */
+    public int execute(StatelessKieSession session, Object fact, ExecutionMode mode) {
+        FiringCounter counter = new FiringCounter(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs));
+        session.addEventListener(counter);
+        Runnable batch = () -> session.execute(kieCommands.newBatchExecution(List.of(
+                kieCommands.newInsert(fact),
+                kieCommands.newFireAllRules(maxFirings + 1))));
+        if (mode == ExecutionMode.INLINE || ruleExecutor == null) {
+            try {
+                batch.run();
+            } catch (RuntimeException e) {
+                // Drools may wrap the listener's exception; the flag tells a deadline from a rule error
+                if (counter.expired) {
+                    throw timeout();
+                }
+                throw e;
+            }
+        } else {
+            Future<?> future = submit(() -> {
+                batch.run();
+                return null;
+            });
+            try {
+                // Nothing to halt: the batch owns its session
+                await(future, () -> { });
+            } catch (RuntimeException e) {
+                // future.get() orders the listener's writes before this read
+                if (counter.expired) {
+                    throw timeout();
+                }
+                throw e;
+            }
+        }
+        if (counter.expired) {
+            throw timeout();
+        }
+        return checkFiringLimit(counter.fired);
+    }
+
+    private int checkFiringLimit(int fired) {
+        if (fired > maxFirings) {
+            throw new RuleFiringLimitException("Rule evaluation exceeded " + maxFirings
+                    + " rule firings; the rule set is probably looping");
+        }
+        return fired;
+    }
+
+    /** Halting takes effect at the next firing; the 504 is raised once the current one returns. */
+    private int fireInline(KieSession session) {
+        AtomicBoolean expired = new AtomicBoolean();
+        ScheduledFuture<?> deadline = watchdog.schedule(() -> {
+            expired.set(true);
+            session.halt();
+        }, timeoutMs, TimeUnit.MILLISECONDS);
+
+        int fired;
+        try {
+            fired = session.fireAllRules(maxFirings + 1);
+        } finally {
+            if (!deadline.cancel(false)) {
+                // The watchdog is already halting this session; let it finish before the
+                // session can be handed back to a pool and reused by another request
+                awaitWatchdog(deadline);
+            }
+        }
+
+        if (expired.get()) {
+            throw timeout();
+        }
+        return fired;
+    }
+
+    private void awaitWatchdog(ScheduledFuture<?> deadline) {
+        try {
+            deadline.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | CancellationException e) {
+            log.debug("Watchdog task did not complete normally: {}", e.getMessage());
+        }
+    }
+
+    private int fireOnExecutor(KieSession session) {
+        Future<Integer> future = submit(() -> session.fireAllRules(maxFirings + 1));
+        return await(future, session::halt);
+    }
+
+    private <T> Future<T> submit(Callable<T> task) {
+        try {
+            return ruleExecutor.submit(task);
+        } catch (RejectedExecutionException e) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                    "Rule executor is saturated; retry the evaluation later");
+        }
+    }
+
+    /** Waits for {@code future} until the deadline, running {@code onTimeout} if it passes. */
+    private <T> T await(Future<T> future, Runnable onTimeout) {
+        try {
+            return future.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            onTimeout.run();
+            throw timeout();
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Rule evaluation failed", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Rule evaluation interrupted", e);
+        }
+    }
+
+    private ResponseStatusException timeout() {
+        return new ResponseStatusException(HttpStatus.GATEWAY_TIMEOUT,
+                "Rule evaluation timed out after " + timeoutMs + "ms");
+    }
+
+    /**
+     * Counts the firings of a stateless batch and ends it once the deadline has passed, since a
+     * stateless session cannot be halted from another thread.
+     */
+    private static class FiringCounter extends DefaultAgendaEventListener {
+
+        private final long deadlineNanos;
+        private int fired;
+        private boolean expired;
+
+        FiringCounter(long deadlineNanos) {
+            this.deadlineNanos = deadlineNanos;
+        }
+
+        @Override
+        public void afterMatchFired(AfterMatchFiredEvent event) {
+            fired++;
+            if (System.nanoTime() - deadlineNanos > 0) {
+                expired = true;
+                throw new DeadlineExceededException();
+            }
+        }
+    }
+
+    private static class DeadlineExceededException extends RuntimeException {
+
+        DeadlineExceededException() {
+            super("Rule evaluation deadline passed", null, false, false);
+        }
+    }
+
+    public ExecutionMode getMode() {
+        return mode;
+    }
+
+    @Override
+    public void destroy() {
+        watchdog.shutdownNow();
+        if (ruleExecutor != null) {
+            ruleExecutor.shutdownNow();
+        }
+    }
+}
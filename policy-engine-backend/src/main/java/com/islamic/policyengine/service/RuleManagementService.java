@@ -8,6 +8,8 @@ import com.islamic.policyengine.model.dto.RuleFieldDTO;
 import com.islamic.policyengine.model.entity.Rule;
 import com.islamic.policyengine.model.entity.RuleField;
 import com.islamic.policyengine.model.entity.RuleParameter;
+import com.islamic.policyengine.model.enums.CompileMode;
+import com.islamic.policyengine.model.snapshot.RuleSnapshot;
 import com.islamic.policyengine.repository.RuleRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
@@ -16,6 +18,8 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import javax.persistence.EntityManager;
 import java.util.Arrays;
@@ -30,6 +34,8 @@ public class RuleManagementService {
     private final RuleRepository ruleRepository;
     private final DrlValidationService drlValidationService;
     private final DroolsEngineService droolsEngineService;
+    private final ActivePolicyRegistry activePolicyRegistry;
+    private final AuditSearchIndexService auditSearchIndexService;
     private final EntityManager entityManager;
 
     public Page<RuleDto> getRules(String policyType, Boolean isActive, int page, int size) {
@@ -57,8 +63,8 @@ public class RuleManagementService {
 
     @Transactional
     public RuleDto createRule(RuleDto ruleDto) {
-        // Validate DRL
-        List<String> errors = drlValidationService.validateDrl(ruleDto.getDrlSource());
+        // Validate DRL; it is compiled once the rule is complete, in publishAfterCommit
+        List<String> errors = drlValidationService.validateSecurity(ruleDto.getDrlSource());
         if (!errors.isEmpty()) {
             throw new DrlCompilationException("DRL validation failed", errors);
         }
@@ -69,6 +75,8 @@ public class RuleManagementService {
                 .policyType(ruleDto.getPolicyType())
                 .drlSource(ruleDto.getDrlSource())
                 .factTypeName(ruleDto.getFactTypeName())
+                .sequential(Boolean.TRUE.equals(ruleDto.getSequential()))
+                .compileMode(ruleDto.getCompileMode() != null ? ruleDto.getCompileMode() : CompileMode.CLASSIC)
                 .isActive(ruleDto.getIsActive() != null ? ruleDto.getIsActive() : true)
                 .version(1)
                 .build();
@@ -98,12 +106,15 @@ public class RuleManagementService {
                         .enumValues(fieldDto.getEnumValues() != null
                                 ? String.join(",", fieldDto.getEnumValues()) : null)
                         .fieldOrder(fieldDto.getFieldOrder() != null ? fieldDto.getFieldOrder() : 0)
+                        .searchable(Boolean.TRUE.equals(fieldDto.getSearchable()))
                         .build();
                 rule.getFields().add(field);
             }
         }
 
         Rule saved = ruleRepository.save(rule);
+        publishAfterCommit(saved, null);
+        auditSearchIndexService.syncAfterCommit();
         return toDtoWithDrl(saved);
     }
 
@@ -112,9 +123,9 @@ public class RuleManagementService {
         Rule rule = ruleRepository.findWithParametersById(id)
                 .orElseThrow(() -> new PolicyNotFoundException("Rule not found with id: " + id));
 
-        // Validate DRL if provided
+        // Validate DRL if provided; it is compiled once the rule is complete, in publishAfterCommit
         if (ruleDto.getDrlSource() != null) {
-            List<String> errors = drlValidationService.validateDrl(ruleDto.getDrlSource());
+            List<String> errors = drlValidationService.validateSecurity(ruleDto.getDrlSource());
             if (!errors.isEmpty()) {
                 throw new DrlCompilationException("DRL validation failed", errors);
             }
@@ -132,6 +143,12 @@ public class RuleManagementService {
         if (ruleDto.getFactTypeName() != null) {
             rule.setFactTypeName(ruleDto.getFactTypeName());
         }
+        if (ruleDto.getSequential() != null) {
+            rule.setSequential(ruleDto.getSequential());
+        }
+        if (ruleDto.getCompileMode() != null) {
+            rule.setCompileMode(ruleDto.getCompileMode());
+        }
 
         // Update parameters
         if (ruleDto.getParameters() != null) {
@@ -162,6 +179,7 @@ public class RuleManagementService {
                         .enumValues(fieldDto.getEnumValues() != null
                                 ? String.join(",", fieldDto.getEnumValues()) : null)
                         .fieldOrder(fieldDto.getFieldOrder() != null ? fieldDto.getFieldOrder() : 0)
+                        .searchable(Boolean.TRUE.equals(fieldDto.getSearchable()))
                         .build();
                 rule.getFields().add(field);
             }
@@ -170,10 +188,9 @@ public class RuleManagementService {
         // Increment version
         rule.setVersion(oldVersion + 1);
 
-        // Evict cache for old version
-        droolsEngineService.evictCache(id, oldVersion);
-
         Rule saved = ruleRepository.save(rule);
+        publishAfterCommit(saved, oldVersion);
+        auditSearchIndexService.syncAfterCommit();
         return toDtoWithDrl(saved);
     }
 
@@ -184,9 +201,64 @@ public class RuleManagementService {
 
         rule.setIsActive(isActive);
         Rule saved = ruleRepository.save(rule);
+        if (isActive) {
+            // Cached after the commit and before the rule becomes visible, so its first evaluation does not compile
+            publishAfterCommit(saved, null);
+        } else {
+            activePolicyRegistry.refreshAfterCommit(saved.getPolicyType());
+            evictAfterCommit(saved.getId(), saved.getVersion());
+        }
         return toDto(saved);
     }
 
+    /**
+     * Drops the cached build of a deactivated rule once it is no longer published, returning its
+     * lease on the KieBase it may share with other rules.
+     */
+    private void evictAfterCommit(UUID ruleId, int version) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                droolsEngineService.evictCache(ruleId, version);
+            }
+        });
+    }
+
+    /**
+     * Compiles {@code saved} as it will be committed, failing the transaction on DRL errors.
+     * After the commit, the result is cached under the new (id, version), and only then is the
+     * rule published to {@link ActivePolicyRegistry} and {@code previousVersion} evicted, so
+     * evaluations go straight from the old compiled version to the new one without a miss.
+     * The build is discarded on rollback; its version number may be reused by the next save.
+     */
+    private void publishAfterCommit(Rule saved, Integer previousVersion) {
+        RuleSnapshot snapshot = RuleSnapshot.of(saved);
+        CompiledRule compiled;
+        try {
+            compiled = droolsEngineService.build(snapshot);
+        } catch (DrlCompilationException e) {
+            throw new DrlCompilationException("DRL validation failed", e.getErrors());
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                droolsEngineService.install(snapshot, compiled);
+                activePolicyRegistry.refresh(snapshot.getPolicyType());
+                if (previousVersion != null) {
+                    droolsEngineService.evictCache(snapshot.getId(), previousVersion);
+                }
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    compiled.close();
+                }
+            }
+        });
+    }
+
     private RuleDto toDto(Rule rule) {
         return RuleDto.builder()
                 .id(rule.getId())
@@ -195,6 +267,8 @@ public class RuleManagementService {
                 .isActive(rule.getIsActive())
                 .version(rule.getVersion())
                 .factTypeName(rule.getFactTypeName())
+                .sequential(rule.getSequential())
+                .compileMode(rule.getCompileMode())
                 .parameters(rule.getParameters().stream()
                         .map(p -> ParameterDto.builder()
                                 .key(p.getParamKey())
@@ -225,6 +299,7 @@ public class RuleManagementService {
                 .enumValues(field.getEnumValues() != null
                         ? Arrays.asList(field.getEnumValues().split(",")) : null)
                 .fieldOrder(field.getFieldOrder())
+                .searchable(field.getSearchable())
                 .build();
     }
 }
@@ -0,0 +1,184 @@
+package com.islamic.policyengine.service;
+
+import com.islamic.policyengine.model.enums.CompileMode;
+import com.islamic.policyengine.model.snapshot.RuleSnapshot;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.kie.api.KieBase;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+/**
+ * Content-addressed KieBases: rules whose normalized DRL, compile mode and sequential flag are
+ * the same share one KieBase, so cloned rules, per-region copies, rollbacks to an earlier body
+ * and parameter-only edits cost no compile and no extra memory.
+ *
+ * <p>Every {@link CompiledRule} holds a {@link Lease} on its KieBase and returns it when its
+ * {@code kieBases} entry is evicted; the KieBase is dropped with the last lease. Concurrent
+ * acquires of a KieBase that is still being built wait for that one build. Session pools and
+ * binding plans stay per rule: they carry the rule's globals and fields.</p>
+ */
+@Slf4j
+@Component
+public class SharedKieBaseRegistry {
+
+    private static final Pattern TRAILING_WHITESPACE = Pattern.compile("[ \\t]+$", Pattern.MULTILINE);
+
+    /** What makes two KieBases interchangeable. */
+    record Key(String drlHash, CompileMode mode, boolean sequential) {
+    }
+
+    /** A counted reference to a shared KieBase; {@link #release()} it exactly once. */
+    public final class Lease {
+
+        private final Key key;
+        private final Shared shared;
+        private final KieBase kieBase;
+        private final RuleArtifactService.Source source;
+        private boolean released;
+
+        private Lease(Key key, Shared shared, KieBase kieBase, RuleArtifactService.Source source) {
+            this.key = key;
+            this.shared = shared;
+            this.kieBase = kieBase;
+            this.source = source;
+        }
+
+        public KieBase kieBase() {
+            return kieBase;
+        }
+
+        /** {@code SHARED} when another rule had already built the KieBase. */
+        public RuleArtifactService.Source source() {
+            return source;
+        }
+
+        /** Short form of the DRL hash, identifying the shared KieBase. */
+        public String contentHash() {
+            return key.drlHash().substring(0, 16);
+        }
+
+        public void release() {
+            synchronized (shared) {
+                if (released) {
+                    return;
+                }
+                released = true;
+            }
+            SharedKieBaseRegistry.this.release(key, shared);
+        }
+    }
+
+    private static final class Shared {
+        final CompletableFuture<KieBase> kieBase = new CompletableFuture<>();
+        int references;
+    }
+
+    // Guarded by this
+    private final Map<Key, Shared> kieBases = new HashMap<>();
+    private int references;
+
+    public SharedKieBaseRegistry(MeterRegistry meterRegistry) {
+        Gauge.builder("policyengine.kiebase.shared", this, SharedKieBaseRegistry::size)
+                .description("Distinct KieBases held for cached rules")
+                .register(meterRegistry);
+        Gauge.builder("policyengine.kiebase.shared.references", this, SharedKieBaseRegistry::references)
+                .description("Cached rules holding a shared KieBase")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Leases the KieBase for {@code rule}'s DRL, building it with {@code loader} unless a rule
+     * with the same content already holds one. A build failure is thrown to every waiting
+     * caller and nothing is kept, so the next acquire tries again.
+     */
+    public Lease acquire(RuleSnapshot rule, boolean sequential, Supplier<RuleArtifactService.Loaded> loader) {
+        Key key = new Key(hash(rule.getDrlSource()), rule.getCompileMode(), sequential);
+        Shared shared;
+        boolean owner = false;
+        synchronized (this) {
+            shared = kieBases.get(key);
+            if (shared == null) {
+                shared = new Shared();
+                kieBases.put(key, shared);
+                owner = true;
+            }
+            shared.references++;
+            references++;
+        }
+
+        if (owner) {
+            RuleArtifactService.Loaded loaded;
+            try {
+                loaded = loader.get();
+            } catch (RuntimeException e) {
+                synchronized (this) {
+                    kieBases.remove(key, shared);
+                    references -= shared.references;
+                }
+                shared.kieBase.completeExceptionally(e);
+                throw e;
+            }
+            shared.kieBase.complete(loaded.kieBase());
+            return new Lease(key, shared, loaded.kieBase(), loaded.source());
+        }
+
+        try {
+            return new Lease(key, shared, shared.kieBase.join(), RuleArtifactService.Source.SHARED);
+        } catch (CompletionException e) {
+            // The owner removed the entry and its references when the build failed
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    public synchronized int size() {
+        return kieBases.size();
+    }
+
+    public synchronized int references() {
+        return references;
+    }
+
+    private synchronized void release(Key key, Shared shared) {
+        if (kieBases.get(key) != shared) {
+            return;
+        }
+        references--;
+        if (--shared.references == 0) {
+            kieBases.remove(key);
+            log.debug("Released shared KieBase {} ({}, sequential={})", key.drlHash().substring(0, 16), key.mode(),
+                    key.sequential());
+        }
+    }
+
+    /**
+     * SHA-256 of the DRL with line endings unified, trailing whitespace removed and the source
+     * stripped, so copies that differ only in formatting share a KieBase. Comments and
+     * indentation are kept: telling them apart from string contents needs a DRL parser.
+     */
+    static String hash(String drlSource) {
+        String normalized = TRAILING_WHITESPACE.matcher(drlSource.replace("\r\n", "\n").replace('\r', '\n'))
+                .replaceAll("")
+                .strip();
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(normalized.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
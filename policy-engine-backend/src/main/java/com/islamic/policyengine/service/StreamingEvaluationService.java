@@ -0,0 +1,219 @@
+package com.islamic.policyengine.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.islamic.policyengine.model.dto.BatchItemResult;
+import com.islamic.policyengine.model.dto.EvaluationRequest;
+import com.islamic.policyengine.model.dto.EvaluationResponse;
+import com.islamic.policyengine.model.snapshot.RuleSnapshot;
+import com.islamic.policyengine.service.RuleExecutionGuard.ExecutionMode;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Evaluates a newline-delimited JSON stream of inputs against one policy and writes one NDJSON
+ * result line per input, in input order.
+ *
+ * <p>Lines are read one at a time and handed to the bulk evaluation pool; at most
+ * {@code policy-engine.stream.max-in-flight} items are outstanding, and the reader blocks on the
+ * oldest one before reading further. A line longer than {@code max-line-length} characters is
+ * skipped up to its newline and answered with a {@code VALIDATION_ERROR} entry, so memory is
+ * bounded by the window and the line limit, not by the length of the stream. Audit records go through the write-behind {@link AuditWriter} as each
+ * result is written.</p>
+ */
+@Slf4j
+@Service
+public class StreamingEvaluationService {
+
+    private static final TypeReference<Map<String, Object>> DATA_TYPE = new TypeReference<>() {
+    };
+
+    private final PolicyEvaluationService policyEvaluationService;
+    private final AuditService auditService;
+    private final ObjectMapper objectMapper;
+    private final ForkJoinPool evaluationPool;
+    private final int maxInFlight;
+    private final long timeoutMs;
+    private final int maxLineLength;
+
+    public StreamingEvaluationService(PolicyEvaluationService policyEvaluationService,
+                                      AuditService auditService,
+                                      ObjectMapper objectMapper,
+                                      @Qualifier("bulkEvaluationPool") ForkJoinPool bulkEvaluationPool,
+                                      @Value("${policy-engine.stream.max-in-flight:256}") int maxInFlight,
+                                      @Value("${policy-engine.stream.timeout-ms:3600000}") long timeoutMs,
+                                      @Value("${policy-engine.stream.max-line-length:1048576}") int maxLineLength) {
+        this.policyEvaluationService = policyEvaluationService;
+        this.auditService = auditService;
+        this.objectMapper = objectMapper;
+        this.evaluationPool = bulkEvaluationPool;
+        this.maxInFlight = Math.max(1, maxInFlight);
+        this.timeoutMs = timeoutMs;
+        this.maxLineLength = Math.max(1, maxLineLength);
+    }
+
+    /** Async timeout of an evaluate-stream request. */
+    public long getTimeoutMs() {
+        return timeoutMs;
+    }
+
+    /**
+     * Resolves the active rule and its compiled state up front, so an unknown policy type is
+     * reported as a normal error response before any output is written.
+     */
+    public StreamingResponseBody evaluateStream(String policyType, InputStream input) {
+        RuleSnapshot rule = policyEvaluationService.findActiveRule(policyType);
+        CompiledRule compiled = policyEvaluationService.compile(rule);
+        return output -> stream(rule, compiled, input, output);
+    }
+
+    private void stream(RuleSnapshot rule, CompiledRule compiled, InputStream input, OutputStream output)
+            throws IOException {
+        LineReader lines = new LineReader(
+                new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8)), maxLineLength);
+        OutputStream out = new BufferedOutputStream(output);
+        Deque<CompletableFuture<Evaluated>> inFlight = new ArrayDeque<>(maxInFlight);
+
+        try {
+            int index = 0;
+            String line;
+            while ((line = lines.next()) != null) {
+                if (!lines.truncated() && line.isBlank()) {
+                    continue;
+                }
+                if (inFlight.size() == maxInFlight) {
+                    write(rule, inFlight.poll(), out);
+                }
+                int itemIndex = index++;
+                if (lines.truncated()) {
+                    inFlight.add(CompletableFuture.completedFuture(new Evaluated(BatchItemResult.builder()
+                            .index(itemIndex)
+                            .error("VALIDATION_ERROR")
+                            .message("Line exceeds " + maxLineLength + " characters")
+                            .build(), null, null)));
+                    continue;
+                }
+                String itemLine = line;
+                inFlight.add(CompletableFuture.supplyAsync(
+                        () -> evaluateLine(rule, compiled, itemIndex, itemLine), evaluationPool));
+            }
+            while (!inFlight.isEmpty()) {
+                write(rule, inFlight.poll(), out);
+            }
+            out.flush();
+            log.debug("Streamed {} evaluations for {}", index, rule.getPolicyType());
+        } finally {
+            // Client went away or the write failed: don't keep evaluating what nobody will read
+            inFlight.forEach(future -> future.cancel(false));
+        }
+    }
+
+    private Evaluated evaluateLine(RuleSnapshot rule, CompiledRule compiled, int index, String line) {
+        Map<String, Object> data;
+        try {
+            data = objectMapper.readValue(line, DATA_TYPE);
+        } catch (JsonProcessingException e) {
+            return new Evaluated(BatchItemResult.builder()
+                    .index(index)
+                    .error("VALIDATION_ERROR")
+                    .message("Malformed JSON: " + e.getOriginalMessage())
+                    .build(), null, null);
+        }
+
+        try {
+            // Already on a bulk pool worker; fire here rather than blocking it on the rule executor
+            EvaluationResponse response = policyEvaluationService.evaluateCompiled(rule, compiled, data,
+                    ExecutionMode.INLINE);
+            return new Evaluated(BatchItemResult.builder()
+                    .index(index)
+                    .result(response.getResult())
+                    .evaluationMs(response.getEvaluationMs())
+                    .build(), data, response);
+        } catch (RuntimeException e) {
+            return new Evaluated(BatchEvaluationService.failure(index, e), null, null);
+        }
+    }
+
+    private void write(RuleSnapshot rule, CompletableFuture<Evaluated> next, OutputStream out) throws IOException {
+        if (!next.isDone()) {
+            // About to block: push what is already written to the client first
+            out.flush();
+        }
+        Evaluated evaluated = next.join();
+        out.write(objectMapper.writeValueAsBytes(evaluated.item()));
+        out.write('\n');
+        if (evaluated.response() != null) {
+            auditService.log(rule.getPolicyType(), rule, EvaluationRequest.builder().data(evaluated.data()).build(),
+                    evaluated.response(), evaluated.response().getEvaluationMs());
+        }
+    }
+
+    private record Evaluated(BatchItemResult item, Map<String, Object> data, EvaluationResponse response) {
+    }
+
+    /**
+     * {@link BufferedReader#readLine()} with a length limit: characters past {@code maxLength}
+     * are read and discarded up to the newline, and {@link #truncated()} reports it.
+     */
+    static final class LineReader {
+
+        private final Reader reader;
+        private final int maxLength;
+        private final StringBuilder line = new StringBuilder();
+        private boolean truncated;
+
+        LineReader(Reader reader, int maxLength) {
+            this.reader = reader;
+            this.maxLength = maxLength;
+        }
+
+        /** The next line without its terminator, or null at the end of the input. */
+        String next() throws IOException {
+            line.setLength(0);
+            truncated = false;
+            int c;
+            while ((c = reader.read()) != -1) {
+                if (c == '\n') {
+                    return current();
+                }
+                if (line.length() < maxLength) {
+                    line.append((char) c);
+                } else {
+                    truncated = true;
+                }
+            }
+            return line.length() > 0 || truncated ? current() : null;
+        }
+
+        /** Whether the line returned last was longer than the limit. */
+        boolean truncated() {
+            return truncated;
+        }
+
+        private String current() {
+            int end = line.length();
+            if (end > 0 && line.charAt(end - 1) == '\r') {
+                end--;
+            }
+            return truncated ? "" : line.substring(0, end);
+        }
+    }
+}
@@ -0,0 +1,338 @@
+package com.islamic.policyengine.benchmark;
+
+import com.islamic.policyengine.model.enums.CompileMode;
+import com.islamic.policyengine.model.snapshot.RuleFieldSnapshot;
+import com.islamic.policyengine.model.snapshot.RuleParameterSnapshot;
+import com.islamic.policyengine.model.snapshot.RuleSnapshot;
+import com.islamic.policyengine.service.FactBindingPlan;
+import com.islamic.policyengine.service.KieBaseCompiler;
+import com.islamic.policyengine.service.KieSessionPool;
+import com.islamic.policyengine.service.RuleExecutionGuard;
+import com.islamic.policyengine.service.RuleExecutionGuard.ExecutionMode;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.kie.api.KieBase;
+import org.kie.api.definition.type.FactType;
+import org.kie.api.runtime.KieSession;
+import org.kie.api.runtime.StatelessKieSession;
+
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Throughput / thread-count / allocation comparisons for the evaluation pipeline.
+ * Excluded from the default build; run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+class EvaluationBenchmarkTest {
+
+    private static final int CLIENT_THREADS = 32;
+    private static final int EVALUATIONS_PER_THREAD = 2_000;
+    private static final int WARMUP_EVALUATIONS = 5_000;
+    private static final int COMPILE_ROUNDS = 20;
+
+    static final String PACKAGE = "com.islamic.policyengine.rules";
+    static final String FACT_TYPE = "TransactionCheck";
+    static final BigDecimal DAILY_LIMIT = new BigDecimal("10000000");
+
+    static final String DRL = """
+            package com.islamic.policyengine.rules;
+
+            import java.math.BigDecimal;
+
+            global java.math.BigDecimal dailyLimit;
+
+            declare TransactionCheck
+                transactionAmount : java.math.BigDecimal
+                dailyCumulativeAmount : java.math.BigDecimal
+                allowed : boolean
+                reason : String
+            end
+
+            rule "Transaction within limit"
+                when
+                    $fact : TransactionCheck(
+                        transactionAmount.add(dailyCumulativeAmount).compareTo(dailyLimit) <= 0
+                    )
+                then
+                    $fact.setAllowed(true);
+                    $fact.setReason("Transaction within daily limit");
+            end
+
+            rule "Transaction limit exceeded"
+                when
+                    $fact : TransactionCheck(
+                        transactionAmount.add(dailyCumulativeAmount).compareTo(dailyLimit) > 0
+                    )
+                then
+                    $fact.setAllowed(false);
+                    $fact.setReason("Daily limit exceeded");
+            end
+            """;
+
+    private static KieBase kieBase;
+    private static KieBase sequentialKieBase;
+    private static FactType factType;
+
+    @BeforeAll
+    static void compile() {
+        KieBaseCompiler compiler = new KieBaseCompiler();
+        kieBase = compiler.compile(DRL, false);
+        sequentialKieBase = compiler.compile(DRL, true);
+        factType = kieBase.getFactType(PACKAGE, FACT_TYPE);
+    }
+
+    @Test
+    void inlineFiringVersusExecutorHop() throws Exception {
+        for (ExecutionMode mode : ExecutionMode.values()) {
+            RuleExecutionGuard guard = new RuleExecutionGuard(5000, 10_000, mode, 0, 1000);
+            try {
+                Measurement measurement = measure("fire " + mode, () -> {
+                    KieSession session = kieBase.newKieSession();
+                    try {
+                        session.setGlobal("dailyLimit", DAILY_LIMIT);
+                        Object fact = newFact();
+                        session.insert(fact);
+                        guard.fireAllRules(session);
+                        assertThat(factType.get(fact, "allowed")).isEqualTo(true);
+                    } finally {
+                        session.dispose();
+                    }
+                });
+                measurement.print();
+            } finally {
+                guard.destroy();
+            }
+        }
+    }
+
+    @Test
+    void statelessVersusStatefulSession() throws Exception {
+        assertThat(KieBaseCompiler.isStatelessEligible(DRL)).isTrue();
+        RuleExecutionGuard guard = new RuleExecutionGuard(5000, 10_000, ExecutionMode.INLINE, 0, 1000);
+        try {
+            measure("stateful KieSession", () -> {
+                KieSession session = kieBase.newKieSession();
+                try {
+                    session.setGlobal("dailyLimit", DAILY_LIMIT);
+                    Object fact = newFact();
+                    session.insert(fact);
+                    guard.fireAllRules(session);
+                    assertThat(factType.get(fact, "allowed")).isEqualTo(true);
+                } finally {
+                    session.dispose();
+                }
+            }).print();
+
+            for (KieBase base : new KieBase[]{kieBase, sequentialKieBase}) {
+                FactType baseFactType = base.getFactType(PACKAGE, FACT_TYPE);
+                measure(base == kieBase ? "stateless KieSession" : "stateless KieSession (sequential)", () -> {
+                    StatelessKieSession session = base.newStatelessKieSession();
+                    session.setGlobal("dailyLimit", DAILY_LIMIT);
+                    Object fact = newFact(baseFactType);
+                    guard.execute(session, fact);
+                    assertThat(baseFactType.get(fact, "allowed")).isEqualTo(true);
+                }).print();
+            }
+        } finally {
+            guard.destroy();
+        }
+    }
+
+    @Test
+    void pooledVersusFreshSession() throws Exception {
+        RuleExecutionGuard guard = new RuleExecutionGuard(5000, 10_000, ExecutionMode.INLINE, 0, 1000);
+        KieSessionPool pool = new KieSessionPool(kieBase, CLIENT_THREADS);
+        try {
+            measure("pooled KieSession", () -> {
+                KieSession session = pool.borrow();
+                boolean reusable = false;
+                try {
+                    session.setGlobal("dailyLimit", DAILY_LIMIT);
+                    Object fact = newFact();
+                    session.insert(fact);
+                    guard.fireAllRules(session);
+                    assertThat(factType.get(fact, "allowed")).isEqualTo(true);
+                    reusable = true;
+                } finally {
+                    pool.release(session, reusable);
+                }
+            }).print();
+            System.out.printf("pool hits %d, misses %d, discarded %d%n",
+                    pool.getHits(), pool.getMisses(), pool.getDiscarded());
+        } finally {
+            pool.close();
+            guard.destroy();
+        }
+    }
+
+    @Test
+    void classicVersusExecutableModel() throws Exception {
+        KieBaseCompiler compiler = new KieBaseCompiler();
+        RuleExecutionGuard guard = new RuleExecutionGuard(5000, 10_000, ExecutionMode.INLINE, 0, 1000);
+        try {
+            for (CompileMode mode : CompileMode.values()) {
+                // The first build pays for class loading; time the ones after it
+                compiler.compile(DRL, false, mode);
+                long begin = System.nanoTime();
+                KieBase base = null;
+                for (int i = 0; i < COMPILE_ROUNDS; i++) {
+                    base = compiler.compile(DRL, false, mode);
+                }
+                System.out.printf("%-40s %10.1f ms/build%n", "compile " + mode,
+                        (System.nanoTime() - begin) / 1_000_000.0 / COMPILE_ROUNDS);
+
+                KieBase modeKieBase = base;
+                FactType modeFactType = modeKieBase.getFactType(PACKAGE, FACT_TYPE);
+                measure("evaluate " + mode, () -> {
+                    KieSession session = modeKieBase.newKieSession();
+                    try {
+                        session.setGlobal("dailyLimit", DAILY_LIMIT);
+                        Object fact = newFact(modeFactType);
+                        session.insert(fact);
+                        guard.fireAllRules(session);
+                        assertThat(modeFactType.get(fact, "allowed")).isEqualTo(true);
+                    } finally {
+                        session.dispose();
+                    }
+                }).print();
+            }
+        } finally {
+            guard.destroy();
+        }
+    }
+
+    @Test
+    void reflectiveBindingVersusBindingPlan() throws Exception {
+        RuleSnapshot rule = RuleSnapshot.builder()
+                .factTypeName(FACT_TYPE)
+                .fields(List.of(
+                        field("transactionAmount", "BIG_DECIMAL", "INPUT", 0),
+                        field("dailyCumulativeAmount", "BIG_DECIMAL", "INPUT", 1),
+                        field("allowed", "BOOLEAN", "RESULT", 2),
+                        field("reason", "STRING", "RESULT", 3)))
+                .parameters(List.of(RuleParameterSnapshot.builder()
+                        .paramKey("dailyLimit").paramValue(DAILY_LIMIT.toPlainString()).paramType("DECIMAL").build()))
+                .build();
+        FactBindingPlan plan = FactBindingPlan.compile(kieBase, rule);
+        assertThat(plan).isNotNull();
+
+        Map<String, Object> data = Map.of(
+                "transactionAmount", "3000000",
+                "dailyCumulativeAmount", 5000000);
+
+        measure("FactType reflective binding", () -> {
+            try {
+                Object fact = factType.newInstance();
+                for (RuleFieldSnapshot input : rule.getInputFields()) {
+                    Object raw = data.get(input.getFieldName());
+                    factType.set(fact, input.getFieldName(), new BigDecimal(raw.toString()));
+                }
+                Map<String, Object> result = new HashMap<>();
+                for (RuleFieldSnapshot output : rule.getResultFields()) {
+                    result.put(output.getFieldName(), factType.get(fact, output.getFieldName()));
+                }
+                assertThat(result).hasSize(2);
+            } catch (InstantiationException | IllegalAccessException e) {
+                throw new IllegalStateException(e);
+            }
+        }).print();
+
+        measure("precompiled binding plan", () -> {
+            Object fact = plan.newFact(data);
+            assertThat(plan.readResult(fact)).hasSize(2);
+        }).print();
+    }
+
+    private static RuleFieldSnapshot field(String name, String type, String category, int order) {
+        return RuleFieldSnapshot.builder()
+                .fieldName(name).fieldType(type).fieldCategory(category).fieldOrder(order).build();
+    }
+
+    static Object newFact() {
+        return newFact(factType);
+    }
+
+    static Object newFact(FactType factType) {
+        try {
+            Object fact = factType.newInstance();
+            factType.set(fact, "transactionAmount", new BigDecimal("3000000"));
+            factType.set(fact, "dailyCumulativeAmount", new BigDecimal("5000000"));
+            return fact;
+        } catch (InstantiationException | IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Runs {@code evaluation} {@link #WARMUP_EVALUATIONS} times on the calling thread, then
+     * {@link #EVALUATIONS_PER_THREAD} times on each of {@link #CLIENT_THREADS} client threads,
+     * recording wall time, peak JVM thread count and bytes allocated by the client threads.
+     */
+    static Measurement measure(String label, Runnable evaluation) throws InterruptedException {
+        for (int i = 0; i < WARMUP_EVALUATIONS; i++) {
+            evaluation.run();
+        }
+
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] clients = new Thread[CLIENT_THREADS];
+        long[] allocated = new long[CLIENT_THREADS];
+        for (int t = 0; t < CLIENT_THREADS; t++) {
+            int index = t;
+            clients[t] = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                long before = threads.getCurrentThreadAllocatedBytes();
+                for (int i = 0; i < EVALUATIONS_PER_THREAD; i++) {
+                    evaluation.run();
+                }
+                allocated[index] = threads.getCurrentThreadAllocatedBytes() - before;
+            }, "bench-client-" + t);
+            clients[t].start();
+        }
+
+        threads.resetPeakThreadCount();
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Thread client : clients) {
+            client.join();
+        }
+        long elapsedNanos = System.nanoTime() - begin;
+
+        long totalAllocated = 0;
+        for (long bytes : allocated) {
+            totalAllocated += bytes;
+        }
+        long operations = (long) CLIENT_THREADS * EVALUATIONS_PER_THREAD;
+        return new Measurement(label, operations, elapsedNanos, threads.getPeakThreadCount(), totalAllocated);
+    }
+
+    record Measurement(String label, long operations, long elapsedNanos, int peakThreads, long allocatedBytes) {
+
+        double throughput() {
+            return operations / (elapsedNanos / 1_000_000_000.0);
+        }
+
+        double meanLatencyMicros() {
+            return (elapsedNanos / 1_000.0) * CLIENT_THREADS / operations;
+        }
+
+        void print() {
+            System.out.printf("%-40s %10.0f ops/s %10.1f us/op %6d peak threads %10d B/op%n",
+                    label, throughput(), meanLatencyMicros(), peakThreads, allocatedBytes / operations);
+        }
+    }
+}
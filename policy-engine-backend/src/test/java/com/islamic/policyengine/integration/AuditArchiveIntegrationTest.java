@@ -0,0 +1,150 @@
+package com.islamic.policyengine.integration;
+
+import com.islamic.policyengine.repository.AuditArchiveRepository;
+import com.islamic.policyengine.repository.AuditExportRow;
+import com.islamic.policyengine.repository.AuditLogFilter;
+import com.islamic.policyengine.service.AuditArchiveService;
+import com.islamic.policyengine.service.AuditQueryService;
+import com.islamic.policyengine.service.AuditRecord;
+import com.islamic.policyengine.service.AuditWriter;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Testcontainers
+class AuditArchiveIntegrationTest {
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15-alpine")
+            .withDatabaseName("policy_engine_test")
+            .withUsername("test")
+            .withPassword("test");
+
+    private static final Path ARCHIVE_DIRECTORY = createTempDirectory();
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("spring.jpa.hibernate.ddl-auto", () -> "validate");
+        registry.add("policy-engine.audit.archive.enabled", () -> "true");
+        registry.add("policy-engine.audit.archive.directory", ARCHIVE_DIRECTORY::toString);
+        registry.add("policy-engine.audit.archive.row-group-size", () -> "2");
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private AuditArchiveService auditArchiveService;
+
+    @Autowired
+    private AuditArchiveRepository auditArchiveRepository;
+
+    @Autowired
+    private AuditQueryService auditQueryService;
+
+    @Autowired
+    private AuditWriter auditWriter;
+
+    @Test
+    void archive_shouldMoveOldMonthsOutOfTheDatabase() {
+        YearMonth month = YearMonth.now().minusMonths(6);
+        LocalDateTime createdAt = month.atDay(12).atTime(10, 0);
+        UUID id = UUID.randomUUID();
+        auditWriter.submit(AuditRecord.builder()
+                .id(id)
+                .policyType("TRANSACTION_LIMIT")
+                .inputData(Map.of("transactionAmount", 4242))
+                .outputData(Map.of("allowed", true))
+                .evaluationMs(3)
+                .callerId("archive-test")
+                .createdAt(createdAt)
+                .build());
+        auditWriter.flush();
+        insertRow(month.atDay(12).atTime(11, 0));
+        insertRow(month.atDay(20).atTime(9, 0));
+        AuditLogFilter filter = new AuditLogFilter(null, null, month.atDay(1), month.atEndOfMonth());
+
+        auditArchiveService.archive();
+
+        assertThat(tableExists(month)).isFalse();
+        assertThat(auditArchiveRepository.months()).contains(month);
+        assertThat(auditArchiveRepository.stagedMonths()).doesNotContain(month);
+        assertThat(auditQueryService.count(filter)).isEqualTo(3);
+        assertThat(auditArchiveRepository.estimateCount(filter)).isEqualTo(3);
+
+        StringWriter detail = new StringWriter();
+        assertThat(auditQueryService.streamDetail(id, createdAt.toLocalDate(), () -> detail)).isTrue();
+        assertThat(detail.toString()).contains("4242").contains("\"callerId\":\"archive-test\"");
+        // Without the day the archive is not searched
+        assertThat(auditQueryService.streamDetail(id, null, StringWriter::new)).isFalse();
+    }
+
+    @Test
+    void archive_shouldRestageAnInterruptedMonthFromItsDetachedPartition() {
+        YearMonth month = YearMonth.now().minusMonths(7);
+        String partition = jdbcTemplate.queryForObject("SELECT create_audit_log_partition(?)", String.class,
+                Date.valueOf(month.atDay(1)));
+        LocalDate day = month.atDay(3);
+        UUID staged = insertRow(day.atTime(8, 0));
+        // Inserted after the interrupted run read its day, so only the detached table has it
+        insertRow(day.atTime(8, 30));
+
+        auditArchiveRepository.prepareStaging(month);
+        auditArchiveRepository.writeDay(day, sink -> sink.accept(new AuditExportRow(staged, "TRANSACTION_LIMIT", null,
+                null, 1, false, null, day.atTime(8, 0), null, null)));
+        jdbcTemplate.execute("ALTER TABLE policy_audit_log DETACH PARTITION " + partition);
+        assertThat(auditArchiveRepository.stagedMonths()).contains(month);
+
+        auditArchiveService.archive();
+
+        assertThat(tableExists(month)).isFalse();
+        assertThat(auditArchiveRepository.stagedMonths()).doesNotContain(month);
+        assertThat(auditQueryService.count(new AuditLogFilter(null, null, day, day))).isEqualTo(2);
+    }
+
+    private UUID insertRow(LocalDateTime createdAt) {
+        UUID id = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO policy_audit_log (id, policy_type, evaluation_ms, created_at) "
+                + "VALUES (?, 'TRANSACTION_LIMIT', 1, ?)", id, Timestamp.valueOf(createdAt));
+        return id;
+    }
+
+    private boolean tableExists(YearMonth month) {
+        String name = String.format("policy_audit_log_y%04dm%02d", month.getYear(), month.getMonthValue());
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject("SELECT to_regclass(?) IS NOT NULL", Boolean.class,
+                name));
+    }
+
+    private static Path createTempDirectory() {
+        try {
+            return Files.createTempDirectory("audit-archive");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.islamic.policyengine.integration;
+
+import com.islamic.policyengine.service.AuditRecord;
+import com.islamic.policyengine.service.AuditWriter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Testcontainers
+class AuditJournalIntegrationTest {
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15-alpine")
+            .withDatabaseName("policy_engine_test")
+            .withUsername("test")
+            .withPassword("test");
+
+    private static final Path JOURNAL_DIRECTORY = createTempDirectory();
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("spring.jpa.hibernate.ddl-auto", () -> "validate");
+        registry.add("policy-engine.audit.journal.enabled", () -> "true");
+        registry.add("policy-engine.audit.journal.directory", JOURNAL_DIRECTORY::toString);
+        registry.add("policy-engine.audit.journal.segment-size-mb", () -> "1");
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private AuditWriter auditWriter;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void rejectedRecord_shouldBeDeadLetteredWithoutHoldingBackTheRestOfItsBatch() throws Exception {
+        UUID before = submit(Map.of("note", "ok"));
+        // jsonb cannot store \u0000, so the database rejects this payload whatever is retried
+        UUID poison = submit(Map.of("note", "bad\u0000value"));
+        UUID after = submit(Map.of("note", "ok too"));
+        double failedBefore = failed();
+
+        auditWriter.flush();
+
+        assertThat(jdbcTemplate.queryForList("SELECT id FROM policy_audit_log WHERE id IN (?, ?, ?)", UUID.class,
+                before, poison, after)).containsExactlyInAnyOrder(before, after);
+        assertThat(failed() - failedBefore).isEqualTo(1);
+        List<String> deadLetters = Files.readAllLines(JOURNAL_DIRECTORY.resolve("dead-letter.ndjson"));
+        assertThat(deadLetters).hasSize(1);
+        assertThat(deadLetters.get(0)).contains(poison.toString()).contains("\"policyType\":\"TRANSACTION_LIMIT\"");
+        assertThat(meterRegistry.get("policyengine.audit.journal.lag").gauge().value()).isZero();
+    }
+
+    private UUID submit(Map<String, Object> input) {
+        UUID id = UUID.randomUUID();
+        auditWriter.submit(AuditRecord.builder()
+                .id(id)
+                .policyType("TRANSACTION_LIMIT")
+                .inputData(input)
+                .outputData(Map.of("allowed", true))
+                .evaluationMs(1)
+                .createdAt(LocalDateTime.now())
+                .build());
+        return id;
+    }
+
+    private double failed() {
+        return meterRegistry.get("policyengine.audit.records").tag("result", "failed").functionCounter().count();
+    }
+
+    private static Path createTempDirectory() {
+        try {
+            return Files.createTempDirectory("audit-journal");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.islamic.policyengine.integration;
+
+import com.islamic.policyengine.service.AuditPartitionService;
+import com.islamic.policyengine.service.AuditRecord;
+import com.islamic.policyengine.service.AuditWriter;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Testcontainers
+class AuditPartitionIntegrationTest {
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15-alpine")
+            .withDatabaseName("policy_engine_test")
+            .withUsername("test")
+            .withPassword("test");
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("spring.jpa.hibernate.ddl-auto", () -> "validate");
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private AuditPartitionService auditPartitionService;
+
+    @Autowired
+    private AuditWriter auditWriter;
+
+    @Test
+    void startup_shouldCreateTheCurrentAndPremadeMonths() {
+        YearMonth current = YearMonth.now();
+
+        assertThat(partitionExists(current)).isTrue();
+        assertThat(partitionExists(current.plusMonths(2))).isTrue();
+    }
+
+    @Test
+    void concurrentCreation_shouldCreateTheMonthOnce() throws Exception {
+        YearMonth month = YearMonth.of(2097, 3);
+        int callers = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<CompletableFuture<String>> created = new ArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                created.add(CompletableFuture.supplyAsync(() -> {
+                    await(start);
+                    return jdbcTemplate.queryForObject("SELECT create_audit_log_partition(?)", String.class,
+                            Date.valueOf(month.atDay(1)));
+                }, executor));
+            }
+            start.countDown();
+            for (CompletableFuture<String> future : created) {
+                assertThat(future.get(30, TimeUnit.SECONDS)).isEqualTo("policy_audit_log_y2097m03");
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(partitionExists(month)).isTrue();
+    }
+
+    @Test
+    void writer_shouldCreateAMissingPartitionAndKeepTheRecord() {
+        YearMonth month = YearMonth.of(2098, 6);
+        assertThat(partitionExists(month)).isFalse();
+        UUID id = UUID.randomUUID();
+
+        auditWriter.submit(AuditRecord.builder()
+                .id(id)
+                .policyType("TRANSACTION_LIMIT")
+                .inputData(Map.of("amount", 1))
+                .outputData(Map.of("allowed", true))
+                .evaluationMs(1)
+                .createdAt(month.atDay(15).atTime(12, 0))
+                .build());
+        auditWriter.flush();
+
+        assertThat(partitionExists(month)).isTrue();
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM policy_audit_log_y2098m06 WHERE id = ?",
+                Integer.class, id)).isEqualTo(1);
+    }
+
+    @Test
+    void retention_shouldDropMonthsBeforeTheWindow() {
+        YearMonth expired = YearMonth.now().minusMonths(24);
+        jdbcTemplate.queryForObject("SELECT create_audit_log_partition(?)", String.class,
+                Date.valueOf(expired.atDay(1)));
+        insertRow(expired.atDay(10).atStartOfDay());
+        insertRow(LocalDateTime.now());
+
+        AuditPartitionService retention = new AuditPartitionService(jdbcTemplate, 2, 12,
+                AuditPartitionService.RetentionAction.DROP);
+        retention.maintain();
+
+        assertThat(partitionExists(expired)).isFalse();
+        assertThat(partitionExists(YearMonth.now())).isTrue();
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM policy_audit_log WHERE created_at < ?",
+                Integer.class, Timestamp.valueOf(expired.plusMonths(1).atDay(1).atStartOfDay()))).isZero();
+    }
+
+    private void insertRow(LocalDateTime createdAt) {
+        jdbcTemplate.update("INSERT INTO policy_audit_log (id, policy_type, evaluation_ms, created_at) "
+                + "VALUES (?, 'TRANSACTION_LIMIT', 1, ?)", UUID.randomUUID(), Timestamp.valueOf(createdAt));
+    }
+
+    private boolean partitionExists(YearMonth month) {
+        String name = String.format("policy_audit_log_y%04dm%02d", month.getYear(), month.getMonthValue());
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject("SELECT to_regclass(?) IS NOT NULL", Boolean.class,
+                name));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -1,23 +1,35 @@
 package com.islamic.policyengine.integration;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.islamic.policyengine.model.dto.BatchEvaluationRequest;
 import com.islamic.policyengine.model.dto.EvaluationRequest;
-import com.islamic.policyengine.repository.AuditLogRepository;
+import com.islamic.policyengine.model.dto.MultiPolicyEvaluationRequest;
+import com.islamic.policyengine.service.AuditSearchIndexService;
+import com.islamic.policyengine.service.AuditWriter;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.DynamicPropertyRegistry;
 import org.springframework.test.context.DynamicPropertySource;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.testcontainers.containers.PostgreSQLContainer;
 import org.testcontainers.junit.jupiter.Container;
 import org.testcontainers.junit.jupiter.Testcontainers;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Map;
+import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -48,11 +60,18 @@ class PolicyEvaluationIntegrationTest {
     private ObjectMapper objectMapper;
 
     @Autowired
-    private AuditLogRepository auditLogRepository;
+    private AuditWriter auditWriter;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private AuditSearchIndexService auditSearchIndexService;
 
     @Test
     void evaluateTransactionLimit_shouldReturnResultAndCreateAudit() throws Exception {
-        long auditCountBefore = auditLogRepository.count();
+        auditWriter.flush();
+        long auditCountBefore = auditCount();
 
         EvaluationRequest request = EvaluationRequest.builder()
                 .data(Map.of(
@@ -69,10 +88,84 @@ class PolicyEvaluationIntegrationTest {
                 .andExpect(jsonPath("$.policyType").value("TRANSACTION_LIMIT"))
                 .andExpect(jsonPath("$.result.allowed").value(true));
 
-        long auditCountAfter = auditLogRepository.count();
+        auditWriter.flush();
+        long auditCountAfter = auditCount();
         assertThat(auditCountAfter).isGreaterThan(auditCountBefore);
     }
 
+    @Test
+    void evaluateBatch_shouldReturnResultsInOrderAndAuditSuccessfulItems() throws Exception {
+        auditWriter.flush();
+        long auditCountBefore = auditCount();
+
+        BatchEvaluationRequest request = BatchEvaluationRequest.builder()
+                .items(List.of(
+                        Map.of("accountTier", "SILVER", "transactionAmount", 3000000, "dailyCumulativeAmount", 5000000),
+                        Map.of("accountTier", "SILVER", "transactionAmount", "not-a-number", "dailyCumulativeAmount", 0),
+                        Map.of("accountTier", "SILVER", "transactionAmount", 8000000, "dailyCumulativeAmount", 5000000)
+                ))
+                .build();
+
+        mockMvc.perform(post("/api/v1/policies/TRANSACTION_LIMIT/evaluate-batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total").value(3))
+                .andExpect(jsonPath("$.succeeded").value(2))
+                .andExpect(jsonPath("$.results[0].index").value(0))
+                .andExpect(jsonPath("$.results[0].result.allowed").value(true))
+                .andExpect(jsonPath("$.results[1].error").value("VALIDATION_ERROR"))
+                .andExpect(jsonPath("$.results[2].result.allowed").value(false));
+
+        auditWriter.flush();
+        assertThat(auditCount()).isEqualTo(auditCountBefore + 2);
+    }
+
+    @Test
+    void evaluateStream_shouldWriteOneResultLinePerInputLine() throws Exception {
+        String body = "{\"accountTier\":\"SILVER\",\"transactionAmount\":3000000,\"dailyCumulativeAmount\":5000000}\n"
+                + "not json\n"
+                + "\n"
+                + "{\"accountTier\":\"SILVER\",\"transactionAmount\":8000000,\"dailyCumulativeAmount\":5000000}\n";
+
+        MvcResult started = mockMvc.perform(post("/api/v1/policies/TRANSACTION_LIMIT/evaluate-stream")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(body))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String output = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        String[] lines = output.split("\n");
+        assertThat(lines).hasSize(3);
+        assertThat(objectMapper.readTree(lines[0]).at("/result/allowed").asBoolean()).isTrue();
+        assertThat(objectMapper.readTree(lines[1]).get("error").asText()).isEqualTo("VALIDATION_ERROR");
+        assertThat(objectMapper.readTree(lines[2]).at("/result/allowed").asBoolean()).isFalse();
+    }
+
+    @Test
+    void evaluateStream_shouldRejectOverLongLinesAndContinue() throws Exception {
+        String body = "{\"accountTier\":\"SILVER\",\"note\":\"" + "x".repeat(2_000_000) + "\"}\n"
+                + "{\"accountTier\":\"SILVER\",\"transactionAmount\":3000000,\"dailyCumulativeAmount\":5000000}\n";
+
+        MvcResult started = mockMvc.perform(post("/api/v1/policies/TRANSACTION_LIMIT/evaluate-stream")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(body))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String output = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        String[] lines = output.split("\n");
+        assertThat(lines).hasSize(2);
+        assertThat(objectMapper.readTree(lines[0]).get("error").asText()).isEqualTo("VALIDATION_ERROR");
+        assertThat(objectMapper.readTree(lines[1]).at("/result/allowed").asBoolean()).isTrue();
+    }
+
     @Test
     void evaluateFinancingEligibility_shouldReturnResult() throws Exception {
         EvaluationRequest request = EvaluationRequest.builder()
@@ -112,6 +205,40 @@ class PolicyEvaluationIntegrationTest {
                 .andExpect(jsonPath("$.result.riskScore").value(50));
     }
 
+    @Test
+    void evaluateMultiplePolicies_shouldReturnEachPolicyInRequestOrder() throws Exception {
+        MultiPolicyEvaluationRequest request = MultiPolicyEvaluationRequest.builder()
+                .policyTypes(List.of("TRANSACTION_LIMIT", "RISK_FLAG", "INVALID_TYPE"))
+                .data(Map.of(
+                        "accountTier", "SILVER",
+                        "transactionAmount", 150000000,
+                        "dailyCumulativeAmount", 0,
+                        "destinationRegion", "IRAN",
+                        "transactionFrequency", 3,
+                        "isNewBeneficiary", false
+                ))
+                .build();
+
+        mockMvc.perform(post("/api/v1/policies/evaluate")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.results[0].policyType").value("TRANSACTION_LIMIT"))
+                .andExpect(jsonPath("$.results[0].result.allowed").value(false))
+                .andExpect(jsonPath("$.results[1].policyType").value("RISK_FLAG"))
+                .andExpect(jsonPath("$.results[1].result.flagged").value(true))
+                .andExpect(jsonPath("$.results[2].error").value("POLICY_NOT_FOUND"));
+
+        // RISK_FLAG does not declare accountTier, but its audit entry keeps the caller's input
+        auditWriter.flush();
+        Integer audited = jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM policy_audit_log WHERE policy_type = 'RISK_FLAG' AND input_hash IN "
+                        + "(SELECT hash FROM audit_payload WHERE payload @> "
+                        + "'{\"accountTier\": \"SILVER\", \"destinationRegion\": \"IRAN\"}')",
+                Integer.class);
+        assertThat(audited).isPositive();
+    }
+
     @Test
     void evaluateInvalidPolicyType_shouldReturn400() throws Exception {
         EvaluationRequest request = EvaluationRequest.builder()
@@ -139,11 +266,247 @@ class PolicyEvaluationIntegrationTest {
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(request)))
                 .andExpect(status().isOk());
+        auditWriter.flush();
 
-        mockMvc.perform(get("/api/v1/audit")
+        MvcResult list = mockMvc.perform(get("/api/v1/audit")
                         .param("page", "0")
                         .param("size", "10"))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$.content").isArray());
+                .andExpect(jsonPath("$.content").isArray())
+                .andExpect(jsonPath("$.content[0].inputData").doesNotExist())
+                .andReturn();
+        String id = objectMapper.readTree(list.getResponse().getContentAsString())
+                .get("content").get(0).get("id").asText();
+
+        mockMvc.perform(get("/api/v1/audit/{id}", id))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(id))
+                .andExpect(jsonPath("$.inputData").isMap())
+                .andExpect(jsonPath("$.outputData").isMap());
+
+        mockMvc.perform(get("/api/v1/audit/{id}", UUID.randomUUID()))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void identicalEvaluations_shouldShareStoredPayloads() throws Exception {
+        EvaluationRequest request = EvaluationRequest.builder()
+                .data(Map.of(
+                        "accountTier", "SILVER",
+                        "transactionAmount", 1234567,
+                        "dailyCumulativeAmount", 7654321
+                ))
+                .build();
+
+        for (int i = 0; i < 3; i++) {
+            mockMvc.perform(post("/api/v1/policies/TRANSACTION_LIMIT/evaluate")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(request)))
+                    .andExpect(status().isOk());
+        }
+        auditWriter.flush();
+
+        List<Map<String, Object>> hashes = jdbcTemplate.queryForList(
+                "SELECT DISTINCT input_hash, output_hash FROM policy_audit_log "
+                        + "WHERE input_hash = (SELECT hash FROM audit_payload WHERE payload @> '{\"transactionAmount\": 1234567}')");
+        assertThat(hashes).hasSize(1);
+    }
+
+    @Test
+    void exportAuditLogs_shouldStreamNdjsonAndCsv() throws Exception {
+        EvaluationRequest request = EvaluationRequest.builder()
+                .data(Map.of(
+                        "accountTier", "PLATINUM",
+                        "transactionAmount", 1000000,
+                        "dailyCumulativeAmount", 0
+                ))
+                .build();
+
+        mockMvc.perform(post("/api/v1/policies/TRANSACTION_LIMIT/evaluate")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk());
+        auditWriter.flush();
+
+        MvcResult ndjson = mockMvc.perform(get("/api/v1/audit/export")
+                        .param("policyType", "TRANSACTION_LIMIT")
+                        .param("dateFrom", LocalDate.now().toString()))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String[] lines = mockMvc.perform(asyncDispatch(ndjson))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString().split("\n");
+        assertThat(lines).isNotEmpty();
+        JsonNode last = objectMapper.readTree(lines[lines.length - 1]);
+        assertThat(last.get("policyType").asText()).isEqualTo("TRANSACTION_LIMIT");
+        assertThat(last.at("/inputData/accountTier").asText()).isEqualTo("PLATINUM");
+        assertThat(last.get("cacheHit").isBoolean()).isTrue();
+
+        MvcResult csv = mockMvc.perform(get("/api/v1/audit/export")
+                        .param("policyType", "TRANSACTION_LIMIT")
+                        .param("format", "CSV"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String output = mockMvc.perform(asyncDispatch(csv))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertThat(output).startsWith("id,policy_type,rule_id,rule_version,evaluation_ms,cache_hit,caller_id,");
+        assertThat(output.split("\n")).hasSizeGreaterThan(1);
+    }
+
+    @Test
+    void exportAuditLogs_shouldWriteNullPayloadsForMetadataOnlyEntries() throws Exception {
+        // A sampled entry kept as metadata only has no payload hashes
+        UUID id = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO policy_audit_log "
+                + "(id, policy_type, evaluation_ms, cache_hit, caller_id, created_at) "
+                + "VALUES (?, 'RISK_FLAG', 0, true, 'metadata-only', now())", id);
+
+        MvcResult ndjson = mockMvc.perform(get("/api/v1/audit/export")
+                        .param("policyType", "RISK_FLAG")
+                        .param("dateFrom", LocalDate.now().toString()))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String[] lines = mockMvc.perform(asyncDispatch(ndjson))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString().split("\n");
+        JsonNode entry = null;
+        for (String line : lines) {
+            JsonNode node = objectMapper.readTree(line);
+            if (id.toString().equals(node.get("id").asText())) {
+                entry = node;
+            }
+        }
+        assertThat(entry).isNotNull();
+        assertThat(entry.get("inputData").isNull()).isTrue();
+        assertThat(entry.get("outputData").isNull()).isTrue();
+        assertThat(entry.get("callerId").asText()).isEqualTo("metadata-only");
+        assertThat(entry.get("cacheHit").asBoolean()).isTrue();
+
+        MvcResult csv = mockMvc.perform(get("/api/v1/audit/export")
+                        .param("policyType", "RISK_FLAG")
+                        .param("dateFrom", LocalDate.now().toString())
+                        .param("format", "CSV"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String output = mockMvc.perform(asyncDispatch(csv))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertThat(output.lines().filter(line -> line.startsWith(id.toString())))
+                .singleElement()
+                .satisfies(line -> assertThat(line).contains(",0,true,metadata-only,").endsWith(",,"));
+    }
+
+    @Test
+    void getEvaluationStats_shouldReportRollupsOfWrittenAudits() throws Exception {
+        EvaluationRequest request = EvaluationRequest.builder()
+                .data(Map.of(
+                        "accountTier", "GOLD",
+                        "transactionAmount", 1000000,
+                        "dailyCumulativeAmount", 0
+                ))
+                .build();
+
+        mockMvc.perform(post("/api/v1/policies/TRANSACTION_LIMIT/evaluate")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk());
+        auditWriter.flush();
+
+        mockMvc.perform(get("/api/v1/audit/stats")
+                        .param("policyType", "TRANSACTION_LIMIT")
+                        .param("interval", "MINUTE")
+                        .param("from", LocalDateTime.now().minusMinutes(5).toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.summary.evaluations").value(greaterThanOrEqualTo(1)))
+                .andExpect(jsonPath("$.summary.cacheHits").value(0))
+                .andExpect(jsonPath("$.summary.outcomes['allowed=true']").exists())
+                .andExpect(jsonPath("$.buckets").isNotEmpty());
+    }
+
+    @Test
+    void getAuditLogsByCursor_shouldWalkPagesWithoutOverlap() throws Exception {
+        EvaluationRequest request = EvaluationRequest.builder()
+                .data(Map.of(
+                        "accountTier", "SILVER",
+                        "transactionAmount", 1000000,
+                        "dailyCumulativeAmount", 0
+                ))
+                .build();
+        for (int i = 0; i < 3; i++) {
+            mockMvc.perform(post("/api/v1/policies/TRANSACTION_LIMIT/evaluate")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(request)))
+                    .andExpect(status().isOk());
+        }
+        auditWriter.flush();
+
+        MvcResult first = mockMvc.perform(get("/api/v1/audit/cursor")
+                        .param("policyType", "TRANSACTION_LIMIT")
+                        .param("size", "2")
+                        .param("count", "EXACT"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(2))
+                .andExpect(jsonPath("$.nextCursor").isNotEmpty())
+                .andExpect(jsonPath("$.totalEstimated").value(false))
+                .andReturn();
+        JsonNode firstPage = objectMapper.readTree(first.getResponse().getContentAsString());
+
+        MvcResult second = mockMvc.perform(get("/api/v1/audit/cursor")
+                        .param("policyType", "TRANSACTION_LIMIT")
+                        .param("size", "2")
+                        .param("cursor", firstPage.get("nextCursor").asText()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total").doesNotExist())
+                .andReturn();
+        JsonNode secondPage = objectMapper.readTree(second.getResponse().getContentAsString());
+
+        assertThat(secondPage.get("content")).isNotEmpty();
+        assertThat(secondPage.get("content").findValuesAsText("id"))
+                .doesNotContainAnyElementsOf(firstPage.get("content").findValuesAsText("id"));
+
+        mockMvc.perform(get("/api/v1/audit/cursor").param("cursor", "not-a-cursor"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void searchAuditLogs_shouldMatchInputValuesThroughIndexes() throws Exception {
+        EvaluationRequest request = EvaluationRequest.builder()
+                .data(Map.of(
+                        "accountTier", "GOLD",
+                        "transactionAmount", 73737373,
+                        "dailyCumulativeAmount", 0
+                ))
+                .build();
+        mockMvc.perform(post("/api/v1/policies/TRANSACTION_LIMIT/evaluate")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk());
+        auditWriter.flush();
+
+        // The expression index for transactionAmount is built in the background after startup
+        auditSearchIndexService.syncNow();
+        assertThat(auditSearchIndexService.getRangeFields()).contains("transactionAmount");
+
+        mockMvc.perform(get("/api/v1/audit/search")
+                        .param("criteria", "input.transactionAmount=73737373")
+                        .param("criteria", "input.accountTier=GOLD"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(1))
+                .andExpect(jsonPath("$.content[0].policyType").value("TRANSACTION_LIMIT"));
+
+        mockMvc.perform(get("/api/v1/audit/search")
+                        .param("criteria", "input.transactionAmount>73737372")
+                        .param("criteria", "input.transactionAmount<=73737373"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(1));
+
+        mockMvc.perform(get("/api/v1/audit/search").param("criteria", "input.accountTier>GOLD"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private long auditCount() {
+        Long count = jdbcTemplate.queryForObject("SELECT count(*) FROM policy_audit_log", Long.class);
+        return count != null ? count : 0;
     }
 }
@@ -5,12 +5,14 @@ import com.islamic.policyengine.model.dto.EvaluationRequest;
 import com.islamic.policyengine.model.dto.ParameterDto;
 import com.islamic.policyengine.model.dto.RuleDto;
 import com.islamic.policyengine.model.entity.Rule;
+import com.islamic.policyengine.repository.RuleArtifactRepository;
 import com.islamic.policyengine.repository.RuleRepository;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.DynamicPropertyRegistry;
 import org.springframework.test.context.DynamicPropertySource;
 import org.springframework.test.web.servlet.MockMvc;
@@ -55,6 +57,12 @@ class RuleManagementIntegrationTest {
     @Autowired
     private RuleRepository ruleRepository;
 
+    @Autowired
+    private RuleArtifactRepository ruleArtifactRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
     @Test
     void listRules_shouldReturnSeededRules() throws Exception {
         mockMvc.perform(get("/api/v1/rules")
@@ -177,4 +185,106 @@ class RuleManagementIntegrationTest {
                 .andExpect(status().isNotFound())
                 .andExpect(jsonPath("$.error").value("POLICY_NOT_FOUND"));
     }
+
+    @Test
+    void kieBases_shouldBeWarmAfterStartupAndEvictable() throws Exception {
+        Rule rule = ruleRepository.findByPolicyType("FINANCING_ELIGIBILITY").get(0);
+        String entry = "$[?(@.ruleId == '" + rule.getId() + "' && @.version == " + rule.getVersion() + ")]";
+
+        // Compiled by the startup warm-up, before any evaluation
+        mockMvc.perform(get("/api/v1/admin/kie-bases"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath(entry + ".active").value(true));
+
+        mockMvc.perform(delete("/api/v1/admin/kie-bases/" + rule.getId() + "/" + rule.getVersion()))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(get("/api/v1/admin/kie-bases"))
+                .andExpect(jsonPath(entry).isEmpty());
+
+        mockMvc.perform(post("/api/v1/admin/kie-bases/warm-up").param("policyType", "FINANCING_ELIGIBILITY"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].ruleId").value(rule.getId().toString()))
+                .andExpect(jsonPath("$[0].error").doesNotExist());
+        mockMvc.perform(get("/api/v1/admin/kie-bases"))
+                .andExpect(jsonPath(entry + ".active").value(true));
+    }
+
+    @Test
+    void updateRule_shouldPublishAnAlreadyCompiledVersion() throws Exception {
+        Rule rule = ruleRepository.findByPolicyType("RISK_FLAG").get(0);
+        int originalVersion = rule.getVersion();
+
+        mockMvc.perform(put("/api/v1/rules/" + rule.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(RuleDto.builder().description("Recompiled").build())))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.version").value(originalVersion + 1));
+
+        // Cached before publication, old version evicted, no evaluation needed
+        mockMvc.perform(get("/api/v1/admin/kie-bases"))
+                .andExpect(jsonPath("$[?(@.ruleId == '" + rule.getId() + "' && @.version == " + (originalVersion + 1)
+                        + ")].active").value(true))
+                .andExpect(jsonPath("$[?(@.ruleId == '" + rule.getId() + "' && @.version == " + originalVersion
+                        + ")]").isEmpty());
+    }
+
+    @Test
+    void updateRule_withInvalidDrl_shouldKeepTheCurrentVersion() throws Exception {
+        Rule rule = ruleRepository.findByPolicyType("FINANCING_ELIGIBILITY").get(0);
+
+        mockMvc.perform(put("/api/v1/rules/" + rule.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(RuleDto.builder()
+                                .drlSource("package com.islamic.policyengine.rules;\nrule \"broken\" when then end x")
+                                .build())))
+                .andExpect(status().isUnprocessableEntity())
+                .andExpect(jsonPath("$.error").value("DRL_COMPILATION_ERROR"));
+
+        assertThat(ruleRepository.findById(rule.getId()).orElseThrow().getVersion()).isEqualTo(rule.getVersion());
+    }
+
+    @Test
+    void evictedKieBase_shouldBeReloadedFromItsStoredArtifact() throws Exception {
+        Rule rule = ruleRepository.findByPolicyType("RISK_FLAG").get(0);
+
+        // Compiled at startup (or by a save), which stored its KJAR in rule_artifact
+        mockMvc.perform(post("/api/v1/admin/kie-bases/warm-up").param("policyType", "RISK_FLAG"))
+                .andExpect(status().isOk());
+        mockMvc.perform(delete("/api/v1/admin/kie-bases/" + rule.getId() + "/" + rule.getVersion()))
+                .andExpect(status().isNoContent());
+
+        mockMvc.perform(post("/api/v1/admin/kie-bases/warm-up").param("policyType", "RISK_FLAG"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].source").value("ARTIFACT"));
+
+        EvaluationRequest request = EvaluationRequest.builder()
+                .data(Map.of(
+                        "transactionAmount", 150000000,
+                        "destinationRegion", "INDONESIA",
+                        "transactionFrequency", 3,
+                        "isNewBeneficiary", false
+                ))
+                .build();
+        mockMvc.perform(post("/api/v1/policies/RISK_FLAG/evaluate")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.result.flagged").value(true));
+    }
+
+    @Test
+    void savedArtifact_shouldOnlyReplaceOlderVersionsOfItsOwnEngineVersion() {
+        UUID ruleId = UUID.randomUUID();
+        byte[] hash = new byte[32];
+        ruleArtifactRepository.save(ruleId, 1, "drools-old", hash, new byte[] {1});
+        ruleArtifactRepository.save(ruleId, 1, "drools-new", hash, new byte[] {1});
+
+        ruleArtifactRepository.save(ruleId, 2, "drools-new", hash, new byte[] {2});
+
+        // The old engine version's artifact is still in use by instances that have not been upgraded
+        assertThat(ruleArtifactRepository.find(ruleId, 1, "drools-old")).isPresent();
+        assertThat(ruleArtifactRepository.find(ruleId, 1, "drools-new")).isEmpty();
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM rule_artifact WHERE rule_id = ?", Integer.class,
+                ruleId)).isEqualTo(2);
+    }
 }
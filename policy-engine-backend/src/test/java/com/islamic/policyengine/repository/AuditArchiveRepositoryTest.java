@@ -0,0 +1,88 @@
+package com.islamic.policyengine.repository;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.islamic.policyengine.model.dto.AuditLogDto;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AuditArchiveRepositoryTest {
+
+    private static final UUID RULE_ID = UUID.randomUUID();
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void archivedDays_shouldBeFilteredPagedAndFoundLikeTheDatabase() {
+        // Two rows per group, so days span several groups
+        AuditArchiveRepository repository = new AuditArchiveRepository(directory.toString(), 4, 2,
+                new ObjectMapper().findAndRegisterModules());
+        LocalDate first = LocalDate.of(2025, 1, 10);
+        List<UUID> ids = new ArrayList<>();
+
+        repository.prepareStaging(YearMonth.of(2025, 1));
+        for (LocalDate day : List.of(first, first.plusDays(1))) {
+            int written = repository.writeDay(day, sink -> {
+                for (int i = 0; i < 3; i++) {
+                    UUID id = new UUID(i, ids.size());
+                    ids.add(id);
+                    sink.accept(new AuditExportRow(id, i == 2 ? "RISK_FLAG" : "TRANSACTION_LIMIT", RULE_ID, 1, i,
+                            false, "caller", day.atTime(9, i),
+                            "{\"transactionAmount\":" + (i * 1000) + ",\"region\":\"ME\"}", i == 1 ? null : "{\"allowed\":true}"));
+                }
+            });
+            assertThat(written).isEqualTo(3);
+        }
+        assertThat(repository.writeDay(first.plusDays(2), sink -> { })).isZero();
+        assertThat(repository.stagedRows(YearMonth.of(2025, 1))).isEqualTo(6);
+        assertThat(repository.count(new AuditLogFilter(null, null, null, null))).isZero();
+        repository.publish(YearMonth.of(2025, 1));
+        assertThat(repository.months()).containsExactly(YearMonth.of(2025, 1));
+
+        AuditLogFilter limits = new AuditLogFilter("TRANSACTION_LIMIT", null, null, null);
+        assertThat(repository.count(limits)).isEqualTo(4);
+        assertThat(repository.count(new AuditLogFilter("UNKNOWN", null, null, null))).isZero();
+        assertThat(repository.count(new AuditLogFilter(null, RULE_ID, first, first))).isEqualTo(3);
+        assertThat(repository.count(new AuditLogFilter(null, null, null, null, List.of(
+                AuditPayloadCriterion.parse("input.transactionAmount>=1000"),
+                AuditPayloadCriterion.parse("input.region=ME"))))).isEqualTo(4);
+
+        List<AuditLogDto> firstPage = repository.findPage(limits, null, 3);
+        assertThat(firstPage).extracting(AuditLogDto::getCreatedAt).containsExactly(
+                first.plusDays(1).atTime(9, 1), first.plusDays(1).atTime(9, 0), first.atTime(9, 1));
+        AuditLogDto last = firstPage.get(2);
+        assertThat(repository.findPage(limits, new AuditCursor(last.getCreatedAt(), last.getId()), 3))
+                .extracting(AuditLogDto::getId).containsExactly(ids.get(0));
+        assertThat(repository.findOffsetPage(limits, 2, 10)).hasSize(2);
+        assertThat(repository.findOffsetPage(limits, 1, 2)).extracting(AuditLogDto::getCreatedAt).containsExactly(
+                first.plusDays(1).atTime(9, 0), first.atTime(9, 1));
+
+        // Estimates come from the manifest: dates, policy type and rule, but not payload criteria
+        assertThat(repository.estimateCount(new AuditLogFilter(null, null, null, null))).isEqualTo(6);
+        assertThat(repository.estimateCount(limits)).isEqualTo(4);
+        assertThat(repository.estimateCount(new AuditLogFilter("RISK_FLAG", RULE_ID, first, first))).isEqualTo(1);
+        assertThat(repository.estimateCount(new AuditLogFilter(null, UUID.randomUUID(), null, null))).isZero();
+        assertThat(repository.estimateCount(new AuditLogFilter(null, null, null, null, List.of(
+                AuditPayloadCriterion.parse("input.region=XX"))))).isEqualTo(6);
+        assertThat(directory.resolve("2025-01").resolve("manifest.json")).exists();
+
+        List<AuditExportRow> streamed = new ArrayList<>();
+        repository.stream(new AuditLogFilter(null, null, null, null), streamed::add);
+        assertThat(streamed).extracting(AuditExportRow::id).containsExactlyElementsOf(ids);
+
+        AuditExportRow found = repository.findById(ids.get(4), first.plusDays(1)).orElseThrow();
+        assertThat(found.createdAt()).isEqualTo(first.plusDays(1).atTime(9, 1));
+        assertThat(found.outputData()).isNull();
+        assertThat(found.inputData()).contains("\"region\":\"ME\"");
+        assertThat(repository.findById(UUID.randomUUID(), first)).isEmpty();
+    }
+}
@@ -0,0 +1,145 @@
+package com.islamic.policyengine.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AuditJournalTest {
+
+    private static final int SEGMENT_SIZE = 256;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void uncommittedRecords_shouldBeReplayedAfterReopen() throws Exception {
+        AuditJournal journal = new AuditJournal(directory, SEGMENT_SIZE, 1 << 20, false);
+        for (int i = 0; i < 20; i++) {
+            assertThat(journal.append(bytes("record-" + i), 0)).isTrue();
+        }
+        assertThat(journal.lagRecords()).isEqualTo(20);
+
+        assertThat(strings(journal.read(5))).containsExactly("record-0", "record-1", "record-2", "record-3", "record-4");
+        journal.commit();
+        // Read but not committed: a crash here must not lose these
+        journal.read(5);
+
+        AuditJournal reopened = new AuditJournal(directory, SEGMENT_SIZE, 1 << 20, false);
+        assertThat(reopened.lagRecords()).isEqualTo(15);
+        AuditJournal.Position start = reopened.readPosition();
+        assertThat(reopened.isRecovered(start)).isTrue();
+        List<String> replayed = strings(reopened.read(100));
+        assertThat(replayed).hasSize(15).first().isEqualTo("record-5");
+        assertThat(replayed).last().isEqualTo("record-19");
+        reopened.commit();
+
+        assertThat(reopened.lagRecords()).isZero();
+        assertThat(reopened.isRecovered(reopened.readPosition())).isFalse();
+        // Fully shipped segments are deleted
+        try (Stream<Path> files = Files.list(directory)) {
+            assertThat(files.filter(path -> path.toString().endsWith(".journal")).count()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    void rewind_shouldHandOutTheSameRecordsAgain() throws Exception {
+        AuditJournal journal = new AuditJournal(directory, SEGMENT_SIZE, 1 << 20, false);
+        journal.append(bytes("a"), 0);
+        journal.append(bytes("b"), 0);
+
+        assertThat(strings(journal.read(10))).containsExactly("a", "b");
+        journal.rewind();
+        assertThat(strings(journal.read(10))).containsExactly("a", "b");
+        journal.commit();
+        assertThat(journal.read(10)).isEmpty();
+    }
+
+    @Test
+    void skipTo_shouldCommitBatchesTheDatabaseAlreadyHas() throws Exception {
+        AuditJournal journal = new AuditJournal(directory, SEGMENT_SIZE, 1 << 20, false);
+        for (int i = 0; i < 30; i++) {
+            journal.append(bytes("record-" + i), 0);
+        }
+        journal.read(12);
+        // The batch committed in the database, then the process died before commit()
+        AuditJournal.Position shipped = journal.readPosition();
+
+        AuditJournal reopened = new AuditJournal(directory, SEGMENT_SIZE, 1 << 20, false);
+        assertThat(reopened.id()).isEqualTo(journal.id());
+        assertThat(reopened.skipTo(shipped)).isEqualTo(12);
+        assertThat(reopened.lagRecords()).isEqualTo(18);
+        assertThat(strings(reopened.read(1))).containsExactly("record-12");
+
+        // Positions at or behind the committed one change nothing
+        reopened.rewind();
+        assertThat(reopened.skipTo(shipped)).isZero();
+        assertThat(strings(reopened.read(1))).containsExactly("record-12");
+    }
+
+    @Test
+    void append_shouldRefuseRecordsBeyondTheBacklogLimit() throws Exception {
+        AuditJournal journal = new AuditJournal(directory, SEGMENT_SIZE, 40, false);
+
+        assertThat(journal.append(bytes("0123456789"), 0)).isTrue();
+        assertThat(journal.append(bytes("0123456789"), 0)).isTrue();
+        assertThat(journal.append(bytes("0123456789"), 0)).isFalse();
+
+        journal.read(10);
+        journal.commit();
+        assertThat(journal.append(bytes("0123456789"), 0)).isTrue();
+    }
+
+    @Test
+    void tornRecord_shouldEndTheJournalOnReopen() throws Exception {
+        AuditJournal journal = new AuditJournal(directory, SEGMENT_SIZE, 1 << 20, false);
+        journal.append(bytes("intact"), 0);
+        journal.append(bytes("torn"), 0);
+
+        // Corrupt the last payload byte, as if the process died mid-copy
+        Path segment = directory.resolve(String.format("%020d.journal", 0));
+        int lastByte = 8 + "intact".length() + 8 + "torn".length() - 1;
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{'X'}), lastByte);
+        }
+
+        AuditJournal reopened = new AuditJournal(directory, SEGMENT_SIZE, 1 << 20, false);
+        assertThat(strings(reopened.read(10))).containsExactly("intact");
+        reopened.append(bytes("next"), 0);
+        assertThat(strings(reopened.read(10))).containsExactly("next");
+    }
+
+    @Test
+    void close_shouldKeepAppendedRecordsAndLeaveTheJournalUsable() throws Exception {
+        AuditJournal journal = new AuditJournal(directory, SEGMENT_SIZE, 1 << 20, false);
+        journal.append(bytes("a"), 0);
+        assertThat(strings(journal.read(10))).containsExactly("a");
+        journal.close();
+        journal.close();
+
+        // Submitted after the writer stopped: mapped again and kept for the next start
+        journal.append(bytes("b"), 0);
+        journal.close();
+
+        AuditJournal reopened = new AuditJournal(directory, SEGMENT_SIZE, 1 << 20, false);
+        assertThat(strings(reopened.read(10))).containsExactly("a", "b");
+        reopened.close();
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static List<String> strings(List<byte[]> records) {
+        return records.stream().map(record -> new String(record, StandardCharsets.UTF_8)).toList();
+    }
+}
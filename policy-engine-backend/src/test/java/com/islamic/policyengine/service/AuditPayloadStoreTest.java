@@ -0,0 +1,53 @@
+package com.islamic.policyengine.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AuditPayloadStoreTest {
+
+    private final AuditPayloadStore store = new AuditPayloadStore(null, new ObjectMapper(), 100);
+
+    @Test
+    void json_shouldNotDependOnKeyOrder() throws Exception {
+        Map<String, Object> first = new LinkedHashMap<>();
+        first.put("transactionAmount", 1000);
+        first.put("accountTier", "GOLD");
+        first.put("limits", ordered("daily", 5, "monthly", 50));
+
+        Map<String, Object> second = new LinkedHashMap<>();
+        second.put("limits", ordered("monthly", 50, "daily", 5));
+        second.put("accountTier", "GOLD");
+        second.put("transactionAmount", 1000);
+
+        String json = store.json(first);
+        assertThat(json).isEqualTo(store.json(second))
+                .isEqualTo("{\"accountTier\":\"GOLD\",\"limits\":{\"daily\":5,\"monthly\":50},\"transactionAmount\":1000}");
+        assertThat(AuditPayloadStore.sha256(json)).isEqualTo(AuditPayloadStore.sha256(store.json(second)));
+    }
+
+    @Test
+    void batch_shouldStageReorderedPayloadsOnce() throws Exception {
+        AuditPayloadStore.Batch batch = store.newBatch();
+        LocalDate today = LocalDate.now();
+
+        byte[] first = batch.add(store.json(ordered("a", 1, "b", List.of(ordered("y", 2, "x", 1)))), today);
+        byte[] second = batch.add(store.json(ordered("b", List.of(ordered("x", 1, "y", 2)), "a", 1)), today);
+
+        assertThat(second).isEqualTo(first);
+        assertThat(store.deduplicated().sum()).isEqualTo(1);
+    }
+
+    private static Map<String, Object> ordered(String firstKey, Object firstValue, String secondKey, Object secondValue) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put(firstKey, firstValue);
+        map.put(secondKey, secondValue);
+        return map;
+    }
+}
@@ -0,0 +1,52 @@
+package com.islamic.policyengine.service;
+
+import com.islamic.policyengine.config.AuditSamplingProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AuditSamplerTest {
+
+    @Test
+    void decide_shouldAlwaysRecordDenialsAndSampleApprovals() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        AuditSampler sampler = new AuditSampler(properties("allowed=true", 0.0, true), registry);
+
+        assertThat(sampler.decide("LIMIT", Map.of("allowed", false))).isEqualTo(AuditRecord.Mode.FULL);
+        assertThat(sampler.decide("LIMIT", Map.of("reason", "no allowed field"))).isEqualTo(AuditRecord.Mode.FULL);
+        assertThat(sampler.decide("LIMIT", Map.of("allowed", true))).isEqualTo(AuditRecord.Mode.COUNT_ONLY);
+        assertThat(sampler.decide("OTHER", Map.of("allowed", true))).isEqualTo(AuditRecord.Mode.FULL);
+
+        assertThat(registry.get("policyengine.audit.sampling")
+                .tags("policyType", "LIMIT", "mode", "count_only").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void decide_shouldKeepMetadataOnlyWhenPayloadsAreDisabled() {
+        AuditSampler sampler = new AuditSampler(properties("flagged=false", 1.0, false), new SimpleMeterRegistry());
+
+        assertThat(sampler.decide("LIMIT", Map.of("flagged", false))).isEqualTo(AuditRecord.Mode.METADATA);
+        assertThat(sampler.decide("LIMIT", Map.of("flagged", true))).isEqualTo(AuditRecord.Mode.FULL);
+    }
+
+    @Test
+    void constructor_shouldRejectApprovalWithoutValue() {
+        assertThatThrownBy(() -> new AuditSampler(properties("allowed", 0.5, true), new SimpleMeterRegistry()))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("field=value");
+    }
+
+    private static AuditSamplingProperties properties(String approval, double rate, boolean payloads) {
+        AuditSamplingProperties.PolicySampling sampling = new AuditSamplingProperties.PolicySampling();
+        sampling.setApproval(approval);
+        sampling.setApprovalRate(rate);
+        sampling.setApprovalPayloads(payloads);
+        AuditSamplingProperties properties = new AuditSamplingProperties();
+        properties.getPolicies().put("LIMIT", sampling);
+        return properties;
+    }
+}
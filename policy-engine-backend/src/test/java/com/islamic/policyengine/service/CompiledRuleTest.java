@@ -0,0 +1,48 @@
+package com.islamic.policyengine.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CompiledRuleTest {
+
+    private final AtomicInteger closes = new AtomicInteger();
+
+    @Test
+    void close_shouldReleaseAnIdleEntryOnce() {
+        CompiledRule compiled = compiledRule();
+
+        compiled.close();
+        compiled.close();
+
+        assertThat(closes).hasValue(1);
+    }
+
+    @Test
+    void close_shouldWaitForTheLastEvaluationUsingTheEntry() {
+        CompiledRule compiled = compiledRule();
+        compiled.acquire();
+        compiled.acquire();
+
+        // As when install() replaces the entry while requests still hold it
+        compiled.close();
+        assertThat(closes).hasValue(0);
+
+        compiled.release();
+        assertThat(compiled.isInUse()).isTrue();
+        assertThat(closes).hasValue(0);
+
+        compiled.release();
+        assertThat(compiled.isInUse()).isFalse();
+        assertThat(closes).hasValue(1);
+    }
+
+    private CompiledRule compiledRule() {
+        CompiledRule compiled = new CompiledRule(null, true, false, null, null,
+                RuleArtifactService.Source.COMPILED, "hash", 0);
+        compiled.onClose(closes::incrementAndGet);
+        return compiled;
+    }
+}
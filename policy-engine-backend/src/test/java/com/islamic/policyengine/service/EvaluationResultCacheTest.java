@@ -0,0 +1,184 @@
+package com.islamic.policyengine.service;
+
+import com.islamic.policyengine.model.dto.EvaluationResponse;
+import com.islamic.policyengine.model.snapshot.RuleFieldSnapshot;
+import com.islamic.policyengine.model.snapshot.RuleSnapshot;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.kie.api.KieBase;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EvaluationResultCacheTest {
+
+    private static final String DRL = """
+            package com.islamic.policyengine.rules;
+
+            declare LimitCheck
+                amount : java.math.BigDecimal
+                allowed : boolean
+            end
+
+            rule "Within limit"
+                when
+                    $fact : LimitCheck(amount != null, amount.compareTo(new java.math.BigDecimal("100")) <= 0)
+                then
+                    $fact.setAllowed(true);
+            end
+            """;
+
+    private static final UUID RULE_ID = UUID.randomUUID();
+
+    private static FactBindingPlan plan;
+
+    @BeforeAll
+    static void compile() {
+        KieBase kieBase = new KieBaseCompiler().compile(DRL, false);
+        plan = FactBindingPlan.compile(kieBase, rule(1));
+    }
+
+    @Test
+    void fingerprint_shouldIgnoreUndeclaredKeysAndDecimalScale() {
+        String base = plan.inputFingerprint(Map.of("amount", new BigDecimal("10.5")));
+
+        assertThat(plan.inputFingerprint(Map.of("amount", "10.50"))).isEqualTo(base);
+        assertThat(plan.inputFingerprint(Map.of("amount", 10.5, "unused", "x"))).isEqualTo(base);
+        assertThat(plan.inputFingerprint(Map.of("amount", "10.51"))).isNotEqualTo(base);
+    }
+
+    @Test
+    void get_shouldReuseResultUntilRuleVersionChanges() {
+        EvaluationResultCache cache = newCache();
+        AtomicInteger evaluations = new AtomicInteger();
+        String fingerprint = plan.inputFingerprint(Map.of("amount", 50));
+
+        cache.get(rule(1), fingerprint, () -> response(evaluations.incrementAndGet()));
+        EvaluationResponse cached = cache.get(rule(1), fingerprint, () -> response(evaluations.incrementAndGet()));
+        assertThat(evaluations).hasValue(1);
+        assertThat(cached.getEvaluationMs()).isZero();
+        assertThat(cached.isCacheHit()).isTrue();
+
+        cache.get(rule(2), fingerprint, () -> response(evaluations.incrementAndGet()));
+        assertThat(evaluations).hasValue(2);
+    }
+
+    @Test
+    void get_shouldNotLetARequestOnTheSupersededRuleFlushTheCache() {
+        EvaluationResultCache cache = newCache();
+        AtomicInteger evaluations = new AtomicInteger();
+        String fingerprint = plan.inputFingerprint(Map.of("amount", 50));
+        RuleSnapshot before = rule(RULE_ID, 1, 1);
+        RuleSnapshot after = rule(UUID.randomUUID(), 1, 2);
+
+        cache.get(before, fingerprint, () -> response(evaluations.incrementAndGet()));
+        cache.get(after, fingerprint, () -> response(evaluations.incrementAndGet()));
+        // A request that read the registry before the swap finishes after it
+        cache.get(before, fingerprint, () -> response(evaluations.incrementAndGet()));
+        assertThat(evaluations).hasValue(3);
+
+        assertThat(cache.get(after, fingerprint, () -> response(evaluations.incrementAndGet())).isCacheHit())
+                .isTrue();
+        assertThat(evaluations).hasValue(3);
+    }
+
+    @Test
+    void get_shouldCoalesceConcurrentIdenticalRequests() throws Exception {
+        EvaluationResultCache cache = newCache();
+        AtomicInteger evaluations = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        String fingerprint = plan.inputFingerprint(Map.of("amount", 50));
+
+        CompletableFuture<EvaluationResponse> first = CompletableFuture.supplyAsync(() ->
+                cache.get(rule(1), fingerprint, () -> {
+                    evaluations.incrementAndGet();
+                    started.countDown();
+                    await(release);
+                    return response(1);
+                }));
+        // The entry is registered as in flight before the evaluation starts
+        await(started);
+        CompletableFuture<EvaluationResponse> second = CompletableFuture.supplyAsync(() ->
+                cache.get(rule(1), fingerprint, () -> response(evaluations.incrementAndGet())));
+
+        release.countDown();
+        assertThat(first.get(5, TimeUnit.SECONDS).getResult())
+                .isEqualTo(second.get(5, TimeUnit.SECONDS).getResult());
+        assertThat(first.get().isCacheHit()).isFalse();
+        assertThat(second.get().isCacheHit()).isTrue();
+        assertThat(evaluations).hasValue(1);
+    }
+
+    @Test
+    void get_shouldEvaluateAgainOnceTheTtlHasPassed() {
+        AtomicLong nanos = new AtomicLong();
+        EvaluationResultCache cache = new EvaluationResultCache(Set.of("LIMIT"), 100, 60,
+                new SimpleMeterRegistry(), nanos::get);
+        AtomicInteger evaluations = new AtomicInteger();
+        String fingerprint = plan.inputFingerprint(Map.of("amount", 50));
+
+        cache.get(rule(1), fingerprint, () -> response(evaluations.incrementAndGet()));
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(59));
+        assertThat(cache.get(rule(1), fingerprint, () -> response(evaluations.incrementAndGet())).isCacheHit())
+                .isTrue();
+        assertThat(evaluations).hasValue(1);
+
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(2));
+        assertThat(cache.get(rule(1), fingerprint, () -> response(evaluations.incrementAndGet())).isCacheHit())
+                .isFalse();
+        assertThat(evaluations).hasValue(2);
+    }
+
+    private static EvaluationResultCache newCache() {
+        return new EvaluationResultCache(Set.of("LIMIT"), 100, 60, new SimpleMeterRegistry());
+    }
+
+    private static RuleSnapshot rule(int version) {
+        return rule(RULE_ID, version, version);
+    }
+
+    private static RuleSnapshot rule(UUID id, int version, long activation) {
+        return RuleSnapshot.builder()
+                .id(id)
+                .policyType("LIMIT")
+                .version(version)
+                .activation(activation)
+                .factTypeName("LimitCheck")
+                .fields(List.of(
+                        RuleFieldSnapshot.builder().fieldName("amount").fieldType("BIG_DECIMAL")
+                                .fieldCategory("INPUT").fieldOrder(0).build(),
+                        RuleFieldSnapshot.builder().fieldName("allowed").fieldType("BOOLEAN")
+                                .fieldCategory("RESULT").fieldOrder(1).build()))
+                .parameters(List.of())
+                .build();
+    }
+
+    private static EvaluationResponse response(int evaluation) {
+        return EvaluationResponse.builder()
+                .policyType("LIMIT")
+                .ruleId(RULE_ID)
+                .result(Map.of("allowed", true, "evaluation", evaluation))
+                .evaluationMs(1L)
+                .build();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
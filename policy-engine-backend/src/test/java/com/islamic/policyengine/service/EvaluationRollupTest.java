@@ -0,0 +1,62 @@
+package com.islamic.policyengine.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class EvaluationRollupTest {
+
+    @Test
+    void percentile_shouldInterpolateWithinBucketAndCapAtMax() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < 90; i++) {
+            histogram.record(1);
+        }
+        for (int i = 0; i < 10; i++) {
+            histogram.record(40);
+        }
+
+        assertThat(histogram.total()).isEqualTo(100);
+        assertThat(histogram.percentile(0.50)).isCloseTo(0.56, within(0.01));
+        // 95th falls in (25, 50], capped at the observed max of 40
+        assertThat(histogram.percentile(0.95)).isCloseTo(32.5, within(0.01));
+        assertThat(histogram.percentile(0.99)).isLessThanOrEqualTo(40.0);
+        assertThat(histogram.mean()).isCloseTo(4.9, within(0.01));
+    }
+
+    @Test
+    void merge_shouldMatchRecordingIntoOneHistogram() {
+        LatencyHistogram a = new LatencyHistogram();
+        LatencyHistogram b = new LatencyHistogram();
+        LatencyHistogram both = new LatencyHistogram();
+        for (int ms : new int[]{0, 3, 7, 120, 2000}) {
+            a.record(ms);
+            both.record(ms);
+        }
+        for (int ms : new int[]{1, 1, 60}) {
+            b.record(ms);
+            both.record(ms);
+        }
+        a.merge(b);
+
+        assertThat(a.counts()).containsExactly(both.counts());
+        assertThat(a.max()).isEqualTo(2000);
+        assertThat(a.percentile(0.99)).isEqualTo(both.percentile(0.99));
+    }
+
+    @Test
+    void outcome_shouldListBooleanResultFieldsByName() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("requiresReview", false);
+        result.put("reason", "ok");
+        result.put("eligible", true);
+
+        assertThat(EvaluationRollupService.outcome(result)).isEqualTo("eligible=true,requiresReview=false");
+        assertThat(EvaluationRollupService.outcome(Map.of("score", 3))).isEqualTo("-");
+        assertThat(EvaluationRollupService.outcome(null)).isEqualTo("-");
+    }
+}
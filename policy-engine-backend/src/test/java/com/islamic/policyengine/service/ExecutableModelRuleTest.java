@@ -0,0 +1,35 @@
+package com.islamic.policyengine.service;
+
+import com.islamic.policyengine.model.enums.CompileMode;
+import org.junit.jupiter.api.Nested;
+
+/**
+ * Runs every case of the rule tests against KieBases built with the executable model, so both
+ * compile modes are held to the same expected results.
+ */
+class ExecutableModelRuleTest {
+
+    @Nested
+    class TransactionLimit extends TransactionLimitRuleTest {
+        @Override
+        CompileMode compileMode() {
+            return CompileMode.EXECUTABLE_MODEL;
+        }
+    }
+
+    @Nested
+    class RiskFlag extends RiskFlagRuleTest {
+        @Override
+        CompileMode compileMode() {
+            return CompileMode.EXECUTABLE_MODEL;
+        }
+    }
+
+    @Nested
+    class FinancingEligibility extends FinancingEligibilityRuleTest {
+        @Override
+        CompileMode compileMode() {
+            return CompileMode.EXECUTABLE_MODEL;
+        }
+    }
+}
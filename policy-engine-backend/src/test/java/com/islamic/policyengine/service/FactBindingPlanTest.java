@@ -0,0 +1,159 @@
+package com.islamic.policyengine.service;
+
+import com.islamic.policyengine.model.snapshot.RuleFieldSnapshot;
+import com.islamic.policyengine.model.snapshot.RuleParameterSnapshot;
+import com.islamic.policyengine.model.snapshot.RuleSnapshot;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.kie.api.KieBase;
+import org.kie.api.definition.type.FactType;
+import org.kie.api.runtime.KieSession;
+
+import java.math.BigDecimal;
+import java.util.AbstractMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FactBindingPlanTest {
+
+    private static final String DRL = """
+            package com.islamic.policyengine.rules;
+
+            global java.math.BigDecimal limit;
+
+            declare LimitCheck
+                amount : java.math.BigDecimal
+                count : int
+                flagged : boolean
+                label : String
+                tags : java.util.List
+                allowed : boolean
+                reason : String
+            end
+
+            rule "Within limit"
+                when
+                    $fact : LimitCheck(amount != null, amount.compareTo(limit) <= 0)
+                then
+                    $fact.setAllowed(true);
+                    $fact.setReason("within " + limit);
+            end
+            """;
+
+    private static KieBase kieBase;
+    private static FactType factType;
+
+    @BeforeAll
+    static void compile() {
+        kieBase = new KieBaseCompiler().compile(DRL, false);
+        factType = kieBase.getFactType(FactBindingPlan.RULES_PACKAGE, "LimitCheck");
+    }
+
+    @Test
+    void newFact_shouldCoerceRequestValuesToTheDeclaredTypes() {
+        FactBindingPlan plan = FactBindingPlan.compile(kieBase, rule("LimitCheck"));
+
+        Object fact = plan.newFact(Map.of(
+                "amount", "150.50",
+                "count", 3L,
+                "flagged", "true",
+                "label", 42,
+                "tags", "a,b"));
+
+        assertThat(factType.get(fact, "amount")).isEqualTo(new BigDecimal("150.50"));
+        assertThat(factType.get(fact, "count")).isEqualTo(3);
+        assertThat(factType.get(fact, "flagged")).isEqualTo(true);
+        assertThat(factType.get(fact, "label")).isEqualTo("42");
+        assertThat(factType.get(fact, "tags")).isEqualTo(List.of("a", "b"));
+    }
+
+    @Test
+    void newFact_shouldLeaveMissingAndNullFieldsUnset() {
+        FactBindingPlan plan = FactBindingPlan.compile(kieBase, rule("LimitCheck"));
+        Map<String, Object> data = new HashMap<>();
+        data.put("amount", null);
+        data.put("undeclared", "ignored");
+
+        Object fact = plan.newFact(data);
+
+        assertThat(factType.get(fact, "amount")).isNull();
+        assertThat(factType.get(fact, "count")).isEqualTo(0);
+        assertThat(factType.get(fact, "label")).isNull();
+        assertThat(factType.get(plan.newFact(null), "amount")).isNull();
+    }
+
+    @Test
+    void newFact_shouldRejectValuesThatDoNotConvert() {
+        FactBindingPlan plan = FactBindingPlan.compile(kieBase, rule("LimitCheck"));
+
+        assertThatThrownBy(() -> plan.newFact(Map.of("amount", "lots")))
+                .isInstanceOf(NumberFormatException.class);
+    }
+
+    @Test
+    void readResult_shouldReturnTheResultFieldsInFieldOrderAfterFiring() {
+        FactBindingPlan plan = FactBindingPlan.compile(kieBase, rule("LimitCheck"));
+        Object fact = plan.newFact(Map.of("amount", 50));
+
+        assertThat(plan.readResult(fact)).containsExactly(entry("allowed", false), entry("reason", null));
+
+        KieSession session = kieBase.newKieSession();
+        try {
+            plan.applyGlobals(session::setGlobal);
+            session.insert(fact);
+            session.fireAllRules();
+        } finally {
+            session.dispose();
+        }
+
+        assertThat(plan.readResult(fact)).containsExactly(entry("allowed", true), entry("reason", "within 100"));
+    }
+
+    @Test
+    void applyGlobals_shouldCastParametersAndSkipUndeclaredOnes() {
+        FactBindingPlan plan = FactBindingPlan.compile(kieBase, rule("LimitCheck"));
+        Map<String, Object> globals = new LinkedHashMap<>();
+
+        plan.applyGlobals(globals::put);
+
+        assertThat(globals).containsExactly(entry("limit", new BigDecimal("100")));
+    }
+
+    @Test
+    void compile_shouldReturnNullWithoutADeclaredFactType() {
+        assertThat(FactBindingPlan.compile(kieBase, rule("Missing"))).isNull();
+        assertThat(FactBindingPlan.compile(kieBase, rule(null))).isNull();
+    }
+
+    private static Map.Entry<String, Object> entry(String key, Object value) {
+        // Map.entry rejects null values
+        return new AbstractMap.SimpleEntry<>(key, value);
+    }
+
+    private static RuleSnapshot rule(String factTypeName) {
+        return RuleSnapshot.builder()
+                .factTypeName(factTypeName)
+                .fields(List.of(
+                        field("amount", "BIG_DECIMAL", "INPUT", 0),
+                        field("count", "INTEGER", "INPUT", 1),
+                        field("flagged", "BOOLEAN", "INPUT", 2),
+                        field("label", "STRING", "INPUT", 3),
+                        field("tags", "LIST_STRING", "INPUT", 4),
+                        field("allowed", "BOOLEAN", "RESULT", 5),
+                        field("reason", "STRING", "RESULT", 6)))
+                .parameters(List.of(
+                        RuleParameterSnapshot.builder().paramKey("limit").paramValue("100").paramType("DECIMAL").build(),
+                        RuleParameterSnapshot.builder().paramKey("unused").paramValue("1").paramType("INTEGER").build()))
+                .build();
+    }
+
+    private static RuleFieldSnapshot field(String name, String type, String category, int order) {
+        return RuleFieldSnapshot.builder()
+                .fieldName(name).fieldType(type).fieldCategory(category).fieldOrder(order).build();
+    }
+}
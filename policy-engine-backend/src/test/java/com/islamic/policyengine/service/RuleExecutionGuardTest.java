@@ -0,0 +1,127 @@
+package com.islamic.policyengine.service;
+
+import com.islamic.policyengine.service.RuleExecutionGuard.ExecutionMode;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.kie.api.KieBase;
+import org.kie.api.definition.type.FactType;
+import org.kie.api.runtime.KieSession;
+import org.kie.api.runtime.StatelessKieSession;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RuleExecutionGuardTest {
+
+    // Busy-waits rather than sleeping, so an interrupt cannot cut a late consequence short
+    private static final String DRL = """
+            package com.islamic.policyengine.rules;
+
+            global java.util.List threads;
+
+            declare SlowCheck
+                delayMs : int
+                done : boolean
+            end
+
+            rule "Slow consequence"
+                when
+                    $fact : SlowCheck(done == false)
+                then
+                    threads.add(Thread.currentThread().getName());
+                    long end = System.nanoTime() + $fact.getDelayMs() * 1000000L;
+                    while (System.nanoTime() < end) {
+                    }
+                    $fact.setDone(true);
+            end
+            """;
+
+    private static KieBase kieBase;
+    private static FactType factType;
+
+    private final List<String> threads = new CopyOnWriteArrayList<>();
+    private RuleExecutionGuard guard;
+
+    @BeforeAll
+    static void compile() {
+        kieBase = new KieBaseCompiler().compile(DRL, false);
+        factType = kieBase.getFactType(FactBindingPlan.RULES_PACKAGE, "SlowCheck");
+    }
+
+    @AfterEach
+    void destroyGuard() {
+        if (guard != null) {
+            guard.destroy();
+        }
+    }
+
+    @Test
+    void inlineStatelessBatch_shouldRunOnTheCallingThread() throws Exception {
+        guard = new RuleExecutionGuard(5000, 10, ExecutionMode.INLINE, 0, 1);
+        Object fact = fact(0);
+
+        assertThat(guard.execute(statelessSession(), fact)).isEqualTo(1);
+
+        assertThat(factType.get(fact, "done")).isEqualTo(true);
+        assertThat(threads).containsExactly(Thread.currentThread().getName());
+        assertThat(executorThreads()).isZero();
+    }
+
+    @Test
+    void inlineStatelessBatch_shouldTimeOutOnceTheSlowFiringReturns() {
+        guard = new RuleExecutionGuard(50, 10, ExecutionMode.INLINE, 0, 1);
+
+        assertThatThrownBy(() -> guard.execute(statelessSession(), fact(200)))
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        e -> assertThat(e.getStatus()).isEqualTo(HttpStatus.GATEWAY_TIMEOUT));
+        assertThat(threads).containsExactly(Thread.currentThread().getName());
+    }
+
+    @Test
+    void executorMode_shouldKeepItsThreadCountBoundedWhenEvaluationsTimeOut() {
+        guard = new RuleExecutionGuard(50, 10, ExecutionMode.EXECUTOR, 2, 1);
+
+        for (int i = 0; i < 10; i++) {
+            boolean stateless = i % 2 == 0;
+            // Every evaluation is late: it times out, or is rejected once the late ones fill the pool
+            assertThatThrownBy(() -> {
+                if (stateless) {
+                    guard.execute(statelessSession(), fact(1000));
+                } else {
+                    KieSession session = kieBase.newKieSession();
+                    session.setGlobal("threads", threads);
+                    session.insert(fact(1000));
+                    guard.fireAllRules(session);
+                }
+            }).isInstanceOfSatisfying(ResponseStatusException.class,
+                    e -> assertThat(e.getStatus()).isIn(HttpStatus.GATEWAY_TIMEOUT, HttpStatus.SERVICE_UNAVAILABLE));
+        }
+
+        assertThat(executorThreads()).isBetween(1L, 2L);
+        assertThat(threads).allMatch(name -> name.startsWith("rule-executor-"));
+    }
+
+    private StatelessKieSession statelessSession() {
+        StatelessKieSession session = kieBase.newStatelessKieSession();
+        session.setGlobal("threads", threads);
+        return session;
+    }
+
+    private static Object fact(int delayMs) throws Exception {
+        Object fact = factType.newInstance();
+        factType.set(fact, "delayMs", delayMs);
+        return fact;
+    }
+
+    private static long executorThreads() {
+        return Thread.getAllStackTraces().keySet().stream()
+                .filter(thread -> thread.isAlive() && thread.getName().startsWith("rule-executor-"))
+                .count();
+    }
+}
@@ -0,0 +1,115 @@
+package com.islamic.policyengine.service;
+
+import com.islamic.policyengine.exception.DrlCompilationException;
+import com.islamic.policyengine.model.enums.CompileMode;
+import com.islamic.policyengine.model.snapshot.RuleSnapshot;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.kie.api.KieBase;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SharedKieBaseRegistryTest {
+
+    private static final String DRL = """
+            package com.islamic.policyengine.rules;
+
+            declare LimitCheck
+                amount : java.math.BigDecimal
+                allowed : boolean
+            end
+
+            rule "Within limit"
+                when
+                    $fact : LimitCheck(amount != null, amount.compareTo(new java.math.BigDecimal("100")) <= 0)
+                then
+                    $fact.setAllowed(true);
+            end
+            """;
+
+    private static KieBase kieBase;
+
+    private final SharedKieBaseRegistry registry = new SharedKieBaseRegistry(new SimpleMeterRegistry());
+    private final AtomicInteger builds = new AtomicInteger();
+
+    @BeforeAll
+    static void compile() {
+        kieBase = new KieBaseCompiler().compile(DRL, false);
+    }
+
+    @Test
+    void rulesWithTheSameDrl_shouldShareOneKieBaseUntilTheLastRelease() {
+        // A copy with Windows line endings and trailing blanks is the same rule body
+        String copy = DRL.replace("\n", "  \r\n") + "\n\n";
+
+        SharedKieBaseRegistry.Lease first = registry.acquire(rule(DRL, CompileMode.CLASSIC), false, loader());
+        SharedKieBaseRegistry.Lease second = registry.acquire(rule(copy, CompileMode.CLASSIC), false, loader());
+
+        assertThat(builds).hasValue(1);
+        assertThat(first.source()).isEqualTo(RuleArtifactService.Source.COMPILED);
+        assertThat(second.source()).isEqualTo(RuleArtifactService.Source.SHARED);
+        assertThat(second.kieBase()).isSameAs(first.kieBase());
+        assertThat(second.contentHash()).isEqualTo(first.contentHash());
+        assertThat(registry.size()).isEqualTo(1);
+        assertThat(registry.references()).isEqualTo(2);
+
+        first.release();
+        first.release();
+        assertThat(registry.size()).isEqualTo(1);
+        assertThat(registry.references()).isEqualTo(1);
+
+        second.release();
+        assertThat(registry.size()).isZero();
+        assertThat(registry.references()).isZero();
+
+        registry.acquire(rule(DRL, CompileMode.CLASSIC), false, loader());
+        assertThat(builds).hasValue(2);
+    }
+
+    @Test
+    void differentCompileModeOrSequentialFlag_shouldNotShare() {
+        registry.acquire(rule(DRL, CompileMode.CLASSIC), false, loader());
+        registry.acquire(rule(DRL, CompileMode.CLASSIC), true, loader());
+        registry.acquire(rule(DRL, CompileMode.EXECUTABLE_MODEL), false, loader());
+        registry.acquire(rule(DRL.replace("100", "200"), CompileMode.CLASSIC), false, loader());
+
+        assertThat(builds).hasValue(4);
+        assertThat(registry.size()).isEqualTo(4);
+    }
+
+    @Test
+    void failedBuild_shouldNotBeKept() {
+        assertThatThrownBy(() -> registry.acquire(rule(DRL, CompileMode.CLASSIC), false, () -> {
+            throw new DrlCompilationException("broken", List.of("error"));
+        })).isInstanceOf(DrlCompilationException.class);
+        assertThat(registry.size()).isZero();
+        assertThat(registry.references()).isZero();
+
+        registry.acquire(rule(DRL, CompileMode.CLASSIC), false, loader());
+        assertThat(builds).hasValue(1);
+    }
+
+    private Supplier<RuleArtifactService.Loaded> loader() {
+        return () -> {
+            builds.incrementAndGet();
+            return new RuleArtifactService.Loaded(kieBase, RuleArtifactService.Source.COMPILED);
+        };
+    }
+
+    private static RuleSnapshot rule(String drl, CompileMode mode) {
+        return RuleSnapshot.builder()
+                .id(UUID.randomUUID())
+                .version(1)
+                .policyType("LIMIT_CHECK")
+                .drlSource(drl)
+                .compileMode(mode)
+                .build();
+    }
+}
@@ -1,14 +1,13 @@
 package com.islamic.policyengine.service;
 
 import com.islamic.policyengine.model.enums.AccountTier;
+import com.islamic.policyengine.model.enums.CompileMode;
 import com.islamic.policyengine.model.fact.TransactionFact;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.kie.api.KieBase;
-import org.kie.api.io.ResourceType;
 import org.kie.api.runtime.KieSession;
-import org.kie.internal.utils.KieHelper;
 
 import java.math.BigDecimal;
 
@@ -114,11 +113,14 @@ class TransactionLimitRuleTest {
 
     private KieSession session;
 
+    /** Overridden by {@link ExecutableModelRuleTest} to run the same cases on the executable model. */
+    CompileMode compileMode() {
+        return CompileMode.CLASSIC;
+    }
+
     @BeforeEach
     void setUp() {
-        KieHelper kieHelper = new KieHelper();
-        kieHelper.addContent(DRL, ResourceType.DRL);
-        KieBase kieBase = kieHelper.build();
+        KieBase kieBase = new KieBaseCompiler().compile(DRL, false, compileMode());
         session = kieBase.newKieSession();
 
         session.setGlobal("silverDailyLimit", new BigDecimal("10000000"));
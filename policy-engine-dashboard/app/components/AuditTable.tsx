@@ -1,5 +1,6 @@
 import { useReducer } from "react";
-import type { AuditLog } from "~/lib/types";
+import { useFetcher } from "react-router";
+import type { AuditLog, AuditLogDetail } from "~/lib/types";
 import { PolicyTypeBadge } from "./StatusBadge";
 
 interface AuditTableState {
@@ -88,6 +89,20 @@ function AuditRow({
   isExpanded: boolean;
   onToggle: () => void;
 }) {
+  // Payloads are not part of the list response; fetch them the first time the row opens
+  const fetcher = useFetcher<AuditLogDetail | { error: true; message: string }>();
+
+  function handleToggle() {
+    if (!isExpanded && fetcher.state === "idle" && !fetcher.data) {
+      fetcher.load(
+        `/api/audit/${log.id}?at=${encodeURIComponent(log.createdAt)}`
+      );
+    }
+    onToggle();
+  }
+
+  const detail = fetcher.data && !("error" in fetcher.data) ? fetcher.data : null;
+
   return (
     <>
       <tr className="hover:bg-gray-50">
@@ -106,7 +121,7 @@ function AuditRow({
         </td>
         <td className="px-4 py-3">
           <button
-            onClick={onToggle}
+            onClick={handleToggle}
             className="text-gray-400 hover:text-gray-600"
           >
             <svg
@@ -124,20 +139,26 @@ function AuditRow({
       {isExpanded && (
         <tr>
           <td colSpan={6} className="bg-gray-50 px-4 py-3">
-            <div className="grid grid-cols-2 gap-4">
-              <div>
-                <p className="mb-1 text-xs font-medium text-gray-500">Input</p>
-                <pre className="overflow-auto rounded bg-gray-900 p-3 text-xs text-green-400">
-                  {JSON.stringify(log.inputData, null, 2)}
-                </pre>
-              </div>
-              <div>
-                <p className="mb-1 text-xs font-medium text-gray-500">Output</p>
-                <pre className="overflow-auto rounded bg-gray-900 p-3 text-xs text-green-400">
-                  {JSON.stringify(log.outputData, null, 2)}
-                </pre>
+            {detail ? (
+              <div className="grid grid-cols-2 gap-4">
+                <div>
+                  <p className="mb-1 text-xs font-medium text-gray-500">Input</p>
+                  <pre className="overflow-auto rounded bg-gray-900 p-3 text-xs text-green-400">
+                    {JSON.stringify(detail.inputData, null, 2)}
+                  </pre>
+                </div>
+                <div>
+                  <p className="mb-1 text-xs font-medium text-gray-500">Output</p>
+                  <pre className="overflow-auto rounded bg-gray-900 p-3 text-xs text-green-400">
+                    {JSON.stringify(detail.outputData, null, 2)}
+                  </pre>
+                </div>
               </div>
-            </div>
+            ) : fetcher.data && "error" in fetcher.data ? (
+              <p className="text-sm text-red-600">{fetcher.data.message}</p>
+            ) : (
+              <p className="text-sm text-gray-500">Loading...</p>
+            )}
           </td>
         </tr>
       )}
@@ -16,7 +16,7 @@ type FieldSchemaAction =
       category: "INPUT" | "RESULT";
       index: number;
       key: keyof RuleField;
-      value: string | string[] | number;
+      value: string | string[] | number | boolean;
     }
   | { type: "SET_FIELDS"; inputFields: RuleField[]; resultFields: RuleField[] };
 
@@ -166,6 +166,28 @@ function FieldRow({
           />
         </div>
       )}
+      {(field.fieldType === "INTEGER" || field.fieldType === "BIG_DECIMAL") && (
+        <label
+          className="flex items-center gap-1 pt-6 text-xs text-gray-600"
+          title="Index audited values so they can be range-searched"
+        >
+          <input
+            type="checkbox"
+            checked={field.searchable ?? false}
+            onChange={(e) =>
+              dispatch({
+                type: "UPDATE_FIELD",
+                category,
+                index,
+                key: "searchable",
+                value: e.target.checked,
+              })
+            }
+            className="rounded border-gray-300 text-emerald-600 focus:ring-emerald-500"
+          />
+          Searchable
+        </label>
+      )}
       <div className="pt-5">
         <button
           type="button"
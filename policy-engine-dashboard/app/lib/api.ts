@@ -3,7 +3,12 @@ import type {
   RuleField,
   EvaluationResponse,
   AuditLog,
+  AuditLogDetail,
   PaginatedResponse,
+  CursorPage,
+  CountMode,
+  EvaluationStats,
+  StatsInterval,
   ErrorResponse,
   FactMetadata,
   RuleDefinition,
@@ -180,6 +185,57 @@ export function getAuditLogs(params?: {
   );
 }
 
+export function getAuditLogsCursor(params?: {
+  policyType?: string;
+  ruleId?: number | string;
+  dateFrom?: string;
+  dateTo?: string;
+  cursor?: string;
+  size?: number;
+  count?: CountMode;
+}): Promise<CursorPage<AuditLog>> {
+  const searchParams = new URLSearchParams();
+  if (params?.policyType) searchParams.set("policyType", params.policyType);
+  if (params?.ruleId) searchParams.set("ruleId", String(params.ruleId));
+  if (params?.dateFrom) searchParams.set("dateFrom", params.dateFrom);
+  if (params?.dateTo) searchParams.set("dateTo", params.dateTo);
+  if (params?.cursor) searchParams.set("cursor", params.cursor);
+  if (params?.size !== undefined)
+    searchParams.set("size", String(params.size));
+  if (params?.count) searchParams.set("count", params.count);
+  const qs = searchParams.toString();
+  return request<CursorPage<AuditLog>>(
+    `/api/v1/audit/cursor${qs ? `?${qs}` : ""}`
+  );
+}
+
+export function getAuditLog(
+  id: number | string,
+  at?: string
+): Promise<AuditLogDetail> {
+  const query = at ? `?at=${encodeURIComponent(at)}` : "";
+  return request<AuditLogDetail>(`/api/v1/audit/${id}${query}`);
+}
+
+export function getEvaluationStats(params?: {
+  policyType?: string;
+  ruleId?: number | string;
+  from?: string;
+  to?: string;
+  interval?: StatsInterval;
+}): Promise<EvaluationStats> {
+  const searchParams = new URLSearchParams();
+  if (params?.policyType) searchParams.set("policyType", params.policyType);
+  if (params?.ruleId) searchParams.set("ruleId", String(params.ruleId));
+  if (params?.from) searchParams.set("from", params.from);
+  if (params?.to) searchParams.set("to", params.to);
+  if (params?.interval) searchParams.set("interval", params.interval);
+  const qs = searchParams.toString();
+  return request<EvaluationStats>(
+    `/api/v1/audit/stats${qs ? `?${qs}` : ""}`
+  );
+}
+
 export function getFactMetadata(): Promise<FactMetadata> {
   return request<FactMetadata>("/api/v1/rules/metadata");
 }
@@ -11,6 +11,7 @@ export interface RuleField {
   fieldCategory: "INPUT" | "RESULT";
   enumValues?: string[];
   fieldOrder: number;
+  searchable?: boolean;
 }
 
 export interface Rule {
@@ -46,13 +47,16 @@ export interface AuditLog {
   policyType: string;
   ruleId: number;
   ruleVersion: number;
-  inputData: Record<string, unknown>;
-  outputData: Record<string, unknown>;
   evaluationMs: number;
   callerId: string;
   createdAt: string;
 }
 
+export interface AuditLogDetail extends AuditLog {
+  inputData: Record<string, unknown>;
+  outputData: Record<string, unknown>;
+}
+
 export interface PaginatedResponse<T> {
   content: T[];
   totalElements: number;
@@ -60,6 +64,39 @@ export interface PaginatedResponse<T> {
   number: number;
 }
 
+export type CountMode = "NONE" | "EXACT" | "ESTIMATE";
+
+export interface CursorPage<T> {
+  content: T[];
+  nextCursor: string | null;
+  total: number | null;
+  totalEstimated: boolean;
+}
+
+export type StatsInterval = "MINUTE" | "HOUR" | "DAY";
+
+export interface EvaluationStatsBucket {
+  bucket: string;
+  evaluations: number;
+  throughputPerSecond: number;
+  avgMs: number;
+  maxMs: number;
+  p50Ms: number;
+  p95Ms: number;
+  p99Ms: number;
+  outcomes: Record<string, number>;
+}
+
+export interface EvaluationStats {
+  policyType: string | null;
+  ruleId: string | null;
+  from: string;
+  to: string;
+  interval: StatsInterval;
+  summary: EvaluationStatsBucket;
+  buckets: EvaluationStatsBucket[];
+}
+
 export interface ErrorResponse {
   error: string;
   message: string;
@@ -16,5 +16,6 @@ export default [
     route('audit', 'routes/_layout.audit.tsx')
   ]),
   route('api/generate-drl', 'routes/api.generate-drl.ts'),
-  route('api/validate-drl', 'routes/api.validate-drl.ts')
+  route('api/validate-drl', 'routes/api.validate-drl.ts'),
+  route('api/audit/:auditId', 'routes/api.audit.$auditId.ts')
 ] satisfies RouteConfig;
@@ -4,13 +4,13 @@ import {
   isRouteErrorResponse,
 } from "react-router";
 import type { Route } from "./+types/_layout.audit";
-import { getAuditLogs, getRules } from "~/lib/api";
+import { getAuditLogsCursor, getRules } from "~/lib/api";
 import { POLICY_TYPE_LABELS } from "~/lib/types";
-import type { AuditLog, PaginatedResponse } from "~/lib/types";
+import type { AuditLog, CursorPage } from "~/lib/types";
 import { AuditTable } from "~/components/AuditTable";
 
 interface AuditPageData {
-  logs: PaginatedResponse<AuditLog>;
+  logs: CursorPage<AuditLog>;
   policyTypes: string[];
   error?: string;
 }
@@ -21,17 +21,19 @@ export async function loader({ request }: Route.LoaderArgs): Promise<AuditPageDa
   const ruleId = url.searchParams.get("ruleId");
   const dateFrom = url.searchParams.get("dateFrom");
   const dateTo = url.searchParams.get("dateTo");
-  const page = Number(url.searchParams.get("page") || "0");
+  const cursor = url.searchParams.get("cursor");
 
   try {
     const [logs, rulesRes] = await Promise.all([
-      getAuditLogs({
+      getAuditLogsCursor({
         policyType: policyType || undefined,
         ruleId: ruleId || undefined,
         dateFrom: dateFrom || undefined,
         dateTo: dateTo || undefined,
-        page,
+        cursor: cursor || undefined,
         size: 20,
+        // The planner estimate is free; an exact count scans every matching row
+        count: cursor ? "NONE" : "ESTIMATE",
       }),
       getRules({ size: 100 }),
     ]);
@@ -41,7 +43,7 @@ export async function loader({ request }: Route.LoaderArgs): Promise<AuditPageDa
     return { logs, policyTypes };
   } catch {
     return {
-      logs: { content: [], totalElements: 0, totalPages: 0, number: 0 },
+      logs: { content: [], nextCursor: null, total: null, totalEstimated: false },
       policyTypes: [],
       error: "Unable to load audit logs. Is the backend running?",
     };
@@ -72,16 +74,22 @@ export default function AuditPage() {
     } else {
       params.delete(key);
     }
-    params.delete("page");
+    params.delete("cursor");
     setSearchParams(params);
   }
 
-  function goToPage(page: number) {
+  function goToCursor(cursor: string | null) {
     const params = new URLSearchParams(searchParams);
-    params.set("page", String(page));
+    if (cursor) {
+      params.set("cursor", cursor);
+    } else {
+      params.delete("cursor");
+    }
     setSearchParams(params);
   }
 
+  const isFirstPage = !searchParams.get("cursor");
+
   return (
     <div>
       <div className="mb-6">
@@ -151,25 +159,26 @@ export default function AuditPage() {
       <AuditTable logs={data.logs.content} />
 
       {/* Pagination */}
-      {data.logs.totalPages > 1 && (
+      {(!isFirstPage || data.logs.nextCursor) && (
         <div className="mt-6 flex items-center justify-between">
           <p className="text-sm text-gray-500">
-            Page {data.logs.number + 1} of {data.logs.totalPages} ({data.logs.totalElements} total)
+            {data.logs.total !== null &&
+              `${data.logs.totalEstimated ? "About " : ""}${data.logs.total.toLocaleString()} entries`}
           </p>
           <div className="flex gap-2">
             <button
-              onClick={() => goToPage(data.logs.number - 1)}
-              disabled={data.logs.number === 0}
+              onClick={() => goToCursor(null)}
+              disabled={isFirstPage}
               className="rounded-lg border border-gray-300 bg-white px-3 py-1.5 text-sm font-medium text-gray-700 hover:bg-gray-50 disabled:opacity-50"
             >
-              Previous
+              Newest
             </button>
             <button
-              onClick={() => goToPage(data.logs.number + 1)}
-              disabled={data.logs.number >= data.logs.totalPages - 1}
+              onClick={() => goToCursor(data.logs.nextCursor)}
+              disabled={!data.logs.nextCursor}
               className="rounded-lg border border-gray-300 bg-white px-3 py-1.5 text-sm font-medium text-gray-700 hover:bg-gray-50 disabled:opacity-50"
             >
-              Next
+              Older
             </button>
           </div>
         </div>
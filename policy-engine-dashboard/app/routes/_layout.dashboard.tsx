@@ -1,11 +1,16 @@
 import { Link, useLoaderData, isRouteErrorResponse } from "react-router";
 import type { Route } from "./+types/_layout.dashboard";
-import { getRules, getAuditLogs } from "~/lib/api";
-import type { AuditLog } from "~/lib/types";
+import { getRules, getAuditLogsCursor, getEvaluationStats } from "~/lib/api";
+import type { AuditLog, EvaluationStatsBucket } from "~/lib/types";
 import { PolicyTypeBadge } from "~/components/StatusBadge";
 
 interface DashboardData {
-  stats: { type: string; total: number; active: number }[];
+  stats: {
+    type: string;
+    total: number;
+    active: number;
+    lastDay: EvaluationStatsBucket | null;
+  }[];
   recentAudit: AuditLog[];
   error?: string;
 }
@@ -14,7 +19,7 @@ export async function loader(): Promise<DashboardData> {
   try {
     const [rulesRes, auditRes] = await Promise.all([
       getRules({ size: 100 }),
-      getAuditLogs({ size: 10 }),
+      getAuditLogsCursor({ size: 10 }),
     ]);
 
     const rules = rulesRes.content;
@@ -26,9 +31,17 @@ export async function loader(): Promise<DashboardData> {
       if (rule.isActive) entry.active++;
       typeMap.set(rule.policyType, entry);
     }
-    const stats = Array.from(typeMap.entries())
-      .map(([type, counts]) => ({ type, ...counts }))
-      .sort((a, b) => a.type.localeCompare(b.type));
+    // Served from the per-minute rollups, so this stays cheap however large the audit log is
+    const stats = await Promise.all(
+      Array.from(typeMap.entries())
+        .sort(([a], [b]) => a.localeCompare(b))
+        .map(async ([type, counts]) => {
+          const lastDay = await getEvaluationStats({ policyType: type })
+            .then((res) => res.summary)
+            .catch(() => null);
+          return { type, ...counts, lastDay };
+        })
+    );
 
     return { stats, recentAudit: auditRes.content };
   } catch {
@@ -92,6 +105,13 @@ export default function DashboardPage() {
               <p className="mt-1 text-sm text-gray-500">
                 {stat.active} active
               </p>
+              {stat.lastDay && (
+                <p className="mt-1 text-xs text-gray-400">
+                  {stat.lastDay.evaluations.toLocaleString()} evaluations in 24h
+                  {stat.lastDay.evaluations > 0 &&
+                    ` · p95 ${stat.lastDay.p95Ms.toFixed(1)}ms`}
+                </p>
+              )}
             </Link>
           ))}
         </div>
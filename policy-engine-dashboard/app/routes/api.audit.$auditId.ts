@@ -0,0 +1,14 @@
+import { getAuditLog } from '~/lib/api';
+import type { Route } from './+types/api.audit.$auditId';
+
+export async function loader({ params, request }: Route.LoaderArgs) {
+  const at = new URL(request.url).searchParams.get('at') ?? undefined;
+  try {
+    return await getAuditLog(params.auditId, at);
+  } catch (err) {
+    return {
+      error: true,
+      message: err instanceof Error ? err.message : 'Failed to load audit entry'
+    };
+  }
+}